@@ -0,0 +1,81 @@
+package com.sun.benchmark.checksum;
+
+import com.sun.common.util.Crc32C;
+import com.sun.common.util.PureJavaCrc32C;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Checksum;
+
+/**
+ * @description: CRC32C计算：纯Java实现（PureJavaCrc32C） 与 JDK实现（JDK 9+的java.util.zip.CRC32C，由Crc32C::create选择）
+ *               compute: Crc32C::compute，编解码器使用的入口（每次创建一个Checksum）
+ *               运行: java -jar netty-rpc-benchmark/target/benchmarks.jar Crc32CBenchmark
+ * @author: Sun Xiaodong
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Crc32CBenchmark {
+
+    // 32: 只有协议头；其余为协议头 + 协议体
+    @Param({"32", "1024", "65536"})
+    private int size;
+
+    private byte[] bytes;
+    private ByteBuffer directBuffer;
+    private Checksum pureJava;
+    private Checksum jdk;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        bytes = new byte[size];
+        new Random(42).nextBytes(bytes);
+        directBuffer = ByteBuffer.allocateDirect(size);
+        ((Buffer) directBuffer.put(bytes)).flip();
+        pureJava = new PureJavaCrc32C();
+        jdk = Crc32C.create();
+    }
+
+
+    @Benchmark
+    public long pureJava() {
+        pureJava.reset();
+        pureJava.update(bytes, 0, bytes.length);
+        return pureJava.getValue();
+    }
+
+    @Benchmark
+    public long jdk() {
+        jdk.reset();
+        jdk.update(bytes, 0, bytes.length);
+        return jdk.getValue();
+    }
+
+    @Benchmark
+    public long compute() {
+        return Crc32C.compute(bytes, 0, bytes.length);
+    }
+
+    @Benchmark
+    public long computeDirect() {
+        return Crc32C.compute(directBuffer, 0, size);
+    }
+}
@@ -0,0 +1,134 @@
+package com.sun.benchmark.codec;
+
+import com.sun.common.context.RpcContext;
+import com.sun.common.exchange.codec.ExchangeCodec;
+import com.sun.common.exchange.message.Request;
+import com.sun.common.exchange.message.RequestBody;
+import com.sun.common.exchange.message.RequestHeader;
+import com.sun.common.exchange.message.Response;
+import com.sun.common.exchange.message.ResponseBody;
+import com.sun.common.exchange.message.ResponseHeader;
+import com.sun.common.exchange.message.ResponseStatus;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @description: RPC协议编码、解码（ExchangeCodec::encode/decode，含CRC32C校验与协议体序列化）
+ *               encode: 编码到池化的直接内存ByteBuf；decode: 从编码好的完整帧解码（与CodecAdapter.RpcDecoder的路径一致）
+ *               attachments: none: 请求头不含附件区；trace: 请求携带trace-id、span-id附件
+ *               运行: java -jar netty-rpc-benchmark/target/benchmarks.jar ExchangeCodecBenchmark -prof gc
+ * @author: Sun Xiaodong
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExchangeCodecBenchmark {
+
+    // small: HelloService::sayHello的请求、响应；large: 响应体含10000个整数
+    @Param({"small", "large"})
+    private String payload;
+
+    @Param({"none", "trace"})
+    private String attachments;
+
+    private final ExchangeCodec codec = new ExchangeCodec();
+    private Request request;
+    private Response response;
+    private ByteBuf out;
+    private ByteBuf encodedRequest;
+    private ByteBuf encodedResponse;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final RequestHeader requestHeader = RequestHeader.getDefault(3000);
+        if ("trace".equals(attachments)) {
+            final Map<String, String> trace = new HashMap<>();
+            trace.put(RpcContext.TRACE_ID, "4bf92f3577b34da6a3ce929d0e0e4736");
+            trace.put(RpcContext.SPAN_ID, "00f067aa0ba902b7");
+            requestHeader.setAttachments(trace);
+        }
+        request = new Request(requestHeader, new RequestBody()
+                .setInterfaceName("com.sun.common.service.HelloService")
+                .setMethodName("sayHello")
+                .setReturnType(String.class)
+                .setParameterTypes(new Class<?>[]{String.class})
+                .setParameters(new Object[]{"netty-rpc"}));
+
+        final Object result;
+        if ("small".equals(payload)) {
+            result = "Hello, netty-rpc";
+        } else {
+            final List<Integer> list = new ArrayList<>();
+            for (int i = 0; i < 10000; i++) {
+                list.add(i);
+            }
+            result = list;
+        }
+        final ResponseHeader responseHeader = (ResponseHeader) ResponseHeader.getDefault()
+                                                                             .setId(requestHeader.getId())
+                                                                             .setSerialization(requestHeader.getSerialization());
+        responseHeader.setStatus(ResponseStatus.OK);
+        response = new Response(responseHeader, new ResponseBody(result));
+
+        out = PooledByteBufAllocator.DEFAULT.directBuffer();
+        encodedRequest = PooledByteBufAllocator.DEFAULT.directBuffer();
+        codec.encode(request, encodedRequest);
+        encodedResponse = PooledByteBufAllocator.DEFAULT.directBuffer();
+        codec.encode(response, encodedResponse);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        out.release();
+        encodedRequest.release();
+        encodedResponse.release();
+    }
+
+
+    @Benchmark
+    public int encodeRequest() {
+        out.clear();
+        codec.encode(request, out);
+        return out.writerIndex();
+    }
+
+    @Benchmark
+    public int encodeResponse() {
+        out.clear();
+        codec.encode(response, out);
+        return out.writerIndex();
+    }
+
+    @Benchmark
+    public Object decodeRequest() {
+        // decode按绝对索引读取，不改变读索引，同一帧可重复解码
+        return codec.decode(encodedRequest);
+    }
+
+    @Benchmark
+    public Object decodeResponse() {
+        return codec.decode(encodedResponse);
+    }
+}
@@ -0,0 +1,98 @@
+package com.sun.benchmark.compress;
+
+import com.sun.common.compress.Compressor;
+import com.sun.common.enumerator.Compression;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @description: 消息体压缩：各压缩类型在池化direct ByteBuf上的压缩、解压吞吐量（输入为类JSON文本，接近典型业务消息体的可压缩程度）
+ *               压缩率见setup输出；依赖不可用的压缩类型回退到DEFLATE
+ *               运行: java -jar netty-rpc-benchmark/target/benchmarks.jar CompressionBenchmark
+ * @author: Sun Xiaodong
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressionBenchmark {
+
+    @Param({"DEFLATE", "LZ4", "ZSTD", "SNAPPY"})
+    private String compression;
+
+    // 4096: 默认压缩阈值
+    @Param({"4096", "65536"})
+    private int size;
+
+    private Compressor compressor;
+    private ByteBuf source;
+    private ByteBuf compressed;
+    private ByteBuf target;
+    private int compressedLength;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        compressor = Compression.valueOf(compression).availableOrDeflate().compressor();
+        final byte[] bytes = payload(size);
+        source = PooledByteBufAllocator.DEFAULT.directBuffer(size).writeBytes(bytes);
+        compressed = PooledByteBufAllocator.DEFAULT.directBuffer(compressor.maxCompressedLength(size));
+        target = PooledByteBufAllocator.DEFAULT.directBuffer(size);
+        compressedLength = compressor.compress(source, 0, size, compressed);
+        System.out.printf("%n%s, size: %d, compressed: %d (%.1f%%)%n", compression, size, compressedLength, compressedLength * 100.0 / size);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        source.release();
+        compressed.release();
+        target.release();
+    }
+
+
+    @Benchmark
+    public int compress() {
+        compressed.clear();
+        return compressor.compress(source, 0, size, compressed);
+    }
+
+    @Benchmark
+    public int decompress() {
+        target.clear();
+        compressor.decompress(compressed, 0, compressedLength, target, size);
+        return target.writerIndex();
+    }
+
+
+    // 类JSON文本：字段名重复，字段值随机
+    private static byte[] payload(final int size) {
+        final Random random = new Random(42);
+        final StringBuilder builder = new StringBuilder(size + 64);
+        while (builder.length() < size) {
+            builder.append("{\"id\":").append(random.nextInt(1_000_000))
+                   .append(",\"name\":\"user-").append(Integer.toHexString(random.nextInt()))
+                   .append("\",\"score\":").append(random.nextInt(999))
+                   .append(",\"active\":").append(random.nextBoolean()).append("},");
+        }
+        builder.setLength(size);
+        return builder.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,82 @@
+package com.sun.benchmark.id;
+
+import com.sun.common.id.ObjectId;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @description: 请求ID（ObjectId）的生成、十六进制格式化、写入与读取协议头、64位关联ID
+ *               运行: java -jar netty-rpc-benchmark/target/benchmarks.jar ObjectIdBenchmark -prof gc
+ *               多线程生成（共享计数器的竞争）: 加上 -t 8
+ * @author: Sun Xiaodong
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectIdBenchmark {
+
+    private ObjectId id;
+    private ByteBuf buf;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        id = ObjectId.get();
+        buf = PooledByteBufAllocator.DEFAULT.directBuffer(12);
+        id.writeTo(buf);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        buf.release();
+    }
+
+
+    @Benchmark
+    public ObjectId generate() {
+        return ObjectId.get();
+    }
+
+    @Benchmark
+    public String toHexString() {
+        return id.toHexString();
+    }
+
+    @Benchmark
+    public byte[] toByteArray() {
+        return id.toByteArray();
+    }
+
+    @Benchmark
+    public int writeTo() {
+        buf.clear();
+        id.writeTo(buf);
+        return buf.writerIndex();
+    }
+
+    @Benchmark
+    public ObjectId readFrom() {
+        return new ObjectId(buf, 0);
+    }
+
+    @Benchmark
+    public long correlationId() {
+        return id.correlationId();
+    }
+}
@@ -0,0 +1,187 @@
+package com.sun.benchmark.roundtrip;
+
+import com.sun.common.exchange.codec.ExchangeCodec;
+import com.sun.common.exchange.message.Request;
+import com.sun.common.exchange.message.RequestBody;
+import com.sun.common.exchange.message.RequestHeader;
+import com.sun.common.exchange.message.Response;
+import com.sun.common.exchange.message.ResponseBody;
+import com.sun.common.exchange.message.ResponseHeader;
+import com.sun.common.exchange.message.ResponseStatus;
+import com.sun.common.metrics.DefaultMetricsRegistry;
+import com.sun.common.metrics.RpcMetrics;
+import com.sun.common.netty.NettyOperation;
+import com.sun.common.netty.WriteCoalescer;
+import com.sun.common.netty.codec.CodecAdapter;
+import com.sun.common.netty.codec.RpcProtocolFrameDecoder;
+import com.sun.common.util.Constants;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalServerChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @description: 同一JVM内客户端 -> 服务端的RPC往返（编码、CRC32C、序列化、写合并、帧解码、解码、响应）
+ *               local: LocalChannel（不经过网络栈，只体现协议处理的开销）；tcp: 回环地址上的TCP连接（含系统调用）
+ *               服务端直接在I/O线程中响应，客户端按64位关联ID匹配响应，与RpcServer、RpcClient的pipeline一致
+ *               Throughput: 吞吐量；SampleTime: 往返耗时的分位数（p50、p90、p99、p99.9）；每次操作的内存分配: -prof gc
+ *               运行: java -jar netty-rpc-benchmark/target/benchmarks.jar RoundTripBenchmark -prof gc
+ *               并发调用方: -t 16
+ * @author: Sun Xiaodong
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class RoundTripBenchmark {
+
+    @Param({"local", "tcp"})
+    private String transport;
+
+    private final RequestBody body = new RequestBody()
+            .setInterfaceName("com.sun.common.service.HelloService")
+            .setMethodName("sayHello")
+            .setReturnType(String.class)
+            .setParameterTypes(new Class<?>[]{String.class})
+            .setParameters(new Object[]{"netty-rpc"});
+    // 未完成的请求，k: 请求ID的64位关联ID
+    private final Map<Long, CompletableFuture<Response>> pending = new ConcurrentHashMap<>();
+    // 客户端、服务端各自的指标（写合并的统计）
+    private final DefaultMetricsRegistry metricsRegistry = new DefaultMetricsRegistry();
+    private final RpcMetrics serverMetrics = new RpcMetrics(metricsRegistry, "server");
+    private final RpcMetrics clientMetrics = new RpcMetrics(metricsRegistry, "client");
+    private EventLoopGroup serverGroup;
+    private EventLoopGroup clientGroup;
+    private Channel serverChannel;
+    private Channel clientChannel;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final ServerBootstrap serverBootstrap = new ServerBootstrap();
+        final Bootstrap clientBootstrap = new Bootstrap();
+        final SocketAddress bindAddress;
+        if ("local".equals(transport)) {
+            serverGroup = new DefaultEventLoopGroup(1);
+            clientGroup = new DefaultEventLoopGroup(1);
+            serverBootstrap.group(serverGroup).channel(LocalServerChannel.class);
+            clientBootstrap.group(clientGroup).channel(LocalChannel.class);
+            bindAddress = new LocalAddress("netty-rpc-benchmark");
+        } else {
+            serverGroup = NettyOperation.eventLoopGroup(1, "benchmark_server_eventloop");
+            clientGroup = NettyOperation.eventLoopGroup(1, "benchmark_client_eventloop");
+            serverBootstrap.group(serverGroup).channel(NettyOperation.serverSocketChannelClass())
+                           .childOption(ChannelOption.TCP_NODELAY, true)
+                           .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+            clientBootstrap.group(clientGroup).channel(NettyOperation.socketChannelClass())
+                           .option(ChannelOption.TCP_NODELAY, true)
+                           .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+            bindAddress = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        }
+        serverChannel = serverBootstrap.childHandler(initializer(new ServerHandler(), serverMetrics)).bind(bindAddress).syncUninterruptibly().channel();
+        clientChannel = clientBootstrap.handler(initializer(new ClientHandler(), clientMetrics)).connect(serverChannel.localAddress()).syncUninterruptibly().channel();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        clientChannel.close().syncUninterruptibly();
+        serverChannel.close().syncUninterruptibly();
+        clientGroup.shutdownGracefully(0L, 1L, TimeUnit.SECONDS).syncUninterruptibly();
+        serverGroup.shutdownGracefully(0L, 1L, TimeUnit.SECONDS).syncUninterruptibly();
+        System.out.printf("%n%s, messages per flush: client %.2f, server %.2f%n", transport,
+                clientMetrics.messagesPerFlush(), serverMetrics.messagesPerFlush());
+    }
+
+
+    @Benchmark
+    public Response roundTrip() throws Exception {
+        final Request request = new Request(RequestHeader.getDefault(0), body);
+        final long correlationId = request.getHeader().getId().correlationId();
+        final CompletableFuture<Response> future = new CompletableFuture<>();
+        pending.put(correlationId, future);
+        clientChannel.writeAndFlush(request);
+        try {
+            return future.get(5L, TimeUnit.SECONDS);
+        } finally {
+            pending.remove(correlationId);
+        }
+    }
+
+
+    // 与RpcServer、RpcClient相同的pipeline（不含心跳）
+    private static ChannelInitializer<Channel> initializer(final ChannelHandler handler, final RpcMetrics metrics) {
+        return new ChannelInitializer<Channel>() {
+            @Override
+            protected void initChannel(Channel ch) {
+                final CodecAdapter adapter = new CodecAdapter(new ExchangeCodec());
+                ch.pipeline()
+                  .addLast("write_coalescer", new WriteCoalescer(Constants.DEFAULT_FLUSH_MAX_MESSAGES, Constants.DEFAULT_FLUSH_MAX_BYTES, metrics))
+                  .addLast("rpc_frame_decoder", new RpcProtocolFrameDecoder())
+                  .addLast("rpc_decoder", adapter.getDecoder())
+                  .addLast("rpc_encoder", adapter.getEncoder())
+                  .addLast("handler", handler);
+            }
+        };
+    }
+
+    // 服务端：在I/O线程中直接响应（相当于@NonBlocking的服务方法）
+    @ChannelHandler.Sharable
+    private static final class ServerHandler extends SimpleChannelInboundHandler<Request> {
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, Request msg) {
+            final RequestHeader requestHeader = msg.getHeader();
+            final ResponseHeader responseHeader = (ResponseHeader) ResponseHeader.getDefault()
+                                                                                 .setId(requestHeader.getId())
+                                                                                 .setEvent(requestHeader.getEvent())
+                                                                                 .setSerialization(requestHeader.getSerialization());
+            responseHeader.setStatus(ResponseStatus.OK);
+            ctx.writeAndFlush(new Response(responseHeader, new ResponseBody("Hello, " + msg.getBody().getParameters()[0])));
+        }
+    }
+
+    // 客户端：按关联ID完成等待响应的future
+    @ChannelHandler.Sharable
+    private final class ClientHandler extends SimpleChannelInboundHandler<Response> {
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, Response msg) {
+            final CompletableFuture<Response> future = pending.remove(msg.getHeader().getId().correlationId());
+            if (null != future) {
+                future.complete(msg);
+            }
+        }
+    }
+}
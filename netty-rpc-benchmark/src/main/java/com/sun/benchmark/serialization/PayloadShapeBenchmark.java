@@ -0,0 +1,111 @@
+package com.sun.benchmark.serialization;
+
+import com.sun.common.enumerator.Serialization;
+import com.sun.common.exchange.message.RequestBody;
+import com.sun.common.exchange.message.ResponseBody;
+import com.sun.common.id.serialization.InputSource;
+import com.sun.common.id.serialization.OutputSink;
+import com.sun.common.id.serialization.Serializer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @description: 不同形态的协议体的序列化、反序列化（Serialization::serializer，直接读写池化的ByteBuf）
+ *               primitives: 参数为基本类型及字符串的请求体；list: 与HelloService::random一致的List<Integer>（10个元素）响应体；
+ *               map: 含10000个条目的Map<String, Integer>响应体
+ *               运行: java -jar netty-rpc-benchmark/target/benchmarks.jar PayloadShapeBenchmark -prof gc
+ *               只比较部分序列化类型: -p serialization=KRYO,FURY（BINARY只支持基本类型、String、数组、集合等）
+ * @author: Sun Xiaodong
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadShapeBenchmark {
+
+    @Param({"primitives", "list", "map"})
+    private String shape;
+
+    // Serialization枚举名
+    @Param({"PROTOSTUFF", "KRYO", "FURY", "BINARY"})
+    private String serialization;
+
+    private Object message;
+    private Class<?> messageClass;
+    private Serializer serializer;
+    private ByteBuf out;
+    private ByteBuf serialized;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final Random random = new Random(42);
+        switch (shape) {
+            case "primitives":
+                message = new RequestBody()
+                        .setInterfaceName("com.sun.benchmark.PrimitiveService")
+                        .setMethodName("call")
+                        .setReturnType(Long.class)
+                        .setParameterTypes(new Class<?>[]{Integer.class, Long.class, Double.class, Boolean.class, String.class})
+                        .setParameters(new Object[]{42, 1L << 40, Math.PI, Boolean.TRUE, "netty-rpc"});
+                break;
+            case "list":
+                final List<Integer> list = new ArrayList<>();
+                for (int i = 0; i < 10; i++) {
+                    list.add(random.nextInt(1000));
+                }
+                message = new ResponseBody(list);
+                break;
+            default:
+                final Map<String, Integer> map = new HashMap<>();
+                for (int i = 0; i < 10000; i++) {
+                    map.put("key-" + i, random.nextInt());
+                }
+                message = new ResponseBody(map);
+        }
+        messageClass = message.getClass();
+        serializer = Serialization.valueOf(serialization).serializer();
+        out = PooledByteBufAllocator.DEFAULT.directBuffer();
+        serialized = PooledByteBufAllocator.DEFAULT.directBuffer();
+        serializer.serialize(message, OutputSink.wrap(serialized));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        out.release();
+        serialized.release();
+    }
+
+
+    @Benchmark
+    public int serialize() {
+        out.clear();
+        return serializer.serialize(message, OutputSink.wrap(out));
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(messageClass, InputSource.wrap(serialized, serialized.readerIndex(), serialized.readableBytes()));
+    }
+}
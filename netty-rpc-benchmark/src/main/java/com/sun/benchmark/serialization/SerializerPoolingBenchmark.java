@@ -0,0 +1,104 @@
+package com.sun.benchmark.serialization;
+
+import com.sun.common.enumerator.Serialization;
+import com.sun.common.exchange.message.RequestBody;
+import com.sun.common.exchange.message.ResponseBody;
+import com.sun.common.id.serialization.OutputSink;
+import com.sun.common.id.serialization.ReflectiveSerializerFactory;
+import com.sun.common.id.serialization.Serializer;
+import com.sun.common.id.serialization.impl.ProtostuffSerializer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.protostuff.LinkedBuffer;
+import io.protostuff.ProtostuffIOUtil;
+import io.protostuff.Schema;
+import io.protostuff.runtime.RuntimeSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @description: 序列化器池化前后的对比（建议加上 -prof gc 查看每次操作的内存分配）
+ *               legacy: 每条消息反射创建序列化器 + 新分配LinkedBuffer（优化前Header::serializerFactory的路径）
+ *               pooled: 序列化器单例 + 线程本地LinkedBuffer
+ *               pooledToByteBuf: 序列化器单例 + 线程本地LinkedBuffer，直接写入池化的ByteBuf
+ *               运行: java -jar netty-rpc-benchmark/target/benchmarks.jar SerializerPoolingBenchmark -prof gc
+ * @author: Sun Xiaodong
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializerPoolingBenchmark {
+
+    // small: HelloService::sayHello的请求体；large: 含10000个整数的响应体
+    @Param({"small", "large"})
+    private String payload;
+
+    private Object message;
+    private Schema<Object> schema;
+    private Serializer serializer;
+    private ByteBuf buf;
+
+    @SuppressWarnings("unchecked")
+    @Setup(Level.Trial)
+    public void setup() {
+        if ("small".equals(payload)) {
+            message = new RequestBody()
+                    .setInterfaceName("com.sun.common.service.HelloService")
+                    .setMethodName("sayHello")
+                    .setReturnType(String.class)
+                    .setParameterTypes(new Class<?>[]{String.class})
+                    .setParameters(new Object[]{"netty-rpc"});
+        } else {
+            final List<Integer> list = new ArrayList<>();
+            for (int i = 0; i < 10000; i++) {
+                list.add(i);
+            }
+            message = new ResponseBody(list);
+        }
+        schema = (Schema<Object>) RuntimeSchema.getSchema(message.getClass());
+        serializer = Serialization.PROTOSTUFF.serializer();
+        buf = PooledByteBufAllocator.DEFAULT.directBuffer();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        buf.release();
+    }
+
+
+    @Benchmark
+    public byte[] legacy() {
+        // 每条消息反射创建一个序列化器（对象本身无状态，这里只为体现创建开销）
+        new ReflectiveSerializerFactory<>(ProtostuffSerializer.class).newSerializer();
+        return ProtostuffIOUtil.toByteArray(message, schema, LinkedBuffer.allocate(LinkedBuffer.DEFAULT_BUFFER_SIZE));
+    }
+
+    @Benchmark
+    public byte[] pooled() {
+        return serializer.serialize(message);
+    }
+
+    @Benchmark
+    public int pooledToByteBuf() {
+        buf.clear();
+        return serializer.serialize(message, OutputSink.wrap(buf));
+    }
+}
@@ -1,16 +1,43 @@
 package com.sun.client.context;
 
 import com.sun.client.context.configure.RpcClientProperties;
+import com.sun.client.context.loadbalance.LoadBalancer;
+import com.sun.client.context.pool.ChannelPool;
+import com.sun.client.context.pool.Endpoint;
+import com.sun.client.context.pool.PendingRequests;
+import com.sun.client.context.pool.PooledChannel;
 import com.sun.client.handler.HeartBeatClientHandler;
 import com.sun.client.handler.RpcClientHandler;
+import com.sun.common.context.RpcContext;
+import com.sun.common.enumerator.Compression;
 import com.sun.common.enumerator.Event;
+import com.sun.common.enumerator.Serialization;
 import com.sun.common.exchange.codec.ExchangeCodec;
 import com.sun.common.exchange.message.Request;
+import com.sun.common.exchange.message.RequestBody;
+import com.sun.common.exchange.message.RequestHeader;
 import com.sun.common.exchange.message.Response;
+import com.sun.common.exchange.message.ResponseBody;
+import com.sun.common.exchange.message.ResponseHeader;
+import com.sun.common.exchange.message.ResponseStatus;
+import com.sun.common.exchange.message.ServiceCatalog;
+import com.sun.common.id.Id;
+import com.sun.common.log.AccessLog;
+import com.sun.common.metrics.MetricsRegistry;
+import com.sun.common.metrics.RpcMetrics;
+import com.sun.common.netty.DeadlineTimer;
+import com.sun.common.netty.FrameMetricsHandler;
 import com.sun.common.netty.NettyOperation;
+import com.sun.common.netty.WriteCoalescer;
 import com.sun.common.netty.codec.CodecAdapter;
 import com.sun.common.netty.codec.RpcProtocolFrameDecoder;
 import com.sun.common.util.Constants;
+import com.sun.common.util.StringUtil;
+import com.sun.common.util.VirtualThreads;
+import com.sun.registry.ProviderInfo;
+import com.sun.registry.Registries;
+import com.sun.registry.Registry;
+import com.sun.registry.RegistryEvent;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFutureListener;
@@ -20,7 +47,10 @@ import io.netty.channel.ChannelPipeline;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.concurrent.EventExecutorGroup;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -29,10 +59,15 @@ import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 import java.net.InetSocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -43,26 +78,55 @@ import java.util.concurrent.TimeUnit;
 @Component
 public class RpcClient {
     private static final Logger log = LoggerFactory.getLogger(RpcClient.class);
+    // 连接上协商成功的服务目录
+    private static final AttributeKey<ServiceCatalog> SERVICE_CATALOG = AttributeKey.valueOf("service_catalog");
+    // 连接上未完成的请求（在initChannel中创建，连接关闭时由RpcClientHandler以CHANNEL_INACTIVE完成）
+    private static final AttributeKey<PendingRequests> PENDING_REQUESTS = AttributeKey.valueOf("pending_requests");
+    // 不等待响应的请求（如：心跳）写出失败时记录日志（写出成功时不做任何日志工作，请求的访问日志见AccessLog）
+    private static final ChannelFutureListener LOG_FAILURE = future -> {
+        if (!future.isSuccess()) {
+            log.error("Failed to send request: {}", String.valueOf(future.cause()));
+        }
+    };
 
     @Resource
     public RpcClientProperties properties;
-
-    // RPC客户端异步请求时，缓存sendRequest中生成的CompletableFuture<Response>对象，
-    private final Map<String, CompletableFuture<Response>> responseFutures;
+    @Resource
+    private MetricsRegistry metricsRegistry;
 
     private NettyClient client;
+    // 访问日志（采样、异步输出）
+    private AccessLog accessLog;
+    // RPC指标
+    private RpcMetrics metrics;
+    // 压缩类型（依赖不可用时回退到DEFLATE），只用于被@Compress标记的服务方法的请求
+    private Compression compression;
 
-    public RpcClient() {
-        responseFutures = new ConcurrentHashMap<>();
-    }
+    public RpcClient() {}
 
 
     @PostConstruct
     public void init() {
+        final RpcClientProperties.AccessLog config = properties.getAccessLog();
+        this.accessLog = new AccessLog("client", config.getEnabled(), config.getSampleRate(), config.getSlowThreshold(),
+                config.getMaxPerSecond(), config.getBufferSize());
+        this.metrics = newMetrics();
+        this.compression = properties.getCompression().getType().availableOrDeflate();
+        log.info("Request compression: {}, threshold: {} bytes", compression, properties.getCompression().getThreshold());
         startNettyClient();
     }
 
 
+    // 客户端的RPC指标（含写合并的统计），以及响应回调线程池队列长度、访问日志的统计
+    private RpcMetrics newMetrics() {
+        final RpcMetrics rpcMetrics = new RpcMetrics(metricsRegistry, "client");
+        final AccessLog accessLog = this.accessLog;
+        rpcMetrics.gauge("rpc.handler.queue.depth", () -> Objects.isNull(client) ? 0D : client.handlerQueueDepth());
+        rpcMetrics.gauge("rpc.access.log.dropped", accessLog::dropped);
+        return rpcMetrics;
+    }
+
+
     private void startNettyClient() {
         this.client = new NettyClient();
         this.client.setName("rpc_client");
@@ -73,74 +137,197 @@ public class RpcClient {
     @PreDestroy
     public void close() {
         this.client.doClose();
+        this.accessLog.close(properties.getNettyClient().getTimeout());
     }
 
 
-    // 成功响应，则通过requestId移除对应的CompleteFuture对象
-    public void removeCompleteFutureObject(final String requestId) {
-        responseFutures.remove(requestId);
+    // 被@Compress标记的服务方法的请求使用的压缩类型
+    public Compression compression() {
+        return this.compression;
     }
 
-    // 超时或出错时，调用CompleteFuture对象的Complete方法，将其状态置为完成
-    public void completeCompleteFutureObject(final String requestId) {
-        CompletableFuture<Response> future = responseFutures.get(requestId);
-        // 已经完成 或者 调用complete方法返回false时，移除此future对象
-        if(future.isDone() || !future.complete(Response.VOID)) {
-            responseFutures.remove(requestId);
+
+    // 发送请求（从连接池中选择连接）
+    public void sendRequest0(Request request) {
+        final Endpoint endpoint = client.selectEndpoint(request);
+        final PooledChannel pooledChannel = Objects.isNull(endpoint) ? null : endpoint.pool().select();
+        if (Objects.nonNull(pooledChannel)) {
+            sendRequest0(pooledChannel.channel(), request);
+        } else {
+            log.error("channel is disconnected");
         }
     }
 
+    // 通过指定连接发送请求
+    public void sendRequest0(final Channel channel, final Request request) {
+        writeRequest(channel, request, LOG_FAILURE);
+    }
 
-    // 发送请求
-    public void sendRequest0(Request request) {
+    // 通过指定连接发送请求，连接已关闭、编码失败（如：序列化不支持的类型）、写出失败时，以失败的ChannelFuture通知listener
+    private void writeRequest(final Channel channel, final Request request, final ChannelFutureListener listener) {
         try {
-            final String requestId = request.getHeader().getId().toString();
-            final boolean isHeartbeat = request.getHeader().getEvent() == Event.HEARTBEAT;
-            final Channel channel = client.getChannel();
-            if (channel.isActive()) {
-                channel.eventLoop().submit(() ->
-                channel.writeAndFlush(request).addListener((ChannelFutureListener) channelFuture -> {
-                    if (channelFuture.isSuccess()) {
-                        log.info("Send {}: {}", isHeartbeat ? "heartbeat" : "request", requestId);
-                    } else {
-                        Throwable cause = channelFuture.cause();
-                        if (Objects.nonNull(cause)) {
-                            cause.printStackTrace();
-                        }
-                    }})
-                );
-            } else {
-                log.error("channel is disconnected");
+            if (!channel.isActive()) {
+                channel.newFailedFuture(new ClosedChannelException()).addListener(listener);
+                return;
+            }
+            // 服务目录协商成功后，请求体只携带方法ID和参数
+            final ServiceCatalog catalog = channel.attr(SERVICE_CATALOG).get();
+            if (Objects.nonNull(catalog) && Objects.nonNull(request.getBody())) {
+                catalog.compact(request.getBody());
             }
+            // 非I/O线程中调用时，由Netty提交到连接的event loop中写出；flush由写合并处理器在本轮任务执行完时合并
+            channel.writeAndFlush(request).addListener(listener);
         } catch (Exception e) {
-            log.error("{}", e);
+            channel.newFailedFuture(e).addListener(listener);
         }
     }
 
     // 发送请求且返回一个CompletableFuture<Response>对象
+    // 没有可用连接时，返回的CompletableFuture对象以CHANNEL_INACTIVE状态的响应完成
     public CompletableFuture<Response> sendRequest(Request request) {
-        final String requestId = request.getHeader().getId().toString();
+        final long correlationId = request.getHeader().getId().correlationId();
         CompletableFuture<Response> future = new CompletableFuture<>();
-        responseFutures.put(requestId, future);
-        sendRequest0(request);
+        final Endpoint endpoint = client.selectEndpoint(request);
+        final PooledChannel pooledChannel = Objects.isNull(endpoint) ? null : endpoint.pool().select();
+        final PendingRequests pendingRequests = Objects.isNull(pooledChannel) ? null : pooledChannel.channel().attr(PENDING_REQUESTS).get();
+        // 连接在选出后、登记前关闭时，请求表拒绝登记
+        if (Objects.isNull(pendingRequests) || !pendingRequests.put(correlationId, future)) {
+            log.error("channel is disconnected");
+            future.complete(errorResponse(request.getHeader().getId(), request.getHeader().getSerialization(),
+                    ResponseStatus.CHANNEL_INACTIVE, "channel is disconnected"));
+            return future;
+        }
+        // 请求完成（成功响应、超时、失败）时，从请求表中移除，连接上未完成的请求数减1，并记录节点的请求结果、耗时
+        // 发送前取得接口名、方法名（服务目录协商成功后，发送时请求体只保留方法ID）
+        final RequestBody body = request.getBody();
+        final String interfaceName = Objects.isNull(body) ? null : body.getInterfaceName();
+        final String methodName = Objects.isNull(body) ? null : body.getMethodName();
+        final long startNanos = System.nanoTime();
+        pooledChannel.acquire();
+        metrics.requestStarted();
+        future.whenComplete((response, throwable) -> {
+            final long latencyNanos = System.nanoTime() - startNanos;
+            pendingRequests.remove(correlationId);
+            pooledChannel.release();
+            endpoint.record(response, latencyNanos);
+            final byte status = Objects.isNull(response) ? ResponseStatus.CLIENT_ERROR : response.getHeader().getStatus();
+            metrics.requestCompleted();
+            metrics.method(interfaceName, methodName).record(status, latencyNanos);
+            accessLog.record(request.getHeader().getId(), pooledChannel.channel().remoteAddress(), interfaceName, methodName,
+                    request.getHeader().getAttachment(RpcContext.TRACE_ID), status, latencyNanos);
+        });
+        expireAfterTimeout(future, request.getHeader());
+        // 写出失败时立即以CLIENT_ERROR状态的响应完成请求（完成时从请求表中移除），不等待超时
+        writeRequest(pooledChannel.channel(), request, f -> {
+            if (!f.isSuccess()) {
+                log.warn("Failed to send request {}: {}", request.getHeader().getId(), String.valueOf(f.cause()));
+                future.complete(errorResponse(request.getHeader().getId(), request.getHeader().getSerialization(),
+                        ResponseStatus.CLIENT_ERROR, "failed to send request: " + f.cause(), f.cause()));
+            }
+        });
         return future;
     }
 
 
+    // 超时未响应时，由超时服务以CLIENT_TIMEOUT状态的响应完成请求（完成时从连接的请求表中移除）
+    // 与正常响应一样在响应回调线程池中完成，调用方的后续回调不在超时服务的时间轮线程中执行
+    private void expireAfterTimeout(final CompletableFuture<Response> future, final RequestHeader header) {
+        final long timeoutMillis = header.getTimeoutMillis();
+        DeadlineTimer.expireAfter(future, timeoutMillis, () -> errorResponse(header.getId(), header.getSerialization(),
+                ResponseStatus.CLIENT_TIMEOUT, "request timeout after " + timeoutMillis + "ms"), client.handlerGroup);
+    }
+
+
+    // 客户端生成的错误响应（未发送、连接关闭、超时），用于完成未完成的请求
+    public static Response errorResponse(final Id id, final Serialization serialization, final byte status, final String errorMsg) {
+        return errorResponse(id, serialization, status, errorMsg, null);
+    }
+
+    // 客户端生成的错误响应，携带导致失败的异常（RpcProxy将其作为抛出异常的cause）
+    public static Response errorResponse(final Id id, final Serialization serialization, final byte status, final String errorMsg, final Throwable cause) {
+        final ResponseHeader header = (ResponseHeader) ResponseHeader.getDefault()
+                                                                     .setId(id)
+                                                                     .setSerialization(serialization);
+        header.setStatus(status);
+        return new Response(header, new ResponseBody(cause, errorMsg));
+    }
+
+
+    // 服务目录协商：向服务端获取服务目录，协商成功前（或失败时）请求体仍携带接口名、方法名、参数类型
+    private void negotiateCatalog(final Channel channel) {
+        final RequestHeader header = (RequestHeader) RequestHeader.getDefault(properties.getTimeout())
+                .setEvent(Event.CATALOG)
+                .setSerialization(properties.getSerializer());
+        final Request request = new Request(header, new RequestBody());
+        final long correlationId = header.getId().correlationId();
+        final PendingRequests pendingRequests = channel.attr(PENDING_REQUESTS).get();
+        final CompletableFuture<Response> future = new CompletableFuture<>();
+        if (!pendingRequests.put(correlationId, future)) {
+            // 连接已关闭
+            return;
+        }
+        future.whenComplete((response, throwable) -> {
+            pendingRequests.remove(correlationId);
+            if (Objects.nonNull(response) && ResponseStatus.OK == response.getHeader().getStatus()
+                    && response.getBody().getResult() instanceof String[]) {
+                final ServiceCatalog catalog = ServiceCatalog.of((String[]) response.getBody().getResult());
+                channel.attr(SERVICE_CATALOG).set(catalog);
+                log.info("Service catalog negotiated with {} methods", catalog.size());
+            } else {
+                log.warn("Service catalog negotiation failed, fallback to method names");
+            }
+        });
+        expireAfterTimeout(future, header);
+        channel.writeAndFlush(request).addListener((ChannelFutureListener) channelFuture -> {
+            if (!channelFuture.isSuccess()) {
+                future.completeExceptionally(channelFuture.cause());
+            }
+        });
+    }
+
+
 
     class NettyClient extends Thread implements NettyOperation {
         private static final String EVENT_LOOP_POOL_NAME = "client_event_loop";
         private static final String HANDLER_THREAD_POOL_NAME = "rpc_handler_event_loop";
-
-        private volatile Channel channel;
+        private static final String HANDLER_VIRTUAL_THREAD_PREFIX = "rpc_handler_virtual-";
+
+        // 服务提供者节点（节点列表变化时，整体替换）
+        private volatile List<Endpoint> endpoints = Collections.emptyList();
+        // 按服务接口划分的节点列表（使用注册中心时）；为null时，所有节点都提供所有服务接口
+        private volatile Map<String, List<Endpoint>> routes;
+        private LoadBalancer loadBalancer;
+        private Bootstrap bootstrap;
+        // 注册中心（未配置时为null）
+        private Registry registry;
+        // 注册中心中的服务提供者及其节点（k: 服务提供者ID），在onRegistryEvent中修改
+        private final Map<String, ProviderInfo> providers = new HashMap<>();
+        private final Map<String, Endpoint> providerEndpoints = new HashMap<>();
         private EventLoopGroup group;
-        // Rpc业务线程池
-        private EventExecutorGroup handlerGroup;
+        // Rpc业务线程池（响应回调），使用虚拟线程时为每个任务一个虚拟线程的执行器
+        private ExecutorService handlerGroup;
 
         public NettyClient() {}
 
-        public Channel getChannel() {
-            return this.channel;
+        // 通过负载均衡器，从有可用连接的节点中选择一个节点
+        public Endpoint selectEndpoint(final Request request) {
+            final Map<String, List<Endpoint>> routes = this.routes;
+            final List<Endpoint> endpoints = Objects.isNull(routes) ? this.endpoints
+                    : routes.getOrDefault(request.getBody().getInterfaceName(), Collections.emptyList());
+            List<Endpoint> available = endpoints;
+            for (int i = 0; i < endpoints.size(); i++) {
+                if (!endpoints.get(i).isAvailable()) {
+                    // 存在不可用节点时，才复制出可用节点列表
+                    available = new ArrayList<>(endpoints.size());
+                    for (Endpoint endpoint : endpoints) {
+                        if (endpoint.isAvailable()) {
+                            available.add(endpoint);
+                        }
+                    }
+                    break;
+                }
+            }
+            return available.isEmpty() ? null : loadBalancer.select(available, request);
         }
 
 
@@ -153,8 +340,28 @@ public class RpcClient {
         @Override
         public void doOpen() {
             try {
-                Bootstrap bootstrap = initBootstrap();
-                this.channel = Objects.requireNonNull(bootstrap).connect(getConnectAddress()).syncUninterruptibly().channel();
+                Bootstrap bootstrap = Objects.requireNonNull(initBootstrap());
+                this.bootstrap = bootstrap;
+                final RpcClientProperties.NettyClient nettyClient = properties.getNettyClient();
+                this.loadBalancer = nettyClient.getLoadBalancer().newLoadBalancer(nettyClient.getHashArgument());
+                // 使用注册中心时，订阅服务提供者变更，由变更事件建立、关闭连接池
+                if (isRegistryEnabled()) {
+                    this.routes = Collections.emptyMap();
+                    this.registry = Registries.create(properties.getRegistry().getAddress());
+                    this.registry.subscribe(this::onRegistryEvent);
+                    return;
+                }
+                final List<Endpoint> endpoints = new ArrayList<>();
+                for (RpcClientProperties.Provider provider : nettyClient.effectiveProviders()) {
+                    final InetSocketAddress address = new InetSocketAddress(provider.getAddress(), provider.getPort());
+                    final ChannelPool pool = new ChannelPool(bootstrap, address, nettyClient.getPoolSize(),
+                            nettyClient.getPoolSelector(), RpcClient.this::negotiateCatalog);
+                    endpoints.add(new Endpoint(address, provider.getWeight(), pool));
+                }
+                this.endpoints = Collections.unmodifiableList(endpoints);
+                for (Endpoint endpoint : endpoints) {
+                    endpoint.pool().connect();
+                }
             } catch (Exception e) {
                 log.error("{}", e);
             }
@@ -164,8 +371,15 @@ public class RpcClient {
         @Override
         public void doClose() {
             try {
-                if (Objects.nonNull(this.channel) && this.channel.isOpen()) {
-                    this.channel.close();
+                if (Objects.nonNull(this.registry)) {
+                    this.registry.close();
+                }
+            } catch (Exception e) {
+                log.warn("{}", e);
+            }
+            try {
+                for (Endpoint endpoint : this.endpoints) {
+                    endpoint.pool().close();
                 }
             } catch (Exception e) {
                 log.warn("{}", e);
@@ -174,8 +388,11 @@ public class RpcClient {
             final long timeoutMillis = properties.getNettyClient().getTimeout();
             final long quietPeriod = Math.min(Constants.EVENTLOOP_SHUTDOWN_QUIET_PERIOD, timeoutMillis);
             try {
-                if (Objects.nonNull(handlerGroup)) {
-                    handlerGroup.shutdownGracefully(quietPeriod, timeoutMillis, TimeUnit.MILLISECONDS).syncUninterruptibly();
+                if (handlerGroup instanceof EventExecutorGroup) {
+                    ((EventExecutorGroup) handlerGroup).shutdownGracefully(quietPeriod, timeoutMillis, TimeUnit.MILLISECONDS).syncUninterruptibly();
+                } else if (Objects.nonNull(handlerGroup)) {
+                    handlerGroup.shutdown();
+                    handlerGroup.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
                 }
             } catch (Exception exception) {
                 log.warn("{}", exception);
@@ -187,14 +404,97 @@ public class RpcClient {
             } catch (Exception exception) {
                 log.warn("{}", exception);
             }
+            log.info("Write coalescing: {} flushes, {} messages per flush", metrics.flushes(),
+                    String.format("%.2f", metrics.messagesPerFlush()));
             log.info("Netty client closed.");
         }
 
 
+        // 注册中心的服务提供者变更：新增时建立连接池，变更时更新权重等信息（复用连接池），下线时延迟关闭连接池
+        private synchronized void onRegistryEvent(final RegistryEvent event) {
+            final ProviderInfo provider = event.provider();
+            final String id = provider.id();
+            final Endpoint previous = providerEndpoints.get(id);
+            if (RegistryEvent.Type.REMOVED == event.type()) {
+                providers.remove(id);
+                providerEndpoints.remove(id);
+                if (Objects.nonNull(previous)) {
+                    // 等待已发送的请求完成后再关闭连接
+                    final long delay = Math.max(properties.getTimeout(), Constants.EVENTLOOP_SHUTDOWN_QUIET_PERIOD);
+                    group.schedule(() -> previous.pool().close(), delay, TimeUnit.MILLISECONDS);
+                }
+            } else {
+                providers.put(id, provider);
+                if (Objects.nonNull(previous)) {
+                    // 原地更新，保留节点的健康状态（连续失败次数、峰值EWMA延迟），进行中的请求仍记录到该节点
+                    previous.update(provider.weight(), provider.warmupMillis(), provider.timestamp());
+                } else {
+                    final RpcClientProperties.NettyClient nettyClient = properties.getNettyClient();
+                    final ChannelPool pool = new ChannelPool(bootstrap, new InetSocketAddress(provider.address(), provider.port()),
+                            nettyClient.getPoolSize(), nettyClient.getPoolSelector(), RpcClient.this::negotiateCatalog);
+                    providerEndpoints.put(id, new Endpoint(pool.address(), provider.weight(), pool, provider.warmupMillis(), provider.timestamp()));
+                    pool.connectAsync();
+                }
+            }
+            log.info("Registry {} {}", event.type(), provider);
+
+            // 重建节点列表、按服务接口划分的节点列表
+            final Map<String, List<Endpoint>> routes = new HashMap<>();
+            for (Map.Entry<String, ProviderInfo> entry : providers.entrySet()) {
+                final Endpoint endpoint = providerEndpoints.get(entry.getKey());
+                for (String interfaceName : entry.getValue().interfaces()) {
+                    routes.computeIfAbsent(interfaceName, k -> new ArrayList<>()).add(endpoint);
+                }
+            }
+            routes.replaceAll((k, v) -> Collections.unmodifiableList(v));
+            this.endpoints = Collections.unmodifiableList(new ArrayList<>(providerEndpoints.values()));
+            this.routes = routes;
+        }
+
+
+        private boolean isRegistryEnabled() {
+            return Objects.nonNull(properties.getRegistry()) && !StringUtil.isBlank(properties.getRegistry().getAddress());
+        }
+
+
+        // 响应回调线程池中等待执行的任务数（虚拟线程执行器无队列，为0）
+        public int handlerQueueDepth() {
+            final ExecutorService handlerGroup = this.handlerGroup;
+            if (!(handlerGroup instanceof EventExecutorGroup)) {
+                return 0;
+            }
+            int depth = 0;
+            for (EventExecutor executor : (EventExecutorGroup) handlerGroup) {
+                if (executor instanceof SingleThreadEventExecutor) {
+                    depth += ((SingleThreadEventExecutor) executor).pendingTasks();
+                }
+            }
+            return depth;
+        }
+
+
+        // 响应回调线程池：开启虚拟线程且运行时支持时，每个回调一个虚拟线程；否则为16个平台线程
+        private ExecutorService newHandlerGroup() {
+            if (Boolean.TRUE.equals(properties.getVirtualThreads())) {
+                if (VirtualThreads.isSupported()) {
+                    return VirtualThreads.newThreadPerTaskExecutor(HANDLER_VIRTUAL_THREAD_PREFIX);
+                }
+                log.warn("Virtual threads require JDK 21+, fallback to platform threads");
+            }
+            return NettyOperation.eventLoopGroup(16, HANDLER_THREAD_POOL_NAME);
+        }
+
+
         private Bootstrap initBootstrap() {
             try {
-                this.group = NettyOperation.eventLoopGroup(1, EVENT_LOOP_POOL_NAME);
-                this.handlerGroup = NettyOperation.eventLoopGroup(16, HANDLER_THREAD_POOL_NAME);
+                // event loop线程数与连接总数一致（不超过io线程数），使每个连接尽量独占一个event loop
+                // 使用注册中心时，服务提供者数量不确定，使用默认io线程数
+                final RpcClientProperties.NettyClient nettyClient = properties.getNettyClient();
+                final int connections = isRegistryEnabled() ? Constants.DEFAULT_IO_THREADS
+                        : nettyClient.getPoolSize() * nettyClient.effectiveProviders().size();
+                this.group = NettyOperation.eventLoopGroup(Math.min(connections, Constants.DEFAULT_IO_THREADS), EVENT_LOOP_POOL_NAME);
+                this.handlerGroup = newHandlerGroup();
+                final FrameMetricsHandler frameMetricsHandler = new FrameMetricsHandler(metrics);
                 return new Bootstrap().group(group)
                       .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, properties.getNettyClient().getConnectionTimeout())
                       .channel(NettyOperation.socketChannelClass())
@@ -202,20 +502,26 @@ public class RpcClient {
                           @Override
                           protected void initChannel(SocketChannel ch) {
                               final ChannelPipeline pipeline = ch.pipeline();
-                              CodecAdapter adapter = new CodecAdapter(new ExchangeCodec());
-                              pipeline.addLast("idle_state_handler", new IdleStateHandler(0, 0, 2, TimeUnit.SECONDS))
+                              CodecAdapter adapter = new CodecAdapter(new ExchangeCodec(properties.getCompression().getThreshold(), properties.getMaxFrameLength()));
+                              final PendingRequests pendingRequests = new PendingRequests();
+                              ch.attr(PENDING_REQUESTS).set(pendingRequests);
+                              final RpcClientProperties.NettyClient nettyClient = properties.getNettyClient();
+                              // 写合并处理器位于编码器之前（靠近pipeline头部），处理编码后的帧
+                              pipeline.addLast("write_coalescer", new WriteCoalescer(nettyClient.getFlushMaxMessages(), nettyClient.getFlushMaxBytes(), metrics))
+                                      .addLast("idle_state_handler", new IdleStateHandler(0, 0, 2, TimeUnit.SECONDS))
                                       .addLast("heartbeat_handler", new HeartBeatClientHandler(RpcClient.this))
                                       .addLast("rpc_frame_decoder", new RpcProtocolFrameDecoder(properties.getMaxFrameLength()))
+                                      .addLast("frame_metrics", frameMetricsHandler)
                                       .addLast("rpc_decoder", adapter.getDecoder())
                                       .addLast("rpc_encoder", adapter.getEncoder())
-                                      .addLast("rpc_business_client_handler", new RpcClientHandler(handlerGroup, responseFutures));
+                                      .addLast("rpc_business_client_handler", new RpcClientHandler(handlerGroup, pendingRequests));
                           }
                       });
             } catch (Exception e) {
                 log.error("{}", e);
                 if (Objects.nonNull(handlerGroup)) {
                     try {
-                        handlerGroup.shutdownGracefully();
+                        handlerGroup.shutdown();
                     } catch (Exception exception) {
                         log.warn("{}", exception);
                     }
@@ -230,12 +536,5 @@ public class RpcClient {
                 return null;
             }
         }
-
-
-        private InetSocketAddress getConnectAddress() {
-            final String ip = properties.getNettyClient().getAddress();
-            final int port = properties.getNettyClient().getPort();
-            return new InetSocketAddress(ip, port);
-        }
     }
 }
@@ -1,5 +1,8 @@
 package com.sun.client.context.configure;
 
+import com.sun.client.context.loadbalance.LoadBalance;
+import com.sun.client.context.pool.ChannelSelector;
+import com.sun.client.context.pool.Endpoint;
 import com.sun.common.enumerator.CodeKeyEnum;
 import com.sun.common.enumerator.Serialization;
 import com.sun.common.util.Constants;
@@ -13,6 +16,9 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
 
@@ -25,15 +31,25 @@ import java.util.Objects;
 @ConfigurationProperties(prefix = "rpc")
 public class RpcClientProperties {
     private NettyClient nettyClient;
+    private Registry registry;
+    private AccessLog accessLog;
+    private Compression compression;
+    private LoadGenerator loadGenerator;
     private Integer payload;
     private Integer timeout;
     private Serialization serializer;
+    // 使用虚拟线程（JDK 21+）：响应回调、HTTP请求处理（阻塞的代理调用）都在虚拟线程中执行
+    private Boolean virtualThreads;
     private Integer maxFrameLength;
 
 
     RpcClientProperties() {
         this.maxFrameLength = Constants.DEFAULT_PAYLOAD + Constants.HEADER_LENGTH;
         timeout = 0;
+        virtualThreads = false;
+        accessLog = new AccessLog();
+        compression = new Compression();
+        loadGenerator = new LoadGenerator();
     }
 
 
@@ -46,6 +62,40 @@ public class RpcClientProperties {
     }
 
 
+    public Registry getRegistry() {
+        return registry;
+    }
+
+    public void setRegistry(Registry registry) {
+        this.registry = registry;
+    }
+
+
+    public AccessLog getAccessLog() {
+        return accessLog;
+    }
+
+    public void setAccessLog(AccessLog accessLog) {
+        this.accessLog = accessLog;
+    }
+
+    public Compression getCompression() {
+        return compression;
+    }
+
+    public void setCompression(Compression compression) {
+        this.compression = compression;
+    }
+
+    public LoadGenerator getLoadGenerator() {
+        return loadGenerator;
+    }
+
+    public void setLoadGenerator(LoadGenerator loadGenerator) {
+        this.loadGenerator = loadGenerator;
+    }
+
+
     public Integer getPayload() {
         return payload;
     }
@@ -75,6 +125,14 @@ public class RpcClientProperties {
         this.serializer = serializerEnum;
     }
 
+    public Boolean getVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void setVirtualThreads(Boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
 
     public Integer getMaxFrameLength() {
         return maxFrameLength;
@@ -91,11 +149,31 @@ public class RpcClientProperties {
         private Integer port;
         private Integer timeout;
         private Integer connectionTimeout;
+        // 每个服务端的连接数
+        private Integer poolSize;
+        // 连接池中连接的选择策略
+        private ChannelSelector poolSelector;
+        // 服务提供者列表（未设置时，使用address、port作为唯一的服务提供者）
+        private List<Provider> providers;
+        // 负载均衡策略
+        private LoadBalance loadBalancer;
+        // 一致性哈希负载均衡使用的参数下标
+        private Integer hashArgument;
+        // 写合并：未flush的帧数、字节数达到该值时立即flush（见WriteCoalescer）
+        private Integer flushMaxMessages;
+        private Integer flushMaxBytes;
 
         public NettyClient() {
             this.port = Constants.DEFAULT_PORT;
             this.timeout = Constants.EVENTLOOP_SHUTDOWN_TIMEOUT;
             this.connectionTimeout = Constants.CONNECTION_TIMEOUT;
+            this.poolSize = Constants.DEFAULT_CONNECTION_POOL_SIZE;
+            this.poolSelector = ChannelSelector.LEAST_PENDING;
+            this.providers = new ArrayList<>();
+            this.loadBalancer = LoadBalance.LEAST_ACTIVE;
+            this.hashArgument = 0;
+            this.flushMaxMessages = Constants.DEFAULT_FLUSH_MAX_MESSAGES;
+            this.flushMaxBytes = Constants.DEFAULT_FLUSH_MAX_BYTES;
         }
 
         public String getAddress() {
@@ -103,15 +181,7 @@ public class RpcClientProperties {
         }
 
         public void setAddress(String address) {
-            // 如果不是ip形式，且不是"localhost"，那么address是hostname
-            // 需要验证hostname是否有效（即：在hosts文件中是否存在此hostname）
-            address = StringUtil.strip(address);
-            if (!InetAddressValidator.getInstance().isValid(address) && !address.toLowerCase(Locale.ENGLISH).contains(Constants.LOCALHOST)) {
-                if (!validHostnameFromHosts(address)) {
-                    throw new IllegalArgumentException("Unknown address, please set address correctly");
-                }
-            }
-            this.address = address;
+            this.address = validAddress(address);
         }
 
         public Integer getPort() {
@@ -139,6 +209,153 @@ public class RpcClientProperties {
         public void setConnectionTimeout(Integer connectionTimeout) {
             this.connectionTimeout = connectionTimeout;
         }
+
+        public Integer getFlushMaxMessages() {
+            return flushMaxMessages;
+        }
+
+        public void setFlushMaxMessages(Integer flushMaxMessages) {
+            rangeIn(flushMaxMessages, 1, 65536);
+            this.flushMaxMessages = flushMaxMessages;
+        }
+
+        public Integer getFlushMaxBytes() {
+            return flushMaxBytes;
+        }
+
+        public void setFlushMaxBytes(Integer flushMaxBytes) {
+            rangeIn(flushMaxBytes, 1, Integer.MAX_VALUE);
+            this.flushMaxBytes = flushMaxBytes;
+        }
+
+        public Integer getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(Integer poolSize) {
+            rangeIn(poolSize, 1, 64);
+            this.poolSize = poolSize;
+        }
+
+        public ChannelSelector getPoolSelector() {
+            return poolSelector;
+        }
+
+        public void setPoolSelector(String poolSelector) {
+            ChannelSelector selector = StringUtil.isBlank(poolSelector) ? null
+                    : ChannelSelector.values()[0].keyOf(StringUtil.strip(poolSelector)).orElse(null);
+            if (Objects.isNull(selector)) {
+                throw new IllegalArgumentException("Pool selector must be one of: round-robin, least-pending");
+            }
+            this.poolSelector = selector;
+        }
+
+        public List<Provider> getProviders() {
+            return providers;
+        }
+
+        public void setProviders(List<Provider> providers) {
+            this.providers = providers;
+        }
+
+        // 实际使用的服务提供者列表
+        public List<Provider> effectiveProviders() {
+            if (Objects.nonNull(providers) && !providers.isEmpty()) {
+                return providers;
+            }
+            final Provider provider = new Provider();
+            provider.address = address;
+            provider.port = port;
+            return Collections.singletonList(provider);
+        }
+
+        public LoadBalance getLoadBalancer() {
+            return loadBalancer;
+        }
+
+        public void setLoadBalancer(String loadBalancer) {
+            LoadBalance loadBalance = StringUtil.isBlank(loadBalancer) ? null
+                    : LoadBalance.values()[0].keyOf(StringUtil.strip(loadBalancer)).orElse(null);
+            if (Objects.isNull(loadBalance)) {
+                throw new IllegalArgumentException("Load balancer must be one of: round-robin, weighted-random, least-active, peak-ewma, consistent-hash");
+            }
+            this.loadBalancer = loadBalance;
+        }
+
+        public Integer getHashArgument() {
+            return hashArgument;
+        }
+
+        public void setHashArgument(Integer hashArgument) {
+            rangeIn(hashArgument, 0, 255);
+            this.hashArgument = hashArgument;
+        }
+    }
+
+
+
+    public static final class Provider {
+        private String address;
+        private Integer port;
+        private Integer weight;
+
+        public Provider() {
+            this.port = Constants.DEFAULT_PORT;
+            this.weight = Endpoint.DEFAULT_WEIGHT;
+        }
+
+        public String getAddress() {
+            return address;
+        }
+
+        public void setAddress(String address) {
+            this.address = validAddress(address);
+        }
+
+        public Integer getPort() {
+            return port;
+        }
+
+        public void setPort(Integer port) {
+            rangeIn(port, 1025, 65535);
+            this.port = port;
+        }
+
+        public Integer getWeight() {
+            return weight;
+        }
+
+        public void setWeight(Integer weight) {
+            rangeIn(weight, 1, 10000);
+            this.weight = weight;
+        }
+    }
+
+
+    public static final class Registry {
+        // 注册中心地址（设置后，忽略netty-client下的address、port、providers），如：zookeeper://127.0.0.1:2181/netty-rpc、file:///tmp/netty-rpc-registry
+        private String address;
+
+        public String getAddress() {
+            return address;
+        }
+
+        public void setAddress(String address) {
+            this.address = address;
+        }
+    }
+
+
+    // 如果不是ip形式，且不是"localhost"，那么address是hostname
+    // 需要验证hostname是否有效（即：在hosts文件中是否存在此hostname）
+    private static String validAddress(String address) {
+        address = StringUtil.strip(address);
+        if (!InetAddressValidator.getInstance().isValid(address) && !address.toLowerCase(Locale.ENGLISH).contains(Constants.LOCALHOST)) {
+            if (!validHostnameFromHosts(address)) {
+                throw new IllegalArgumentException("Unknown address, please set address correctly");
+            }
+        }
+        return address;
     }
 
 
@@ -206,9 +423,200 @@ public class RpcClientProperties {
     }
 
 
+    public static final class Compression {
+        // 压缩类型：deflate、lz4、zstd、snappy，依赖不可用时回退到deflate；只压缩被@Compress标记的服务接口或方法
+        private com.sun.common.enumerator.Compression type;
+        // 压缩阈值（单位byte），序列化后的协议体不小于该值时才压缩
+        private Integer threshold;
+
+        public Compression() {
+            this.type = com.sun.common.enumerator.Compression.LZ4;
+            this.threshold = Constants.DEFAULT_COMPRESSION_THRESHOLD;
+        }
+
+        public com.sun.common.enumerator.Compression getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            com.sun.common.enumerator.Compression compression = findEnum(com.sun.common.enumerator.Compression.values(), type);
+            if (Objects.isNull(compression)) {
+                throw new IllegalArgumentException("Compression type must be one of: deflate, lz4, zstd, snappy");
+            }
+            this.type = compression;
+        }
+
+        public Integer getThreshold() {
+            return threshold;
+        }
+
+        public void setThreshold(Integer threshold) {
+            rangeIn(threshold, 0, Integer.MAX_VALUE);
+            this.threshold = threshold;
+        }
+    }
+
+
+    public static final class AccessLog {
+        // 是否记录访问日志
+        private Boolean enabled;
+        // 采样率：[0, 1]（未设置慢请求阈值时）
+        private Double sampleRate;
+        // 慢请求阈值（单位ms），大于0时只记录耗时不小于该值的请求；失败的请求总是记录
+        private Integer slowThreshold;
+        // 每秒最多记录的条数
+        private Integer maxPerSecond;
+        // 环形缓冲区大小（向上取2的幂），已满时丢弃
+        private Integer bufferSize;
+
+        public AccessLog() {
+            this.enabled = true;
+            this.sampleRate = Constants.DEFAULT_ACCESS_LOG_SAMPLE_RATE;
+            this.slowThreshold = 0;
+            this.maxPerSecond = Constants.DEFAULT_ACCESS_LOG_MAX_PER_SECOND;
+            this.bufferSize = Constants.DEFAULT_ACCESS_LOG_BUFFER_SIZE;
+        }
+
+        public Boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Double getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(Double sampleRate) {
+            if (Objects.isNull(sampleRate) || sampleRate < 0D || sampleRate > 1D) {
+                throw new IllegalArgumentException("Access log sample rate must be in [0, 1]");
+            }
+            this.sampleRate = sampleRate;
+        }
+
+        public Integer getSlowThreshold() {
+            return slowThreshold;
+        }
+
+        public void setSlowThreshold(Integer slowThreshold) {
+            rangeIn(slowThreshold, 0, Integer.MAX_VALUE);
+            this.slowThreshold = slowThreshold;
+        }
+
+        public Integer getMaxPerSecond() {
+            return maxPerSecond;
+        }
+
+        public void setMaxPerSecond(Integer maxPerSecond) {
+            rangeIn(maxPerSecond, 1, Integer.MAX_VALUE);
+            this.maxPerSecond = maxPerSecond;
+        }
+
+        public Integer getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(Integer bufferSize) {
+            rangeIn(bufferSize, 2, 1 << 20);
+            this.bufferSize = bufferSize;
+        }
+    }
+
+
+    public static final class LoadGenerator {
+        // 启动后运行压测（见com.sun.client.loadgen.LoadGenerator），默认false
+        private Boolean enabled;
+        // 目标请求速率（开环，按固定间隔发出请求，不等待前一个请求完成后再计时），单位：次/秒
+        private Integer rate;
+        // 压测时长（不含预热），单位：s
+        private Integer duration;
+        // 预热时长（不计入统计），单位：s
+        private Integer warmup;
+        // 并发调用线程数（最大的同时未完成请求数）
+        private Integer concurrency;
+        // 请求参数的长度（字节），响应的长度与之相近
+        private Integer payloadSize;
+        // 压测结束后退出进程
+        private Boolean exit;
+
+        public LoadGenerator() {
+            this.enabled = false;
+            this.rate = 1000;
+            this.duration = 30;
+            this.warmup = 5;
+            this.concurrency = 16;
+            this.payloadSize = 16;
+            this.exit = true;
+        }
+
+        public Boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Integer getRate() {
+            return rate;
+        }
+
+        public void setRate(Integer rate) {
+            rangeIn(rate, 1, Integer.MAX_VALUE);
+            this.rate = rate;
+        }
+
+        public Integer getDuration() {
+            return duration;
+        }
+
+        public void setDuration(Integer duration) {
+            rangeIn(duration, 1, Integer.MAX_VALUE);
+            this.duration = duration;
+        }
+
+        public Integer getWarmup() {
+            return warmup;
+        }
+
+        public void setWarmup(Integer warmup) {
+            rangeIn(warmup, 0, Integer.MAX_VALUE);
+            this.warmup = warmup;
+        }
+
+        public Integer getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(Integer concurrency) {
+            rangeIn(concurrency, 1, 10000);
+            this.concurrency = concurrency;
+        }
+
+        public Integer getPayloadSize() {
+            return payloadSize;
+        }
+
+        public void setPayloadSize(Integer payloadSize) {
+            rangeIn(payloadSize, 0, Integer.MAX_VALUE);
+            this.payloadSize = payloadSize;
+        }
+
+        public Boolean getExit() {
+            return exit;
+        }
+
+        public void setExit(Boolean exit) {
+            this.exit = exit;
+        }
+    }
+
+
     // validate range in: [min, max]
     private static void rangeIn(final int current, int min, int max) {
-        if (Math.max(0, current) != Math.min(current, max)) {
+        if (current < min || current > max) {
             throw new IllegalArgumentException(String.format("The given number %d can't be greater than %d or less than %d", current, max, min));
         }
     }
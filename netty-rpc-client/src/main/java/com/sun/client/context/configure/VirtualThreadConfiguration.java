@@ -0,0 +1,33 @@
+package com.sun.client.context.configure;
+
+import com.sun.common.util.VirtualThreads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * @description: rpc.virtual-threads=true时，Tomcat的请求处理线程使用虚拟线程（JDK 21+），
+ *               使阻塞在代理调用（RpcProxy中等待响应）上的请求不占用平台线程
+ * @author: Sun Xiaodong
+ */
+
+@Configuration
+@ConditionalOnProperty(prefix = "rpc", name = "virtual-threads", havingValue = "true")
+public class VirtualThreadConfiguration {
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadConfiguration.class);
+    private static final String TOMCAT_VIRTUAL_THREAD_PREFIX = "http_virtual-";
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            if (VirtualThreads.isSupported()) {
+                protocolHandler.setExecutor(VirtualThreads.newThreadPerTaskExecutor(TOMCAT_VIRTUAL_THREAD_PREFIX));
+            } else {
+                log.warn("Virtual threads require JDK 21+, Tomcat keeps its platform thread pool");
+            }
+        };
+    }
+}
@@ -0,0 +1,91 @@
+package com.sun.client.context.loadbalance;
+
+import com.sun.client.context.pool.Endpoint;
+import com.sun.common.exchange.message.Request;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * @description: 一致性哈希
+ *               按请求的第hashArgument个参数计算哈希值，相同参数的请求总是落到同一个节点（节点变化时，只有少部分请求迁移）；
+ *               每个节点在哈希环上有VIRTUAL_NODES个虚拟节点。节点列表变化时，重建哈希环。
+ * @author: Sun Xiaodong
+ */
+public final class ConsistentHashLoadBalancer implements LoadBalancer {
+    private static final int VIRTUAL_NODES = 160;
+
+    // 参与哈希的参数下标
+    private final int hashArgument;
+    private volatile Ring ring;
+
+    public ConsistentHashLoadBalancer(final int hashArgument) {
+        if (hashArgument < 0) {
+            throw new IllegalArgumentException("Hash argument index must not be negative");
+        }
+        this.hashArgument = hashArgument;
+    }
+
+
+    @Override
+    public Endpoint select(List<Endpoint> endpoints, Request request) {
+        if (1 == endpoints.size()) {
+            return endpoints.get(0);
+        }
+        Ring ring = this.ring;
+        if (Objects.isNull(ring) || (ring.endpoints != endpoints && !ring.endpoints.equals(endpoints))) {
+            ring = new Ring(endpoints);
+            this.ring = ring;
+        }
+        return ring.select(hash(argument(request)));
+    }
+
+
+    private Object argument(final Request request) {
+        final Object[] parameters = Objects.isNull(request.getBody()) ? null : request.getBody().getParameters();
+        return (Objects.nonNull(parameters) && hashArgument < parameters.length) ? parameters[hashArgument] : null;
+    }
+
+    // FNV-1a 64位哈希 + MurmurHash3 fmix64，使分布更均匀
+    static long hash(final Object key) {
+        final String s = String.valueOf(key);
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+
+    private static final class Ring {
+        private final List<Endpoint> endpoints;
+        private final TreeMap<Long, Endpoint> nodes;
+
+        Ring(final List<Endpoint> endpoints) {
+            this.endpoints = endpoints;
+            this.nodes = new TreeMap<>();
+            for (Endpoint endpoint : endpoints) {
+                final String address = endpoint.address().toString();
+                for (int i = 0; i < VIRTUAL_NODES; i++) {
+                    nodes.put(hash(address + '#' + i), endpoint);
+                }
+            }
+        }
+
+        Endpoint select(final long hash) {
+            Map.Entry<Long, Endpoint> entry = nodes.ceilingEntry(hash);
+            if (null == entry) {
+                entry = nodes.firstEntry();
+            }
+            return entry.getValue();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.sun.client.context.loadbalance;
+
+import com.sun.client.context.pool.Endpoint;
+import com.sun.common.exchange.message.Request;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @description: 最少活跃（未完成请求数最少）优先，活跃数相同的节点之间按有效权重随机
+ * @author: Sun Xiaodong
+ */
+public final class LeastActiveLoadBalancer implements LoadBalancer {
+
+    @Override
+    public Endpoint select(List<Endpoint> endpoints, Request request) {
+        final int size = endpoints.size();
+        if (1 == size) {
+            return endpoints.get(0);
+        }
+        int leastActive = Integer.MAX_VALUE;
+        List<Endpoint> leastEndpoints = null;
+        Endpoint first = null;
+        for (int i = 0; i < size; i++) {
+            final Endpoint endpoint = endpoints.get(i);
+            final int active = endpoint.active();
+            if (active < leastActive) {
+                leastActive = active;
+                first = endpoint;
+                leastEndpoints = null;
+            } else if (active == leastActive) {
+                if (null == leastEndpoints) {
+                    leastEndpoints = new ArrayList<>();
+                    leastEndpoints.add(first);
+                }
+                leastEndpoints.add(endpoint);
+            }
+        }
+        return null == leastEndpoints ? first : WeightedRandomLoadBalancer.select(leastEndpoints);
+    }
+}
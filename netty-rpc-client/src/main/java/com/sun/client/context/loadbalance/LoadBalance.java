@@ -0,0 +1,69 @@
+package com.sun.client.context.loadbalance;
+
+import com.sun.common.enumerator.CodeKeyEnum;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * @description: 负载均衡策略枚举类
+ * @author: Sun Xiaodong
+ */
+public enum LoadBalance implements CodeKeyEnum<LoadBalance, Byte, String> {
+    ROUND_ROBIN((byte) 1, "round-robin", hashArgument -> new RoundRobinLoadBalancer()),
+    WEIGHTED_RANDOM((byte) 2, "weighted-random", hashArgument -> new WeightedRandomLoadBalancer()),
+    LEAST_ACTIVE((byte) 3, "least-active", hashArgument -> new LeastActiveLoadBalancer()),
+    PEAK_EWMA((byte) 4, "peak-ewma", hashArgument -> new PeakEwmaLoadBalancer()),
+    CONSISTENT_HASH((byte) 5, "consistent-hash", ConsistentHashLoadBalancer::new);
+
+    private final Byte code;
+    private final String key;
+    // 参数：一致性哈希使用的参数下标
+    private final IntFunction<LoadBalancer> factory;
+
+    private static final Map<Byte, LoadBalance> CODE_MAPPER;
+
+    static {
+        CODE_MAPPER = Arrays.stream(LoadBalance.values()).collect(Collectors.toMap(LoadBalance::code, Function.identity()));
+    }
+
+    private LoadBalance(Byte code, String key, IntFunction<LoadBalancer> factory) {
+        this.code = code;
+        this.key = key;
+        this.factory = factory;
+    }
+
+    @Override
+    public Byte code() {
+        return this.code;
+    }
+
+    @Override
+    public Optional<LoadBalance> codeOf(Byte c) {
+        return Optional.ofNullable(null == c ? null : CODE_MAPPER.get(c));
+    }
+
+    @Override
+    public String key() {
+        return this.key;
+    }
+
+    @Override
+    public Optional<LoadBalance> keyOf(String k) {
+        return CodeKeyEnum.keyOf(LoadBalance.class, k);
+    }
+
+
+    /**
+     * 创建负载均衡器
+     * @param hashArgument  一致性哈希使用的参数下标（其它策略忽略）
+     * @return  返回负载均衡器
+     */
+    public LoadBalancer newLoadBalancer(final int hashArgument) {
+        return factory.apply(hashArgument);
+    }
+}
@@ -0,0 +1,22 @@
+package com.sun.client.context.loadbalance;
+
+import com.sun.client.context.pool.Endpoint;
+import com.sun.common.exchange.message.Request;
+
+import java.util.List;
+
+/**
+ * @description: 负载均衡器
+ *               从可用的服务提供者节点中为请求选择一个节点。实现类必需是线程安全的。
+ * @author: Sun Xiaodong
+ */
+public interface LoadBalancer {
+
+    /**
+     * 选择服务提供者节点
+     * @param endpoints  可用的节点列表（不为空）
+     * @param request  请求
+     * @return  返回选中的节点
+     */
+    Endpoint select(List<Endpoint> endpoints, Request request);
+}
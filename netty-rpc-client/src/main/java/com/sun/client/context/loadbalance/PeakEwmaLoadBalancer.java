@@ -0,0 +1,36 @@
+package com.sun.client.context.loadbalance;
+
+import com.sun.client.context.pool.Endpoint;
+import com.sun.common.exchange.message.Request;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @description: 峰值EWMA延迟
+ *               随机选取两个节点（power of two choices），选择负载（EWMA延迟 * (未完成请求数 + 1)）较低的节点；
+ *               负载相同时（如：都还没有延迟样本），选择有效权重较高的节点。
+ * @author: Sun Xiaodong
+ */
+public final class PeakEwmaLoadBalancer implements LoadBalancer {
+
+    @Override
+    public Endpoint select(List<Endpoint> endpoints, Request request) {
+        final int size = endpoints.size();
+        if (1 == size) {
+            return endpoints.get(0);
+        }
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final int i = random.nextInt(size);
+        int j = random.nextInt(size - 1);
+        if (j >= i) {
+            j++;
+        }
+        final Endpoint a = endpoints.get(i), b = endpoints.get(j);
+        final double costA = a.cost() / a.effectiveWeight(), costB = b.cost() / b.effectiveWeight();
+        if (costA != costB) {
+            return costA < costB ? a : b;
+        }
+        return a.effectiveWeight() >= b.effectiveWeight() ? a : b;
+    }
+}
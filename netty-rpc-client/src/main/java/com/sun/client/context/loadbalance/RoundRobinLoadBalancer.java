@@ -0,0 +1,20 @@
+package com.sun.client.context.loadbalance;
+
+import com.sun.client.context.pool.Endpoint;
+import com.sun.common.exchange.message.Request;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @description: 轮询
+ * @author: Sun Xiaodong
+ */
+public final class RoundRobinLoadBalancer implements LoadBalancer {
+    private final AtomicInteger index = new AtomicInteger();
+
+    @Override
+    public Endpoint select(List<Endpoint> endpoints, Request request) {
+        return endpoints.get((index.getAndIncrement() & Integer.MAX_VALUE) % endpoints.size());
+    }
+}
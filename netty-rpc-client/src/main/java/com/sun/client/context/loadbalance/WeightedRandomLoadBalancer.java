@@ -0,0 +1,40 @@
+package com.sun.client.context.loadbalance;
+
+import com.sun.client.context.pool.Endpoint;
+import com.sun.common.exchange.message.Request;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @description: 按有效权重随机（失败节点的有效权重会降低）
+ * @author: Sun Xiaodong
+ */
+public final class WeightedRandomLoadBalancer implements LoadBalancer {
+
+    @Override
+    public Endpoint select(List<Endpoint> endpoints, Request request) {
+        return select(endpoints);
+    }
+
+
+    static Endpoint select(final List<Endpoint> endpoints) {
+        final int size = endpoints.size();
+        if (1 == size) {
+            return endpoints.get(0);
+        }
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            total += endpoints.get(i).effectiveWeight();
+        }
+        int offset = ThreadLocalRandom.current().nextInt(total);
+        for (int i = 0; i < size; i++) {
+            final Endpoint endpoint = endpoints.get(i);
+            offset -= endpoint.effectiveWeight();
+            if (offset < 0) {
+                return endpoint;
+            }
+        }
+        return endpoints.get(size - 1);
+    }
+}
@@ -0,0 +1,171 @@
+package com.sun.client.context.pool;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * @description: 单个服务端（endpoint）的连接池
+ *               固定数量的长连接，连接断开后自动重连；发送请求时按ChannelSelector策略选择一个可用连接
+ * @author: Sun Xiaodong
+ */
+public final class ChannelPool {
+    private static final Logger log = LoggerFactory.getLogger(ChannelPool.class);
+    // 连接断开、连接失败后的重连间隔，单位：ms
+    private static final long RECONNECT_DELAY_MILLIS = 1000L;
+
+    private final Bootstrap bootstrap;
+    private final InetSocketAddress address;
+    private final ChannelSelector selector;
+    // 连接建立后的回调（如：服务目录协商）
+    private final Consumer<Channel> connectedListener;
+    private final AtomicReferenceArray<PooledChannel> channels;
+    private final AtomicInteger index;
+    private volatile boolean closed;
+
+    public ChannelPool(final Bootstrap bootstrap, final InetSocketAddress address, final int size,
+                       final ChannelSelector selector, final Consumer<Channel> connectedListener) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Channel pool size must be greater than 0");
+        }
+        this.bootstrap = Objects.requireNonNull(bootstrap);
+        this.address = Objects.requireNonNull(address);
+        this.selector = Objects.requireNonNull(selector);
+        this.connectedListener = connectedListener;
+        this.channels = new AtomicReferenceArray<>(size);
+        this.index = new AtomicInteger();
+    }
+
+
+    /**
+     * 建立连接池中的所有连接（同步等待连接结果，连接失败的由重连机制继续尝试）
+     */
+    public void connect() {
+        for (int i = 0; i < channels.length(); i++) {
+            connect(i).awaitUninterruptibly();
+        }
+    }
+
+
+    /**
+     * 异步建立连接池中的所有连接（不可在event loop线程中调用connect方法时使用）
+     */
+    public void connectAsync() {
+        for (int i = 0; i < channels.length(); i++) {
+            connect(i);
+        }
+    }
+
+
+    /**
+     * 选择一个可用的连接
+     * @return  返回连接，没有可用连接时返回null
+     */
+    public PooledChannel select() {
+        final int size = channels.length();
+        final int start = index.getAndIncrement() & Integer.MAX_VALUE;
+        PooledChannel selected = null;
+        for (int i = 0; i < size; i++) {
+            final PooledChannel channel = channels.get((start + i) % size);
+            if (Objects.isNull(channel) || !channel.isActive()) {
+                continue;
+            }
+            if (ChannelSelector.ROUND_ROBIN == selector) {
+                return channel;
+            }
+            if (Objects.isNull(selected) || channel.pending() < selected.pending()) {
+                selected = channel;
+                if (0 == selected.pending()) {
+                    break;
+                }
+            }
+        }
+        return selected;
+    }
+
+
+    // 所有连接上未完成的请求数
+    public int pending() {
+        int pending = 0;
+        for (int i = 0; i < channels.length(); i++) {
+            final PooledChannel channel = channels.get(i);
+            if (Objects.nonNull(channel)) {
+                pending += channel.pending();
+            }
+        }
+        return pending;
+    }
+
+    // 是否有可用的连接
+    public boolean isActive() {
+        for (int i = 0; i < channels.length(); i++) {
+            final PooledChannel channel = channels.get(i);
+            if (Objects.nonNull(channel) && channel.isActive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public InetSocketAddress address() {
+        return address;
+    }
+
+    public int size() {
+        return channels.length();
+    }
+
+
+    public void close() {
+        this.closed = true;
+        for (int i = 0; i < channels.length(); i++) {
+            final PooledChannel channel = channels.getAndSet(i, null);
+            if (Objects.nonNull(channel) && channel.channel().isOpen()) {
+                channel.channel().close();
+            }
+        }
+    }
+
+
+    private ChannelFuture connect(final int slot) {
+        return bootstrap.connect(address).addListener((ChannelFutureListener) future -> {
+            if (!future.isSuccess()) {
+                log.warn("Failed to connect to {}: {}", address, Objects.nonNull(future.cause()) ? future.cause().getMessage() : "");
+                reconnect(future.channel(), slot);
+                return;
+            }
+            final Channel channel = future.channel();
+            if (closed) {
+                channel.close();
+                return;
+            }
+            channels.set(slot, new PooledChannel(channel));
+            channel.closeFuture().addListener((ChannelFutureListener) f -> reconnect(channel, slot));
+            if (Objects.nonNull(connectedListener)) {
+                connectedListener.accept(channel);
+            }
+        });
+    }
+
+    // 连接断开或连接失败后，延迟重连
+    private void reconnect(final Channel channel, final int slot) {
+        if (closed) {
+            return;
+        }
+        channel.eventLoop().schedule(() -> {
+            if (!closed) {
+                connect(slot);
+            }
+        }, RECONNECT_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+}
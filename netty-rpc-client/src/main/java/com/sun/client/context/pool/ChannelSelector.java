@@ -0,0 +1,54 @@
+package com.sun.client.context.pool;
+
+import com.sun.common.enumerator.CodeKeyEnum;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * @description: 连接池中连接的选择策略
+ *               ROUND_ROBIN: 轮询
+ *               LEAST_PENDING: 未完成请求数最少的连接优先（请求数相同时轮询）
+ * @author: Sun Xiaodong
+ */
+public enum ChannelSelector implements CodeKeyEnum<ChannelSelector, Byte, String> {
+    ROUND_ROBIN((byte) 1, "round-robin"),
+    LEAST_PENDING((byte) 2, "least-pending");
+
+    private final Byte code;
+    private final String key;
+
+    private static final Map<Byte, ChannelSelector> CODE_MAPPER;
+
+    static {
+        CODE_MAPPER = Arrays.stream(ChannelSelector.values()).collect(Collectors.toMap(ChannelSelector::code, Function.identity()));
+    }
+
+    private ChannelSelector(Byte code, String key) {
+        this.code = code;
+        this.key = key;
+    }
+
+    @Override
+    public Byte code() {
+        return this.code;
+    }
+
+    @Override
+    public Optional<ChannelSelector> codeOf(Byte c) {
+        return Optional.ofNullable(null == c ? null : CODE_MAPPER.get(c));
+    }
+
+    @Override
+    public String key() {
+        return this.key;
+    }
+
+    @Override
+    public Optional<ChannelSelector> keyOf(String k) {
+        return CodeKeyEnum.keyOf(ChannelSelector.class, k);
+    }
+}
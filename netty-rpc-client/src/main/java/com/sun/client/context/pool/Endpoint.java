@@ -0,0 +1,165 @@
+package com.sun.client.context.pool;
+
+import com.sun.common.exchange.message.Response;
+import com.sun.common.exchange.message.ResponseStatus;
+
+import java.net.InetSocketAddress;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @description: 服务提供者（服务端）节点
+ *               包含该节点的连接池、权重，以及健康状态：
+ *               1、连续失败次数：每次失败，有效权重减半（最低为1），成功一次即恢复；
+ *               2、峰值EWMA延迟：新的延迟样本大于当前值时直接取样本值，否则按时间衰减平滑；
+ *               3、预热：节点启动后的预热时间内，权重按启动时长线性增加。
+ *               注册中心更新服务提供者时，通过update原地更新权重、预热参数，健康状态保留
+ * @author: Sun Xiaodong
+ */
+public final class Endpoint {
+    // 默认权重
+    public static final int DEFAULT_WEIGHT = 100;
+    // EWMA衰减时间常数，单位：ns
+    private static final double DECAY_NANOS = 10_000_000_000d;
+    // 连续失败次数超过该值后，有效权重不再降低
+    private static final int MAX_FAILURE_SHIFT = 6;
+
+    private final InetSocketAddress address;
+    private final ChannelPool pool;
+    // 权重、预热参数可由注册中心更新（见update）
+    private volatile int weight;
+    // 预热时间，单位：ms
+    private volatile long warmupMillis;
+    // 节点启动时间戳，单位：ms
+    private volatile long startTimestamp;
+
+    // 连续失败次数
+    private final AtomicInteger failures;
+    // 峰值EWMA延迟，单位：ns
+    private volatile double ewmaNanos;
+    private long lastSampleNanos;
+
+    public Endpoint(final InetSocketAddress address, final int weight, final ChannelPool pool) {
+        this(address, weight, pool, 0L, 0L);
+    }
+
+    public Endpoint(final InetSocketAddress address, final int weight, final ChannelPool pool,
+                    final long warmupMillis, final long startTimestamp) {
+        this.address = Objects.requireNonNull(address);
+        this.pool = Objects.requireNonNull(pool);
+        this.failures = new AtomicInteger();
+        this.lastSampleNanos = System.nanoTime();
+        update(weight, warmupMillis, startTimestamp);
+    }
+
+
+    /**
+     * 更新权重、预热参数（注册中心中的服务提供者信息变更时），不重置连续失败次数、峰值EWMA延迟
+     * @param weight  权重
+     * @param warmupMillis  预热时间，单位：ms
+     * @param startTimestamp  节点启动时间戳，单位：ms
+     */
+    public void update(final int weight, final long warmupMillis, final long startTimestamp) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Endpoint weight must be greater than 0");
+        }
+        this.weight = weight;
+        this.warmupMillis = Math.max(0L, warmupMillis);
+        this.startTimestamp = startTimestamp;
+    }
+
+
+    public InetSocketAddress address() {
+        return address;
+    }
+
+    public ChannelPool pool() {
+        return pool;
+    }
+
+    public int weight() {
+        return weight;
+    }
+
+    // 根据预热进度、连续失败次数降低后的有效权重
+    public int effectiveWeight() {
+        int w = weight;
+        final long warmupMillis = this.warmupMillis;
+        if (warmupMillis > 0) {
+            final long uptime = System.currentTimeMillis() - startTimestamp;
+            if (uptime < warmupMillis) {
+                w = (int) Math.max(1L, w * Math.max(0L, uptime) / warmupMillis);
+            }
+        }
+        return Math.max(1, w >> Math.min(failures.get(), MAX_FAILURE_SHIFT));
+    }
+
+    // 未完成的请求数
+    public int active() {
+        return pool.pending();
+    }
+
+    // 是否有可用连接
+    public boolean isAvailable() {
+        return pool.isActive();
+    }
+
+    public double ewmaNanos() {
+        return ewmaNanos;
+    }
+
+    // 峰值EWMA负载：延迟 * (未完成请求数 + 1)
+    public double cost() {
+        return ewmaNanos * (active() + 1);
+    }
+
+
+    /**
+     * 记录一次请求的结果
+     * @param response  响应
+     * @param latencyNanos  请求耗时，单位：ns
+     */
+    public void record(final Response response, final long latencyNanos) {
+        if (isFailure(response)) {
+            failures.incrementAndGet();
+        } else if (0 != failures.get()) {
+            failures.set(0);
+        }
+        sample(latencyNanos);
+    }
+
+
+    private synchronized void sample(final long latencyNanos) {
+        final long now = System.nanoTime();
+        final double elapsed = Math.max(0L, now - lastSampleNanos);
+        lastSampleNanos = now;
+        final double ewma = this.ewmaNanos;
+        if (latencyNanos > ewma) {
+            this.ewmaNanos = latencyNanos;
+        } else {
+            final double w = Math.exp(-elapsed / DECAY_NANOS);
+            this.ewmaNanos = ewma * w + latencyNanos * (1 - w);
+        }
+    }
+
+    // 超时、连接断开、服务端错误等视为节点失败；服务方法抛出的业务异常（SERVICE_ERROR）不计入
+    private static boolean isFailure(final Response response) {
+        if (Objects.isNull(response) || Objects.isNull(response.getHeader())) {
+            return true;
+        }
+        switch (response.getHeader().getStatus()) {
+            case ResponseStatus.OK:
+            case ResponseStatus.SERVICE_ERROR:
+            case ResponseStatus.SERVICE_NOT_FOUND:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+
+    @Override
+    public String toString() {
+        return "Endpoint{address=" + address + ", weight=" + weight + ", failures=" + failures.get() + ", ewmaNanos=" + (long) ewmaNanos + '}';
+    }
+}
@@ -0,0 +1,196 @@
+package com.sun.client.context.pool;
+
+import com.sun.common.exchange.message.Response;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * @description: 连接上未完成（已发送、未响应）的请求表，k: 请求ID的64位关联ID（Id::correlationId），v: 等待响应的future
+ *               分段（stripe）的开放寻址哈希表，线性探测、删除时后移（无墓碑），键为long基本类型，不装箱、不生成字符串；
+ *               每个连接一个请求表，连接关闭时整体替换各分段的数组，再统一完成被替换出的future
+ * @author: Sun Xiaodong
+ */
+public final class PendingRequests {
+    // 分段数（2的幂）
+    private static final int STRIPES = 16;
+    // 每个分段的初始容量（2的幂）
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Stripe[] stripes;
+    // 连接关闭后不再接受新的请求
+    private volatile boolean closed;
+
+    public PendingRequests() {
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+
+    // 登记请求；连接已关闭时返回false
+    public boolean put(final long key, final CompletableFuture<Response> future) {
+        if (closed) {
+            return false;
+        }
+        final long hash = mix(key);
+        final Stripe stripe = stripes[(int) hash & (STRIPES - 1)];
+        synchronized (stripe) {
+            // 与failAll互斥：failAll置closed后逐段加锁清空，此处在锁内再检查一次
+            if (closed) {
+                return false;
+            }
+            stripe.put(key, hash >>> 32, future);
+        }
+        return true;
+    }
+
+    // 移除并返回请求对应的future，不存在时返回null
+    public CompletableFuture<Response> remove(final long key) {
+        final long hash = mix(key);
+        final Stripe stripe = stripes[(int) hash & (STRIPES - 1)];
+        synchronized (stripe) {
+            return stripe.remove(key, hash >>> 32);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size;
+            }
+        }
+        return size;
+    }
+
+    // 连接关闭时调用：拒绝新的请求，并以response完成所有未完成的请求
+    public void failAll(final Response response) {
+        closed = true;
+        final List<CompletableFuture<Response>> futures = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            final Object[] values;
+            synchronized (stripe) {
+                values = stripe.values;
+                stripe.reset();
+            }
+            for (Object value : values) {
+                if (null != value) {
+                    futures.add(cast(value));
+                }
+            }
+        }
+        // 在锁外完成future，避免回调中再次访问请求表时死锁
+        for (CompletableFuture<Response> future : futures) {
+            future.complete(response);
+        }
+    }
+
+
+    // 64位混淆（murmur3 fmix64），低位选择分段，高32位作为分段内的哈希值
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompletableFuture<Response> cast(final Object value) {
+        return (CompletableFuture<Response>) value;
+    }
+
+
+    // 分段：values[i]为null表示空槽
+    private static final class Stripe {
+        private long[] keys;
+        private Object[] values;
+        private int size;
+
+        Stripe() {
+            reset();
+        }
+
+        void reset() {
+            keys = new long[INITIAL_CAPACITY];
+            values = new Object[INITIAL_CAPACITY];
+            size = 0;
+        }
+
+        void put(final long key, final long hash, final Object value) {
+            // 装载因子不超过0.5
+            if ((size + 1) << 1 > values.length) {
+                resize(values.length << 1);
+            }
+            final int mask = values.length - 1;
+            int i = (int) hash & mask;
+            while (null != values[i]) {
+                if (keys[i] == key) {
+                    values[i] = value;
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+            size++;
+        }
+
+        CompletableFuture<Response> remove(final long key, final long hash) {
+            final int mask = values.length - 1;
+            int i = (int) hash & mask;
+            while (null != values[i]) {
+                if (keys[i] == key) {
+                    final Object value = values[i];
+                    shiftBack(i, mask);
+                    size--;
+                    return cast(value);
+                }
+                i = (i + 1) & mask;
+            }
+            return null;
+        }
+
+        // 删除槽位gap后，将其后探测链上的元素前移，保证查找不会因空槽提前终止
+        private void shiftBack(int gap, final int mask) {
+            int i = gap;
+            while (true) {
+                i = (i + 1) & mask;
+                if (null == values[i]) {
+                    break;
+                }
+                final int home = (int) (mix(keys[i]) >>> 32) & mask;
+                // home不在(gap, i]区间内时（环形），元素可前移到gap
+                if (((i - home) & mask) >= ((i - gap) & mask)) {
+                    keys[gap] = keys[i];
+                    values[gap] = values[i];
+                    gap = i;
+                }
+            }
+            keys[gap] = 0L;
+            values[gap] = null;
+        }
+
+        private void resize(final int capacity) {
+            final long[] oldKeys = keys;
+            final Object[] oldValues = values;
+            keys = new long[capacity];
+            values = new Object[capacity];
+            final int mask = capacity - 1;
+            for (int j = 0; j < oldValues.length; j++) {
+                if (null != oldValues[j]) {
+                    int i = (int) (mix(oldKeys[j]) >>> 32) & mask;
+                    while (null != values[i]) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[j];
+                    values[i] = oldValues[j];
+                }
+            }
+        }
+    }
+}
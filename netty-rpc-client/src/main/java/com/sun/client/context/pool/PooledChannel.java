@@ -0,0 +1,43 @@
+package com.sun.client.context.pool;
+
+import io.netty.channel.Channel;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @description: 连接池中的连接，记录该连接上未完成（已发送、未响应）的请求数
+ * @author: Sun Xiaodong
+ */
+public final class PooledChannel {
+    private final Channel channel;
+    // 未完成的请求数
+    private final AtomicInteger pending;
+
+    PooledChannel(final Channel channel) {
+        this.channel = channel;
+        this.pending = new AtomicInteger();
+    }
+
+
+    public Channel channel() {
+        return channel;
+    }
+
+    public boolean isActive() {
+        return channel.isActive();
+    }
+
+    public int pending() {
+        return pending.get();
+    }
+
+    // 发送请求时调用
+    public void acquire() {
+        pending.incrementAndGet();
+    }
+
+    // 请求完成（成功响应、超时、失败）时调用
+    public void release() {
+        pending.decrementAndGet();
+    }
+}
@@ -1,13 +1,17 @@
 package com.sun.client.controller;
 
+import com.sun.common.context.RpcContext;
 import com.sun.common.service.HelloService;
 import com.sun.common.util.Result;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.annotation.Resource;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * @description:
@@ -19,16 +23,29 @@ public class HelloController implements BaseController {
     @Resource
     private HelloService helloService;
 
+    // 请求头X-Trace-Id作为RPC上下文附件trace-id，随RPC请求传递到服务端
     @GetMapping("/sayHello")
-    public Result<String> hello(@RequestParam("name") String name) {
+    public Result<String> hello(@RequestParam("name") String name,
+                                @RequestHeader(value = "X-Trace-Id", required = false) String traceId) {
+        RpcContext.setAttachment(RpcContext.TRACE_ID, traceId);
         try {
             String hello = helloService.sayHello(name);
             return Result.success(hello);
         } catch (Exception e) {
             return Result.error(null, e);
+        } finally {
+            RpcContext.clear();
         }
     }
 
+    // 异步调用：请求线程不阻塞等待RPC响应
+    @GetMapping("/sayHelloAsync")
+    public CompletableFuture<Result<String>> helloAsync(@RequestParam("name") String name) {
+        return helloService.sayHelloAsync(name)
+                           .thenApply(Result::success)
+                           .exceptionally(e -> Result.error(null, e instanceof CompletionException ? e.getCause() : e));
+    }
+
     @GetMapping("/random")
     public Result<List<Integer>> random() {
         try {
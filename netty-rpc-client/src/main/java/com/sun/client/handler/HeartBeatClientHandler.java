@@ -46,9 +46,9 @@ public class HeartBeatClientHandler extends ChannelDuplexHandler {
                     body.setMethodName(method.getName())
                         .setReturnType(method.getReturnType())
                         .setParameterTypes(method.getParameterTypes())
-                        .setParameters(method.getParameters());
-                    // 发送ping消息
-                    client.sendRequest0(new Request(header, body));
+                        .setParameters(new Object[0]);
+                    // 在触发空闲事件的连接上发送ping消息
+                    client.sendRequest0(ctx.channel(), new Request(header, body));
                 } catch (NoSuchMethodException e) {
                     log.error("{}", e);
                 }
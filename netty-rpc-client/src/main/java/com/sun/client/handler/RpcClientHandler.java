@@ -1,14 +1,16 @@
 package com.sun.client.handler;
 
+import com.sun.client.context.RpcClient;
+import com.sun.client.context.pool.PendingRequests;
 import com.sun.common.exchange.message.Response;
+import com.sun.common.exchange.message.ResponseStatus;
 
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
-import io.netty.util.concurrent.EventExecutorGroup;
 
-import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * @description: RPC业客户端处理器
@@ -17,31 +19,39 @@ import java.util.concurrent.CompletableFuture;
 public class RpcClientHandler extends SimpleChannelInboundHandler<Response> {
     //private static final Logger log = LoggerFactory.getLogger(RpcClientHandler.class);
 
-    private final Map<String, CompletableFuture<Response>> responseFutures;
-    // 业务线程池
-    private final EventExecutorGroup group;
+    // 本连接上未完成的请求
+    private final PendingRequests pendingRequests;
+    // 响应回调线程池（平台线程或虚拟线程）
+    private final Executor executor;
 
-    public RpcClientHandler(EventExecutorGroup group, Map<String, CompletableFuture<Response>> responseFutures) {
-        this.group = group;
-        this.responseFutures = responseFutures;
+    public RpcClientHandler(Executor executor, PendingRequests pendingRequests) {
+        this.executor = executor;
+        this.pendingRequests = pendingRequests;
     }
 
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, Response res) throws Exception {
+        // 移除请求对应的future（请求已超时完成、或无需响应的请求时为null）
+        final CompletableFuture<Response> future = pendingRequests.remove(res.getHeader().getId().correlationId());
+        if (Objects.isNull(future)) {
+            return;
+        }
         // 复制一份，res在方法内的代码执行完时被释放
         final Response response = res.copy();
-        group.submit(() -> {
-            final String requestId = response.getHeader().getId().toString();
-            final CompletableFuture<Response> future = responseFutures.get(requestId);
-            // 已经完成 或者 调用complete方法返回false时，移除此future对象
-            // 未完成时，调用complete方法且返回true时，说明future对象已正确写入结果response
-            if(future.isDone() || !future.complete(response)) {
-                responseFutures.remove(requestId);
-            }
+        executor.execute(() -> {
+            future.complete(response);
         });
     }
 
 
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        // 连接关闭时，以CHANNEL_INACTIVE状态的响应完成所有未完成的请求，无需等待超时
+        pendingRequests.failAll(RpcClient.errorResponse(null, null, ResponseStatus.CHANNEL_INACTIVE, "channel is disconnected"));
+        super.channelInactive(ctx);
+    }
+
+
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
         // 当Channel已经断开的情况下, 仍然发送数据, 会抛异常, 该方法会被调用.
@@ -0,0 +1,172 @@
+package com.sun.client.loadgen;
+
+import com.sun.client.context.configure.RpcClientProperties;
+import com.sun.common.service.HelloService;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @description: 压测工具：rpc.load-generator.enabled=true时，客户端启动后通过真实的RpcProxy（HelloService::sayHello）
+ *               以固定速率（开环）向运行中的RpcServerApplication发出请求，输出延迟分位数（p50 ~ p99.99）
+ *               每个调用线程按固定间隔计划请求的发出时间，延迟从计划发出时间开始计算：
+ *               某个请求变慢时，其后被推迟发出的请求的等待时间也计入延迟（校正协调遗漏，coordinated omission）；
+ *               同时输出从实际发出时间开始计算的延迟，二者的差距即为被推迟的排队时间
+ *               连接数由rpc.netty-client.pool-size设置；压测时可加上 --spring.main.web-application-type=none 不启动Web服务
+ * @author: Sun Xiaodong
+ */
+
+@Component
+@ConditionalOnProperty(prefix = "rpc.load-generator", name = "enabled", havingValue = "true")
+public class LoadGenerator implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(LoadGenerator.class);
+    // 等待连接建立（首个请求成功）的最长时间，单位：s
+    private static final int READY_TIMEOUT = 30;
+    private static final double[] PERCENTILES = {50D, 90D, 99D, 99.9D, 99.99D};
+
+    @Resource
+    private HelloService helloService;
+    @Resource
+    private RpcClientProperties properties;
+    @Resource
+    private ApplicationContext applicationContext;
+
+    // 延迟（单位：us），corrected: 从计划发出时间开始计算；uncorrected: 从实际发出时间开始计算
+    private final Recorder corrected = new Recorder(3);
+    private final Recorder uncorrected = new Recorder(3);
+    private final LongAdder errors = new LongAdder();
+
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        final RpcClientProperties.LoadGenerator config = properties.getLoadGenerator();
+        final char[] chars = new char[config.getPayloadSize()];
+        Arrays.fill(chars, 'x');
+        final String payload = new String(chars);
+        if (!awaitReady(payload)) {
+            log.error("Load generator: server is not ready after {}s", READY_TIMEOUT);
+            exit(config, 1);
+            return;
+        }
+
+        final int threads = config.getConcurrency();
+        // 每个调用线程的请求间隔，各线程的起始时间错开，合计速率为rate
+        final long intervalNanos = Math.max(1L, TimeUnit.SECONDS.toNanos(threads) / config.getRate());
+        final long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100L);
+        final long measureStart = start + TimeUnit.SECONDS.toNanos(config.getWarmup());
+        final long end = measureStart + TimeUnit.SECONDS.toNanos(config.getDuration());
+        log.info("Load generator: rate={}/s, concurrency={}, payload={}B, connections={}, warmup={}s, duration={}s",
+                config.getRate(), threads, config.getPayloadSize(), properties.getNettyClient().getPoolSize(),
+                config.getWarmup(), config.getDuration());
+
+        final Thread[] workers = new Thread[threads];
+        final DefaultThreadFactory threadFactory = new DefaultThreadFactory("rpc_load_generator", true);
+        for (int i = 0; i < threads; i++) {
+            final long first = start + intervalNanos * i / threads;
+            workers[i] = threadFactory.newThread(() -> generate(payload, first, intervalNanos, end));
+            workers[i].start();
+        }
+
+        // 每秒输出一次区间统计，预热结束时丢弃预热期间的数据
+        final Histogram totalCorrected = new Histogram(3);
+        final Histogram totalUncorrected = new Histogram(3);
+        Histogram intervalCorrected = null;
+        Histogram intervalUncorrected = null;
+        long errorsBefore = 0L;
+        sleepUntil(measureStart);
+        corrected.getIntervalHistogram();
+        uncorrected.getIntervalHistogram();
+        errors.reset();
+        for (long next = measureStart + TimeUnit.SECONDS.toNanos(1L); next <= end; next += TimeUnit.SECONDS.toNanos(1L)) {
+            sleepUntil(next);
+            intervalCorrected = corrected.getIntervalHistogram(intervalCorrected);
+            intervalUncorrected = uncorrected.getIntervalHistogram(intervalUncorrected);
+            totalCorrected.add(intervalCorrected);
+            totalUncorrected.add(intervalUncorrected);
+            final long errorCount = errors.sum();
+            log.info("Load generator: {} req/s, {} errors, p50={}us, p99={}us, max={}us (corrected)",
+                    intervalCorrected.getTotalCount(), errorCount - errorsBefore, intervalCorrected.getValueAtPercentile(50D),
+                    intervalCorrected.getValueAtPercentile(99D), intervalCorrected.getMaxValue());
+            errorsBefore = errorCount;
+        }
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(READY_TIMEOUT));
+        }
+        totalCorrected.add(corrected.getIntervalHistogram());
+        totalUncorrected.add(uncorrected.getIntervalHistogram());
+
+        log.info("Load generator: {} requests in {}s, throughput={}/s (target {}/s), {} errors",
+                totalCorrected.getTotalCount(), config.getDuration(), totalCorrected.getTotalCount() / config.getDuration(),
+                config.getRate(), errors.sum());
+        report("corrected  ", totalCorrected);
+        report("uncorrected", totalUncorrected);
+        exit(config, 0);
+    }
+
+
+    // 调用线程：按计划时间发出请求，请求完成时间晚于下一个计划时间时立即发出下一个请求（不跳过）
+    private void generate(final String payload, final long first, final long intervalNanos, final long end) {
+        for (long intended = first; intended < end; intended += intervalNanos) {
+            sleepUntil(intended);
+            final long actualStart = System.nanoTime();
+            try {
+                helloService.sayHello(payload);
+            } catch (Exception e) {
+                errors.increment();
+            }
+            final long done = System.nanoTime();
+            corrected.recordValue(TimeUnit.NANOSECONDS.toMicros(done - intended));
+            uncorrected.recordValue(TimeUnit.NANOSECONDS.toMicros(done - actualStart));
+        }
+    }
+
+    // 连接池在后台建立连接，等待首个请求成功后再开始计时
+    private boolean awaitReady(final String payload) {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(READY_TIMEOUT);
+        while (System.nanoTime() < deadline) {
+            try {
+                helloService.sayHello(payload);
+                return true;
+            } catch (Exception e) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(200L));
+            }
+        }
+        return false;
+    }
+
+    private static void sleepUntil(final long deadlineNanos) {
+        long now;
+        while ((now = System.nanoTime()) < deadlineNanos) {
+            LockSupport.parkNanos(deadlineNanos - now);
+        }
+    }
+
+    private static void report(final String name, final Histogram histogram) {
+        final StringBuilder sb = new StringBuilder();
+        for (double percentile : PERCENTILES) {
+            sb.append("p").append(percentile).append("=").append(histogram.getValueAtPercentile(percentile)).append("us, ");
+        }
+        sb.append("max=").append(histogram.getMaxValue()).append("us, mean=").append(String.format("%.1f", histogram.getMean())).append("us");
+        log.info("Load generator latency ({}): {}", name, sb);
+    }
+
+    private void exit(final RpcClientProperties.LoadGenerator config, final int code) {
+        if (config.getExit()) {
+            System.exit(SpringApplication.exit(applicationContext, () -> code));
+        }
+    }
+}
@@ -1,13 +1,19 @@
 package com.sun.client.proxy;
 
 import com.sun.client.context.RpcClient;
+import com.sun.common.annotation.Compress;
+import com.sun.common.annotation.SerializeWith;
+import com.sun.common.context.RpcContext;
 import com.sun.common.enumerator.Event;
+import com.sun.common.enumerator.Serialization;
 import com.sun.common.exchange.message.Request;
 import com.sun.common.exchange.message.RequestBody;
 import com.sun.common.exchange.message.RequestHeader;
 import com.sun.common.exchange.message.Response;
 import com.sun.common.exchange.message.ResponseBody;
 import com.sun.common.exchange.message.ResponseStatus;
+import com.sun.common.id.serialization.impl.SchemaRegistry;
+import com.sun.common.id.serialization.impl.SerializationAllowlist;
 import com.sun.common.service.HeartbeatService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,8 +28,9 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeoutException;
 
 /**
@@ -40,6 +47,9 @@ public class RpcProxy {
         if (Objects.isNull(targetClass)) {
             return null;
         }
+        // 预热服务接口方法参数、返回值的Schema，避免首次调用时创建；并允许KRYO、FURY反序列化这些类型
+        SchemaRegistry.warmUp(targetClass);
+        SerializationAllowlist.allowServiceTypes(targetClass);
 
         Enhancer enhancer = new Enhancer();
         enhancer.setSuperclass(targetClass);
@@ -52,9 +62,16 @@ public class RpcProxy {
     private class SimpleMethodInterceptor implements MethodInterceptor, Serializable {
         private static final long serialVersionUID = -2693329602568707674L;
         private final transient InvocationHandler invocationHandler;
+        // 服务接口被@Compress标记时，压缩所有方法的请求体
+        private final boolean compressService;
+        // 服务接口被@SerializeWith标记时，为指定的序列化类型，否则为null
+        private final Serialization serviceSerialization;
 
         public <T> SimpleMethodInterceptor(Class<T> targetClass) {
             this.invocationHandler = newInvocationHandler(targetClass);
+            this.compressService = targetClass.isAnnotationPresent(Compress.class);
+            final SerializeWith serializeWith = targetClass.getAnnotation(SerializeWith.class);
+            this.serviceSerialization = Objects.isNull(serializeWith) ? null : serializeWith.value();
         }
 
         @Override
@@ -80,30 +97,23 @@ public class RpcProxy {
                 }
 
                 final Request request = assembleRequest(targetClass, method, args);
-                CompletableFuture<Response> future = RpcProxy.this.client.sendRequest(request);
+                // 当前线程的截止时间已过（如：服务方法中的下游调用，上游请求的剩余时间已耗尽），不再发送请求
+                CompletableFuture<Response> future = RpcContext.isDeadlineExceeded()
+                        ? CompletableFuture.completedFuture(RpcClient.errorResponse(request.getHeader().getId(),
+                                request.getHeader().getSerialization(), ResponseStatus.CLIENT_TIMEOUT, "deadline exceeded before sending request"))
+                        : RpcProxy.this.client.sendRequest(request);
                 if (Objects.nonNull(future)) {
-                    final String requestId = request.getHeader().getId().toString();
-                    final int timeoutMillis = RpcProxy.this.client.properties.getTimeout();
+                    // 异步方法：返回在响应到达时完成的future，调用线程不阻塞
+                    if (isAsync(method)) {
+                        return toResultFuture(future);
+                    }
                     try {
-                        Response response;
-                        if (timeoutMillis <= 0) {
-                            response = future.get();
-                        } else {
-                            response = future.get(timeoutMillis, TimeUnit.MILLISECONDS);
-                        }
-                        // 成功响应，则从responseFutures中移除此future对象
-                        RpcProxy.this.client.removeCompleteFutureObject(requestId);
-
-                        // 处理正常结果和异常结果
-                        // （异常结果是服务端返回的结果，不可被捕获，必需交由调用者处理）
-                        ResponseBody body  = Objects.requireNonNull(response.getBody());
-                        if (ResponseStatus.OK == response.getHeader().getStatus()) {
-                            return body.getResult();
-                        }
-                        throw new RuntimeException(body.getErrorMsg(), (Throwable) body.getResult());
-                    } catch (InterruptedException | ExecutionException | TimeoutException e) {
+                        // 超时由超时服务处理：超时未响应时，future以CLIENT_TIMEOUT状态的响应完成
+                        return resultOf(future.get());
+                    } catch (InterruptedException | ExecutionException e) {
                         // 仅需捕获future.get方法抛出的异常；
-                        RpcProxy.this.client.completeCompleteFutureObject(requestId);
+                        // 出错时，将future置为完成（完成时从连接的请求表中移除）
+                        future.complete(Response.VOID);
                         throw e;
                     }
                 } else {
@@ -112,11 +122,69 @@ public class RpcProxy {
             };
         }
 
+        // 方法返回值是否为CompletableFuture、CompletionStage或Future
+        private boolean isAsync(final Method method) {
+            final Class<?> returnType = method.getReturnType();
+            return CompletableFuture.class == returnType || CompletionStage.class == returnType || Future.class == returnType;
+        }
+
+        // 将响应future转换为结果future：响应OK时以结果完成，否则以异常完成；结果future被取消时，请求随之完成
+        private CompletableFuture<Object> toResultFuture(final CompletableFuture<Response> future) {
+            final CompletableFuture<Object> result = new CompletableFuture<>();
+            future.whenComplete((response, throwable) -> {
+                if (Objects.nonNull(throwable)) {
+                    result.completeExceptionally(throwable);
+                    return;
+                }
+                try {
+                    result.complete(resultOf(response));
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                }
+            });
+            result.whenComplete((value, throwable) -> {
+                if (result.isCancelled()) {
+                    future.complete(Response.VOID);
+                }
+            });
+            return result;
+        }
+
+        // 处理正常结果和异常结果
+        // （异常结果是服务端返回的结果，不可被捕获，必需交由调用者处理）
+        private Object resultOf(final Response response) throws TimeoutException {
+            ResponseBody body  = Objects.requireNonNull(response.getBody());
+            final byte status = response.getHeader().getStatus();
+            if (ResponseStatus.OK == status) {
+                return body.getResult();
+            }
+            if (ResponseStatus.CLIENT_TIMEOUT == status) {
+                throw new TimeoutException(body.getErrorMsg());
+            }
+            throw new RuntimeException(body.getErrorMsg(), (Throwable) body.getResult());
+        }
+
+        // 请求的序列化类型：方法上的@SerializeWith > 服务接口上的@SerializeWith > rpc.serializer
+        private Serialization serialization(final Method method) {
+            final SerializeWith serializeWith = method.getAnnotation(SerializeWith.class);
+            if (Objects.nonNull(serializeWith)) {
+                return serializeWith.value();
+            }
+            return Objects.isNull(serviceSerialization) ? RpcProxy.this.client.properties.getSerializer() : serviceSerialization;
+        }
+
         // 组装request
         private <T> Request assembleRequest(final Class<T> targetClass, final Method method, final Object[] args) {
+            // 超时时间不超过当前线程截止时间的剩余时间（没有截止时间时为配置的超时时间）
             final RequestHeader header = (RequestHeader) RequestHeader
-                    .getDefault(RpcProxy.this.client.properties.getTimeout())
-                    .setSerialization(RpcProxy.this.client.properties.getSerializer());
+                    .getDefault(RpcContext.timeoutMillis(RpcProxy.this.client.properties.getTimeout()))
+                    .setSerialization(serialization(method))
+                    // 携带调用线程的RPC上下文附件（没有附件时为null，协议头中不含附件区）
+                    .setAttachments(RpcContext.current());
+            // 被@Compress标记的服务接口、方法，请求体不小于压缩阈值时压缩
+            if (compressService || method.isAnnotationPresent(Compress.class)) {
+                header.setCompression(RpcProxy.this.client.compression());
+            }
             // 根据事件服务接口类型，设置事件
             if (HeartbeatService.class.equals(targetClass)) { // 设置事件
                 header.setEvent(Event.HEARTBEAT);
@@ -0,0 +1,203 @@
+package com.sun.client.context.pool;
+
+import com.sun.common.exchange.message.Response;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @description: PendingRequests的插入、删除、查找：探测链跨越数组末尾（wrap-around）、同一槽位的冲突链、
+ *               删除探测链中间的元素后其余元素仍可找到、各分段互不影响，以及连接关闭后的行为
+ *               分段、槽位与PendingRequests的计算方式相同（见mix），初始容量16
+ * @author: Sun Xiaodong
+ */
+class PendingRequestsTest {
+    private static final int STRIPES = 16;
+    private static final int INITIAL_CAPACITY = 16;
+
+
+    @Test
+    void putAndRemove() {
+        final PendingRequests requests = new PendingRequests();
+        final CompletableFuture<Response> future = new CompletableFuture<>();
+        assertTrue(requests.put(42L, future));
+        assertEquals(1, requests.size());
+        assertSame(future, requests.remove(42L));
+        assertNull(requests.remove(42L));
+        assertEquals(0, requests.size());
+    }
+
+    @Test
+    void putSameKeyReplaces() {
+        final PendingRequests requests = new PendingRequests();
+        final CompletableFuture<Response> first = new CompletableFuture<>();
+        final CompletableFuture<Response> second = new CompletableFuture<>();
+        requests.put(7L, first);
+        requests.put(7L, second);
+        assertEquals(1, requests.size());
+        assertSame(second, requests.remove(7L));
+    }
+
+    @Test
+    void collisionChainAcrossWrapAround() {
+        // 同一分段、初始位置都在最后一个槽位：依次占用槽位15、0、1、2
+        final long[] keys = keys(3, INITIAL_CAPACITY - 1, 4);
+        final PendingRequests requests = new PendingRequests();
+        final Map<Long, CompletableFuture<Response>> futures = putAll(requests, keys);
+        for (long key : keys) {
+            assertSame(futures.get(key), requests.remove(key));
+        }
+        assertEquals(0, requests.size());
+    }
+
+    @Test
+    void removeFromMiddleOfProbeRun() {
+        // 探测链：槽位14的两个元素（14、15），槽位15的两个元素（0、1），槽位0的一个元素（2）
+        final long[] home14 = keys(5, 14, 2);
+        final long[] home15 = keys(5, 15, 2);
+        final long[] home0 = keys(5, 0, 1);
+        final long[] all = concat(home14, home15, home0);
+        for (int removed = 0; removed < all.length; removed++) {
+            final PendingRequests requests = new PendingRequests();
+            final Map<Long, CompletableFuture<Response>> futures = putAll(requests, all);
+            assertSame(futures.get(all[removed]), requests.remove(all[removed]));
+            assertNull(requests.remove(all[removed]));
+            for (int i = 0; i < all.length; i++) {
+                if (i != removed) {
+                    assertSame(futures.get(all[i]), requests.remove(all[i]), "key " + i + " lost after removing key " + removed);
+                }
+            }
+            assertEquals(0, requests.size());
+        }
+    }
+
+    @Test
+    void resizeKeepsAllEntries() {
+        // 同一分段超过初始容量的一半时扩容
+        final long[] keys = concat(keys(9, 15, 3), keys(9, 3, 20));
+        final PendingRequests requests = new PendingRequests();
+        final Map<Long, CompletableFuture<Response>> futures = putAll(requests, keys);
+        assertEquals(keys.length, requests.size());
+        for (long key : keys) {
+            assertSame(futures.get(key), requests.remove(key));
+        }
+        assertEquals(0, requests.size());
+    }
+
+    @Test
+    void stripesAreIsolated() {
+        // 分段1的冲突链和删除不影响分段2中初始位置相同的元素
+        final long[] stripe1 = keys(1, 15, 6);
+        final long[] stripe2 = keys(2, 15, 6);
+        final PendingRequests requests = new PendingRequests();
+        final Map<Long, CompletableFuture<Response>> futures = putAll(requests, concat(stripe1, stripe2));
+        for (long key : stripe1) {
+            assertSame(futures.get(key), requests.remove(key));
+        }
+        assertEquals(stripe2.length, requests.size());
+        for (long key : stripe1) {
+            assertNull(requests.remove(key));
+        }
+        for (long key : stripe2) {
+            assertSame(futures.get(key), requests.remove(key));
+        }
+        assertEquals(0, requests.size());
+    }
+
+    @Test
+    void randomOperationsMatchHashMap() {
+        final Random random = new Random(42);
+        final PendingRequests requests = new PendingRequests();
+        final Map<Long, CompletableFuture<Response>> expected = new HashMap<>();
+        // 键的范围较小，保证大量的冲突、重复插入和删除
+        for (int i = 0; i < 100_000; i++) {
+            final long key = random.nextInt(512);
+            if (random.nextBoolean()) {
+                final CompletableFuture<Response> future = new CompletableFuture<>();
+                requests.put(key, future);
+                expected.put(key, future);
+            } else {
+                assertSame(expected.remove(key), requests.remove(key));
+            }
+            assertEquals(expected.size(), requests.size());
+        }
+    }
+
+    @Test
+    void failAllCompletesPendingAndRejectsNew() {
+        final PendingRequests requests = new PendingRequests();
+        final List<CompletableFuture<Response>> futures = new ArrayList<>();
+        for (long key = 0; key < 100; key++) {
+            final CompletableFuture<Response> future = new CompletableFuture<>();
+            futures.add(future);
+            requests.put(key, future);
+        }
+        final Response response = new Response(null, null);
+        requests.failAll(response);
+        for (CompletableFuture<Response> future : futures) {
+            assertSame(response, future.getNow(null));
+        }
+        assertEquals(0, requests.size());
+        assertFalse(requests.put(1L, new CompletableFuture<>()));
+        assertNull(requests.remove(1L));
+    }
+
+
+    // 查找count个落在指定分段、且在初始容量下的初始槽位为slot的键
+    private static long[] keys(final int stripe, final int slot, final int count) {
+        final long[] keys = new long[count];
+        int found = 0;
+        for (long key = 1; found < count; key++) {
+            final long hash = mix(key);
+            if (((int) hash & (STRIPES - 1)) == stripe && ((int) (hash >>> 32) & (INITIAL_CAPACITY - 1)) == slot) {
+                keys[found++] = key;
+            }
+        }
+        return keys;
+    }
+
+    private static Map<Long, CompletableFuture<Response>> putAll(final PendingRequests requests, final long[] keys) {
+        final Map<Long, CompletableFuture<Response>> futures = new HashMap<>();
+        for (long key : keys) {
+            final CompletableFuture<Response> future = new CompletableFuture<>();
+            futures.put(key, future);
+            assertTrue(requests.put(key, future));
+        }
+        return futures;
+    }
+
+    private static long[] concat(final long[]... arrays) {
+        int length = 0;
+        for (long[] array : arrays) {
+            length += array.length;
+        }
+        final long[] result = new long[length];
+        int offset = 0;
+        for (long[] array : arrays) {
+            System.arraycopy(array, 0, result, offset, array.length);
+            offset += array.length;
+        }
+        return result;
+    }
+
+    // 与PendingRequests.mix相同（murmur3 fmix64）
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
@@ -0,0 +1,19 @@
+package com.sun.common.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * @description: 定义注解@Compress，用于标记需要压缩协议体的RPC服务接口或服务接口方法（如返回大集合的方法）
+ *               客户端压缩被标记方法的请求体，服务端压缩被标记方法的响应体；
+ *               只有序列化后的协议体不小于压缩阈值（rpc.compression.threshold），且压缩后更小时才压缩，
+ *               请求体的压缩类型见客户端的rpc.compression.type，服务端只在请求体已压缩时以相同的压缩类型压缩响应体（客户端一定支持）
+ * @author: Sun Xiaodong
+ */
+
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Compress {
+}
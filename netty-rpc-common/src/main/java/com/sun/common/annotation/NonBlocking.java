@@ -0,0 +1,18 @@
+package com.sun.common.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * @description: 定义注解@NonBlocking，用于标记执行快、且不阻塞的RPC服务方法（可标记在服务接口方法或实现类方法上）
+ *               服务端在I/O线程（event loop）中直接执行被标记的方法，不切换到业务线程池；
+ *               被标记的方法中不可有阻塞操作（I/O、锁等待、sleep等），否则会阻塞同一event loop上的所有连接
+ * @author: Sun Xiaodong
+ */
+
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface NonBlocking {
+}
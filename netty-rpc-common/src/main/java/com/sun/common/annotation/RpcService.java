@@ -7,10 +7,17 @@ import java.lang.annotation.Target;
 
 /**
  * @description: 定义注解@RpcService，用于标记RPC服务接口实现类
+ *               threads大于0时，服务接口的方法在独立的线程池（隔离线程池）中执行，不与其它服务共用业务线程池；
+ *               配置文件中rpc.dispatcher.bulkheads的同名配置优先；隔离线程池已满时立即以SERVER_THREADPOOL_RESOURCE_EXHAUSTED_ERROR响应
  * @author: Sun Xiaodong
  */
 
 @Target(ElementType.TYPE)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface RpcService {
+    // 隔离线程池的线程数，0表示使用共用的业务线程池
+    int threads() default 0;
+
+    // 隔离线程池的等待队列长度
+    int queueCapacity() default 64;
 }
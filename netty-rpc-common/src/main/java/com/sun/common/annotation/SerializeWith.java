@@ -0,0 +1,21 @@
+package com.sun.common.annotation;
+
+import com.sun.common.enumerator.Serialization;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * @description: 定义注解@SerializeWith，用于指定RPC服务接口或服务接口方法使用的序列化类型（方法上的注解优先于接口上的注解）
+ *               客户端以指定的序列化类型发送被标记方法的请求，未标记的方法使用rpc.serializer；
+ *               服务端总是以请求的序列化类型响应，无需配置（如：参数、返回值只有基本类型、String、数组的服务可指定BINARY）
+ * @author: Sun Xiaodong
+ */
+
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SerializeWith {
+    Serialization value();
+}
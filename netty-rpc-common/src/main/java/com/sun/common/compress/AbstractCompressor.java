@@ -0,0 +1,106 @@
+package com.sun.common.compress;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.concurrent.FastThreadLocal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * @description: 压缩器基类：按ByteBuf的内存类型选择压缩、解压方式，不复制数据
+ *               src、dst都是堆内存时，直接使用底层数组；都是直接内存且实现类支持时，使用NIO视图（ByteBuffer）；
+ *               否则复制到线程本地的临时数组后处理（临时数组只增不减，超过MAX_SCRATCH_SIZE的不保留）
+ * @author: Sun Xiaodong
+ */
+public abstract class AbstractCompressor implements Compressor {
+    // 保留的临时数组的最大长度
+    private static final int MAX_SCRATCH_SIZE = 1 << 20;
+    private static final FastThreadLocal<byte[][]> SCRATCH = new FastThreadLocal<byte[][]>() {
+        @Override
+        protected byte[][] initialValue() {
+            return new byte[2][];
+        }
+    };
+
+
+    @Override
+    public final int compress(final ByteBuf src, final int srcIndex, final int length, final ByteBuf dst) {
+        final int maxLength = maxCompressedLength(length);
+        dst.ensureWritable(maxLength);
+        final int dstIndex = dst.writerIndex();
+        final int written;
+        if (src.hasArray() && dst.hasArray()) {
+            written = compress(src.array(), src.arrayOffset() + srcIndex, length, dst.array(), dst.arrayOffset() + dstIndex, maxLength);
+        } else if (supportsDirect() && isDirect(src) && isDirect(dst)) {
+            written = compress(src.nioBuffer(srcIndex, length), dst.nioBuffer(dstIndex, maxLength));
+        } else {
+            final byte[] in = scratch(0, length);
+            src.getBytes(srcIndex, in, 0, length);
+            final byte[] out = scratch(1, maxLength);
+            written = compress(in, 0, length, out, 0, maxLength);
+            dst.setBytes(dstIndex, out, 0, written);
+        }
+        dst.writerIndex(dstIndex + written);
+        return written;
+    }
+
+    @Override
+    public final void decompress(final ByteBuf src, final int srcIndex, final int length, final ByteBuf dst, final int uncompressedLength) {
+        dst.ensureWritable(uncompressedLength);
+        final int dstIndex = dst.writerIndex();
+        final int written;
+        if (src.hasArray() && dst.hasArray()) {
+            written = decompress(src.array(), src.arrayOffset() + srcIndex, length, dst.array(), dst.arrayOffset() + dstIndex, uncompressedLength);
+        } else if (supportsDirect() && isDirect(src) && isDirect(dst)) {
+            written = decompress(src.nioBuffer(srcIndex, length), dst.nioBuffer(dstIndex, uncompressedLength));
+        } else {
+            final byte[] in = scratch(0, length);
+            src.getBytes(srcIndex, in, 0, length);
+            final byte[] out = scratch(1, uncompressedLength);
+            written = decompress(in, 0, length, out, 0, uncompressedLength);
+            dst.setBytes(dstIndex, out, 0, Math.min(written, uncompressedLength));
+        }
+        if (written != uncompressedLength) {
+            throw new IllegalStateException("Corrupted compressed body, expected " + uncompressedLength + " bytes but got " + written);
+        }
+        dst.writerIndex(dstIndex + written);
+    }
+
+
+    // 压缩数组，返回压缩后的长度
+    protected abstract int compress(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset, int maxLength);
+
+    // 解压数组，返回解压后的长度（不超过maxLength）
+    protected abstract int decompress(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset, int maxLength);
+
+    // 是否支持直接内存（支持时须实现以下两个方法）
+    protected boolean supportsDirect() {
+        return false;
+    }
+
+    // 压缩直接内存：src、dst的[position, limit)，返回压缩后的长度
+    protected int compress(final ByteBuffer src, final ByteBuffer dst) {
+        throw new UnsupportedOperationException();
+    }
+
+    // 解压直接内存：src、dst的[position, limit)，返回解压后的长度
+    protected int decompress(final ByteBuffer src, final ByteBuffer dst) {
+        throw new UnsupportedOperationException();
+    }
+
+
+    private static boolean isDirect(final ByteBuf buf) {
+        return buf.isDirect() && 1 == buf.nioBufferCount();
+    }
+
+    private static byte[] scratch(final int slot, final int length) {
+        final byte[][] scratch = SCRATCH.get();
+        byte[] bytes = scratch[slot];
+        if (null == bytes || bytes.length < length) {
+            bytes = new byte[length];
+            if (length <= MAX_SCRATCH_SIZE) {
+                scratch[slot] = bytes;
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,38 @@
+package com.sun.common.compress;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * @description: 协议体压缩器（见Compression），实现类须是无状态、线程安全的，且有public无参构造方法
+ *               需要上下文的压缩算法（如Deflate、Zstd）在实现类中按线程池化上下文，每条消息不创建上下文
+ * @author: Sun Xiaodong
+ */
+public interface Compressor {
+
+    /**
+     * 压缩后的最大长度
+     * @param length 压缩前的长度
+     * @return 压缩后的最大长度
+     */
+    int maxCompressedLength(int length);
+
+    /**
+     * 压缩src中[srcIndex, srcIndex + length)的数据，从dst的writerIndex处写入，写入后dst的writerIndex随之后移
+     * @param src 待压缩的数据
+     * @param srcIndex 起始位置
+     * @param length 长度
+     * @param dst 压缩后的数据
+     * @return 压缩后的长度
+     */
+    int compress(ByteBuf src, int srcIndex, int length, ByteBuf dst);
+
+    /**
+     * 解压src中[srcIndex, srcIndex + length)的数据，从dst的writerIndex处写入，写入后dst的writerIndex随之后移
+     * @param src 压缩的数据
+     * @param srcIndex 起始位置
+     * @param length 长度
+     * @param dst 解压后的数据
+     * @param uncompressedLength 解压后的长度（与压缩前的长度不一致时，抛出IllegalStateException）
+     */
+    void decompress(ByteBuf src, int srcIndex, int length, ByteBuf dst, int uncompressedLength);
+}
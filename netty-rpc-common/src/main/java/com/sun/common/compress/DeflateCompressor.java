@@ -0,0 +1,65 @@
+package com.sun.common.compress;
+
+import io.netty.util.concurrent.FastThreadLocal;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * @description: Deflate压缩（JDK自带，zlib格式），其它压缩类型的依赖不可用时的回退
+ *               每个线程一个可复用的Deflater、Inflater（reset后复用，不释放本地内存）；JDK 8只支持数组，直接内存经临时数组复制
+ * @author: Sun Xiaodong
+ */
+public final class DeflateCompressor extends AbstractCompressor {
+    private static final FastThreadLocal<Deflater> DEFLATER = new FastThreadLocal<Deflater>() {
+        @Override
+        protected Deflater initialValue() {
+            return new Deflater(Deflater.BEST_SPEED);
+        }
+    };
+    private static final FastThreadLocal<Inflater> INFLATER = new FastThreadLocal<Inflater>() {
+        @Override
+        protected Inflater initialValue() {
+            return new Inflater();
+        }
+    };
+
+    public DeflateCompressor() {}
+
+
+    // zlib的compressBound
+    @Override
+    public int maxCompressedLength(final int length) {
+        return length + (length >>> 12) + (length >>> 14) + (length >>> 25) + 13;
+    }
+
+    @Override
+    protected int compress(final byte[] src, final int srcOffset, final int length, final byte[] dst, final int dstOffset, final int maxLength) {
+        final Deflater deflater = DEFLATER.get();
+        deflater.reset();
+        deflater.setInput(src, srcOffset, length);
+        deflater.finish();
+        final int written = deflater.deflate(dst, dstOffset, maxLength);
+        if (!deflater.finished()) {
+            throw new IllegalStateException("Deflate output exceeds " + maxLength + " bytes");
+        }
+        return written;
+    }
+
+    @Override
+    protected int decompress(final byte[] src, final int srcOffset, final int length, final byte[] dst, final int dstOffset, final int maxLength) {
+        final Inflater inflater = INFLATER.get();
+        inflater.reset();
+        inflater.setInput(src, srcOffset, length);
+        try {
+            final int written = inflater.inflate(dst, dstOffset, maxLength);
+            if (!inflater.finished()) {
+                throw new IllegalStateException("Corrupted compressed body, inflated data exceeds " + maxLength + " bytes");
+            }
+            return written;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupted compressed body", e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.sun.common.compress;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+
+import java.nio.ByteBuffer;
+
+/**
+ * @description: LZ4压缩（lz4-java，优先使用JNI实现），压缩器、解压器无状态、线程安全，支持直接内存
+ *               解压使用带边界检查的LZ4SafeDecompressor（数据来自网络）
+ * @author: Sun Xiaodong
+ */
+public final class Lz4Compressor extends AbstractCompressor {
+    private final LZ4Compressor compressor;
+    private final LZ4SafeDecompressor decompressor;
+
+    public Lz4Compressor() {
+        final LZ4Factory factory = LZ4Factory.fastestInstance();
+        this.compressor = factory.fastCompressor();
+        this.decompressor = factory.safeDecompressor();
+    }
+
+
+    @Override
+    public int maxCompressedLength(final int length) {
+        return compressor.maxCompressedLength(length);
+    }
+
+    @Override
+    protected int compress(final byte[] src, final int srcOffset, final int length, final byte[] dst, final int dstOffset, final int maxLength) {
+        return compressor.compress(src, srcOffset, length, dst, dstOffset, maxLength);
+    }
+
+    @Override
+    protected int decompress(final byte[] src, final int srcOffset, final int length, final byte[] dst, final int dstOffset, final int maxLength) {
+        try {
+            return decompressor.decompress(src, srcOffset, length, dst, dstOffset, maxLength);
+        } catch (LZ4Exception e) {
+            throw new IllegalStateException("Corrupted compressed body", e);
+        }
+    }
+
+    @Override
+    protected boolean supportsDirect() {
+        return true;
+    }
+
+    @Override
+    protected int compress(final ByteBuffer src, final ByteBuffer dst) {
+        return compressor.compress(src, src.position(), src.remaining(), dst, dst.position(), dst.remaining());
+    }
+
+    @Override
+    protected int decompress(final ByteBuffer src, final ByteBuffer dst) {
+        try {
+            return decompressor.decompress(src, src.position(), src.remaining(), dst, dst.position(), dst.remaining());
+        } catch (LZ4Exception e) {
+            throw new IllegalStateException("Corrupted compressed body", e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.sun.common.compress;
+
+import org.xerial.snappy.Snappy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * @description: Snappy压缩（snappy-java，JNI实现），无状态、线程安全，支持直接内存
+ *               解压前先读取压缩数据中记录的解压后长度，超过预期长度时不解压
+ * @author: Sun Xiaodong
+ */
+public final class SnappyCompressor extends AbstractCompressor {
+
+    public SnappyCompressor() {}
+
+
+    @Override
+    public int maxCompressedLength(final int length) {
+        return Snappy.maxCompressedLength(length);
+    }
+
+    @Override
+    protected int compress(final byte[] src, final int srcOffset, final int length, final byte[] dst, final int dstOffset, final int maxLength) {
+        try {
+            return Snappy.compress(src, srcOffset, length, dst, dstOffset);
+        } catch (IOException e) {
+            throw new IllegalStateException("Snappy compression failed", e);
+        }
+    }
+
+    @Override
+    protected int decompress(final byte[] src, final int srcOffset, final int length, final byte[] dst, final int dstOffset, final int maxLength) {
+        try {
+            final int uncompressedLength = Snappy.uncompressedLength(src, srcOffset, length);
+            if (uncompressedLength != maxLength) {
+                return uncompressedLength;
+            }
+            return Snappy.uncompress(src, srcOffset, length, dst, dstOffset);
+        } catch (IOException e) {
+            throw new IllegalStateException("Corrupted compressed body", e);
+        }
+    }
+
+    @Override
+    protected boolean supportsDirect() {
+        return true;
+    }
+
+    @Override
+    protected int compress(final ByteBuffer src, final ByteBuffer dst) {
+        try {
+            return Snappy.compress(src, dst);
+        } catch (IOException e) {
+            throw new IllegalStateException("Snappy compression failed", e);
+        }
+    }
+
+    @Override
+    protected int decompress(final ByteBuffer src, final ByteBuffer dst) {
+        try {
+            final int uncompressedLength = Snappy.uncompressedLength(src);
+            if (uncompressedLength != dst.remaining()) {
+                return uncompressedLength;
+            }
+            return Snappy.uncompress(src, dst);
+        } catch (IOException e) {
+            throw new IllegalStateException("Corrupted compressed body", e);
+        }
+    }
+}
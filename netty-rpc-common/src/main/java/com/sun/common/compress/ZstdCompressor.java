@@ -0,0 +1,81 @@
+package com.sun.common.compress;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdCompressCtx;
+import com.github.luben.zstd.ZstdDecompressCtx;
+import com.github.luben.zstd.ZstdException;
+import io.netty.util.concurrent.FastThreadLocal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * @description: Zstd压缩（zstd-jni），每个线程一个可复用的压缩、解压上下文（ZstdCompressCtx、ZstdDecompressCtx），支持直接内存
+ *               压缩级别为1（RPC消息更看重压缩速度）
+ * @author: Sun Xiaodong
+ */
+public final class ZstdCompressor extends AbstractCompressor {
+    private static final int LEVEL = 1;
+    private static final FastThreadLocal<ZstdCompressCtx> COMPRESS_CTX = new FastThreadLocal<ZstdCompressCtx>() {
+        @Override
+        protected ZstdCompressCtx initialValue() {
+            return new ZstdCompressCtx().setLevel(LEVEL);
+        }
+
+        @Override
+        protected void onRemoval(ZstdCompressCtx ctx) {
+            ctx.close();
+        }
+    };
+    private static final FastThreadLocal<ZstdDecompressCtx> DECOMPRESS_CTX = new FastThreadLocal<ZstdDecompressCtx>() {
+        @Override
+        protected ZstdDecompressCtx initialValue() {
+            return new ZstdDecompressCtx();
+        }
+
+        @Override
+        protected void onRemoval(ZstdDecompressCtx ctx) {
+            ctx.close();
+        }
+    };
+
+    public ZstdCompressor() {}
+
+
+    @Override
+    public int maxCompressedLength(final int length) {
+        return (int) Zstd.compressBound(length);
+    }
+
+    @Override
+    protected int compress(final byte[] src, final int srcOffset, final int length, final byte[] dst, final int dstOffset, final int maxLength) {
+        return COMPRESS_CTX.get().compressByteArray(dst, dstOffset, maxLength, src, srcOffset, length);
+    }
+
+    @Override
+    protected int decompress(final byte[] src, final int srcOffset, final int length, final byte[] dst, final int dstOffset, final int maxLength) {
+        try {
+            return DECOMPRESS_CTX.get().decompressByteArray(dst, dstOffset, maxLength, src, srcOffset, length);
+        } catch (ZstdException e) {
+            throw new IllegalStateException("Corrupted compressed body", e);
+        }
+    }
+
+    @Override
+    protected boolean supportsDirect() {
+        return true;
+    }
+
+    @Override
+    protected int compress(final ByteBuffer src, final ByteBuffer dst) {
+        return COMPRESS_CTX.get().compressDirectByteBuffer(dst, dst.position(), dst.remaining(), src, src.position(), src.remaining());
+    }
+
+    @Override
+    protected int decompress(final ByteBuffer src, final ByteBuffer dst) {
+        try {
+            return DECOMPRESS_CTX.get().decompressDirectByteBuffer(dst, dst.position(), dst.remaining(), src, src.position(), src.remaining());
+        } catch (ZstdException e) {
+            throw new IllegalStateException("Corrupted compressed body", e);
+        }
+    }
+}
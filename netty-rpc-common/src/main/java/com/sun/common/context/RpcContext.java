@@ -0,0 +1,157 @@
+package com.sun.common.context;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @description: 调用线程的RPC上下文：附件（键值对，如：trace-id、span-id、tenant）和截止时间（deadline）
+ *               附件随请求头的附件区传递；截止时间以剩余时间（请求头的超时时间）传递
+ *               客户端：RpcProxy发出请求时携带当前线程的附件，超时时间不超过当前线程截止时间的剩余时间，截止时间已过时不发送请求；
+ *               服务端：服务方法执行期间，当前线程的附件为请求携带的附件，截止时间为请求到达时间 + 超时时间，
+ *               服务方法中发起的下游调用自动继续传递；
+ *               附件Map发布后不再修改（修改时复制后整体替换），发送请求时直接引用，无需复制；
+ *               未设置附件时，请求头不含附件区，发送请求只多一次ThreadLocal读取；
+ *               异步回调在其它线程中执行，需要时由调用者自行取得（getAttachments、remainingNanos）并在回调线程中设置（attach、attachDeadline）
+ * @author: Sun Xiaodong
+ */
+public final class RpcContext {
+    // 常用的附件键
+    public static final String TRACE_ID = "trace-id";
+    public static final String SPAN_ID = "span-id";
+    public static final String TENANT = "tenant";
+    // 没有截止时间
+    public static final long NO_DEADLINE = Long.MIN_VALUE;
+
+    // 每个线程一个可变的上下文对象，设置、恢复时不分配对象
+    private static final ThreadLocal<Context> CONTEXT = ThreadLocal.withInitial(Context::new);
+
+    private RpcContext() {}
+
+
+    /**
+     * 当前线程的附件
+     * @return 不可修改的附件Map，没有附件时返回空Map
+     */
+    public static Map<String, String> getAttachments() {
+        final Map<String, String> attachments = CONTEXT.get().attachments;
+        return Objects.isNull(attachments) ? Collections.emptyMap() : Collections.unmodifiableMap(attachments);
+    }
+
+    public static String getAttachment(final String key) {
+        final Map<String, String> attachments = CONTEXT.get().attachments;
+        return Objects.isNull(attachments) ? null : attachments.get(key);
+    }
+
+    /**
+     * 设置当前线程的附件（复制后整体替换，已发出的请求不受影响）
+     * @param key 键
+     * @param value 值，为null时移除该键
+     */
+    public static void setAttachment(final String key, final String value) {
+        Objects.requireNonNull(key);
+        final Context context = CONTEXT.get();
+        final Map<String, String> attachments = context.attachments;
+        if (Objects.isNull(value) && (Objects.isNull(attachments) || !attachments.containsKey(key))) {
+            return;
+        }
+        final Map<String, String> copy = Objects.isNull(attachments) ? new HashMap<>() : new HashMap<>(attachments);
+        if (Objects.isNull(value)) {
+            copy.remove(key);
+        } else {
+            copy.put(key, value);
+        }
+        context.attachments = copy.isEmpty() ? null : copy;
+    }
+
+    public static void removeAttachment(final String key) {
+        setAttachment(key, null);
+    }
+
+    // 清除当前线程的附件和截止时间
+    public static void clear() {
+        CONTEXT.remove();
+    }
+
+
+    /**
+     * 当前线程的附件（内部使用：发送请求时直接作为请求头的附件，调用者不可修改）
+     * @return 附件Map，没有附件时返回null
+     */
+    public static Map<String, String> current() {
+        return CONTEXT.get().attachments;
+    }
+
+    /**
+     * 将附件设置为当前线程的附件（如：服务端执行服务方法前，设置为请求携带的附件），执行完成后以返回值调用restore
+     * @param attachments 附件（设置后不可修改），可以为null
+     * @return 原来的附件
+     */
+    public static Map<String, String> attach(final Map<String, String> attachments) {
+        final Context context = CONTEXT.get();
+        final Map<String, String> previous = context.attachments;
+        context.attachments = Objects.isNull(attachments) || attachments.isEmpty() ? null : attachments;
+        return previous;
+    }
+
+    // 恢复为attach之前的附件
+    public static void restore(final Map<String, String> previous) {
+        CONTEXT.get().attachments = previous;
+    }
+
+
+    /**
+     * 设置当前线程的截止时间，执行完成后以返回值调用restoreDeadline
+     * @param deadlineNanos 截止时间（System.nanoTime()的时间点），NO_DEADLINE表示没有截止时间
+     * @return 原来的截止时间
+     */
+    public static long attachDeadline(final long deadlineNanos) {
+        final Context context = CONTEXT.get();
+        final long previous = context.deadlineNanos;
+        context.deadlineNanos = deadlineNanos;
+        return previous;
+    }
+
+    // 恢复为attachDeadline之前的截止时间
+    public static void restoreDeadline(final long previous) {
+        CONTEXT.get().deadlineNanos = previous;
+    }
+
+    /**
+     * 距截止时间的剩余时间
+     * @return 剩余时间（单位ns，截止时间已过时不大于0），没有截止时间时返回Long.MAX_VALUE
+     */
+    public static long remainingNanos() {
+        final long deadlineNanos = CONTEXT.get().deadlineNanos;
+        return NO_DEADLINE == deadlineNanos ? Long.MAX_VALUE : deadlineNanos - System.nanoTime();
+    }
+
+    // 截止时间是否已过
+    public static boolean isDeadlineExceeded() {
+        return remainingNanos() <= 0;
+    }
+
+    /**
+     * 下游调用的超时时间：不超过截止时间的剩余时间
+     * @param timeoutMillis 配置的超时时间（单位ms），0表示没有超时限制
+     * @return 超时时间（单位ms，剩余时间不足1ms时向上取整为1ms），没有截止时间时返回timeoutMillis
+     */
+    public static int timeoutMillis(final int timeoutMillis) {
+        final long remainingNanos = remainingNanos();
+        if (Long.MAX_VALUE == remainingNanos) {
+            return timeoutMillis;
+        }
+        final long remainingMillis = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(remainingNanos + TimeUnit.MILLISECONDS.toNanos(1L) - 1L));
+        return (int) (timeoutMillis <= 0 ? Math.min(remainingMillis, Integer.MAX_VALUE) : Math.min(remainingMillis, timeoutMillis));
+    }
+
+
+    private static final class Context {
+        // 附件（发布后不可修改）
+        private Map<String, String> attachments;
+        // 截止时间（System.nanoTime()的时间点）
+        private long deadlineNanos = NO_DEADLINE;
+    }
+}
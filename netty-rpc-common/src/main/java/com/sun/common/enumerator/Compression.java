@@ -0,0 +1,101 @@
+package com.sun.common.enumerator;
+
+import com.sun.common.compress.Compressor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * @description: 协议体压缩类型枚举类
+ *               key为Compressor实现类的全限定名（LZ4、Zstd、Snappy依赖的jar是可选的，缺少时不加载对应的实现类）；
+ *               压缩器首次使用时创建，依赖不可用（缺少jar或本地库加载失败）时该压缩类型不可用，
+ *               发送方回退到JDK自带的DEFLATE（见availableOrDeflate）
+ * @author: Sun Xiaodong
+ */
+
+public enum Compression implements CodeKeyEnum<Compression, Byte, String> {
+    DEFLATE((byte) (1 & 0xFF), "com.sun.common.compress.DeflateCompressor"),
+    LZ4((byte) (2 & 0xFF), "com.sun.common.compress.Lz4Compressor"),
+    ZSTD((byte) (3 & 0xFF), "com.sun.common.compress.ZstdCompressor"),
+    SNAPPY((byte) (4 & 0xFF), "com.sun.common.compress.SnappyCompressor");
+
+    private static final Logger log = LoggerFactory.getLogger(Compression.class);
+
+    // 压缩类型
+    private final Byte code;
+    // 压缩类型对应的Compressor实现类的全限定名
+    private final String className;
+    // 压缩器单例（Compressor实现类是无状态、线程安全的），首次使用时创建
+    private volatile Compressor compressor;
+    // 压缩器是否已创建（创建失败时compressor为null，不再重试）
+    private volatile boolean initialized;
+
+    private static final Map<Byte, Compression> CODE_MAPPER;
+    private static final Map<String, Compression> KEY_MAPPER;
+
+    static {
+        CODE_MAPPER = Arrays.stream(Compression.values()).collect(Collectors.toMap(Compression::code, Function.identity()));
+        KEY_MAPPER = Arrays.stream(Compression.values()).collect(Collectors.toMap(Compression::key, Function.identity()));
+    }
+
+    private Compression(Byte code, String className) {
+        this.code = code;
+        this.className = className;
+    }
+
+    @Override
+    public Byte code() {
+        return this.code;
+    }
+
+    @Override
+    public Optional<Compression> codeOf(Byte c) {
+        return Optional.ofNullable(null == c ? null : CODE_MAPPER.get(c));
+    }
+
+    @Override
+    public String key() {
+        return this.className;
+    }
+
+    @Override
+    public Optional<Compression> keyOf(String key) {
+        return Optional.ofNullable(null == key ? null : KEY_MAPPER.get(key));
+    }
+
+
+    /**
+     * 获取压缩类型对应的压缩器单例
+     * @return 返回Compressor对象，依赖不可用时返回null
+     */
+    public Compressor compressor() {
+        if (!initialized) {
+            synchronized (this) {
+                if (!initialized) {
+                    try {
+                        this.compressor = (Compressor) Class.forName(className).getConstructor().newInstance();
+                    } catch (Throwable t) {
+                        log.warn("Compression {} is unavailable: {}", this, t.toString());
+                    }
+                    this.initialized = true;
+                }
+            }
+        }
+        return this.compressor;
+    }
+
+    // 压缩类型是否可用
+    public boolean isAvailable() {
+        return null != compressor();
+    }
+
+    // 压缩类型可用时返回自身，否则回退到DEFLATE
+    public Compression availableOrDeflate() {
+        return isAvailable() ? this : DEFLATE;
+    }
+}
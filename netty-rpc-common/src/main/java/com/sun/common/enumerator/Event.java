@@ -17,7 +17,9 @@ public enum Event implements CodeEnum<Event, Byte> {
     // 心跳
     HEARTBEAT((byte) 1),
     // 文件上传
-    FILE_UPLOAD((byte) 2);
+    FILE_UPLOAD((byte) 2),
+    // 服务目录协商（见ServiceCatalog）
+    CATALOG((byte) 3);
 
     private final Byte code;
     private static final Map<Byte, Event> CODE_MAPPER;
@@ -1,6 +1,11 @@
 package com.sun.common.enumerator;
 
+import com.sun.common.id.serialization.ReflectiveSerializerFactory;
 import com.sun.common.id.serialization.Serializer;
+import com.sun.common.id.serialization.SerializerFactory;
+import com.sun.common.id.serialization.impl.BinarySerializer;
+import com.sun.common.id.serialization.impl.FurySerializer;
+import com.sun.common.id.serialization.impl.KryoSerializer;
 import com.sun.common.id.serialization.impl.ProtostuffSerializer;
 
 import java.util.Arrays;
@@ -11,16 +16,23 @@ import java.util.stream.Collectors;
 
 /**
  * @description: 序列化类型枚举类
+ *               PROTOSTUFF: 默认；KRYO: 按固定ID注册协议体、常用集合类；FURY: 运行时生成序列化代码（JIT）；
+ *               BINARY: 手写的二进制格式，只支持基本类型、String、数组、集合等（见BinarySerializer）
  * @author: Sun Xiaodong
  */
 
 public enum Serialization implements CodeKeyEnum<Serialization, Byte, Class<? extends Serializer>> {
-    PROTOSTUFF((byte) (1 & 0xFF), ProtostuffSerializer.class);
+    PROTOSTUFF((byte) (1 & 0xFF), ProtostuffSerializer.class),
+    KRYO((byte) (2 & 0xFF), KryoSerializer.class),
+    FURY((byte) (3 & 0xFF), FurySerializer.class),
+    BINARY((byte) (4 & 0xFF), BinarySerializer.class);
 
     // 序列化类型
     private final Byte code;
     // 序列化类型对应的序列化Serializer实现类
     private final Class<? extends Serializer> clazz;
+    // 序列化器单例（Serializer实现类是无状态、线程安全的），首次使用时创建
+    private volatile Serializer serializer;
 
     private static final Map<Byte, Serialization> CODE_MAPPER;
     private static final Map<Class<? extends Serializer>, Serialization> KEY_MAPPER;
@@ -59,4 +71,32 @@ public enum Serialization implements CodeKeyEnum<Serialization, Byte, Class<? ex
         return Optional.ofNullable(null == key ? null : KEY_MAPPER.get(key));
     }
 
+
+    /**
+     * 获取序列化类型对应的序列化器单例，避免每条消息都反射创建序列化器
+     * @return 返回Serializer对象
+     */
+    public Serializer serializer() {
+        Serializer s = this.serializer;
+        if (null == s) {
+            synchronized (this) {
+                s = this.serializer;
+                if (null == s) {
+                    s = new ReflectiveSerializerFactory<>(this.clazz).newSerializer();
+                    this.serializer = s;
+                }
+            }
+        }
+        return s;
+    }
+
+
+    /**
+     * 序列化器工厂，总是返回序列化器单例
+     * @return 返回SerializerFactory对象
+     */
+    public SerializerFactory<Serializer> serializerFactory() {
+        return this::serializer;
+    }
+
 }
@@ -1,5 +1,7 @@
 package com.sun.common.exchange.codec;
 
+import io.netty.buffer.ByteBuf;
+
 /**
  * @description: 自定义RPC协议编码、解码接口
  * @author: Sun Xiaodong
@@ -9,6 +11,12 @@ public interface Codec {
     // 编码RPC请求或RPC响应
     byte[] encode(final Object msg);
 
+    // 编码RPC请求或RPC响应，协议头和协议体直接写入out（从out的writerIndex开始写入），不产生中间数组
+    void encode(final Object msg, final ByteBuf out);
+
     // 解码RPC协议为RPC请求或RPC响应
     Object decode(final byte[] data);
+
+    // 解码in中的一个完整帧（readerIndex ~ writerIndex）为RPC请求或RPC响应，直接读取in，不复制数据，也不改变in的读写索引
+    Object decode(final ByteBuf in);
 }
@@ -1,5 +1,7 @@
 package com.sun.common.exchange.codec;
 
+import com.sun.common.compress.Compressor;
+import com.sun.common.enumerator.Compression;
 import com.sun.common.enumerator.Event;
 import com.sun.common.enumerator.Serialization;
 import com.sun.common.exchange.message.Header;
@@ -9,15 +11,26 @@ import com.sun.common.exchange.message.RequestHeader;
 import com.sun.common.exchange.message.Response;
 import com.sun.common.exchange.message.ResponseBody;
 import com.sun.common.exchange.message.ResponseHeader;
+import com.sun.common.id.serialization.InputSource;
+import com.sun.common.id.serialization.OutputSink;
 import com.sun.common.id.serialization.Serializer;
 import com.sun.common.id.Id;
 import com.sun.common.id.ObjectId;
+import com.sun.common.util.Checksums;
+import com.sun.common.util.Constants;
 import com.sun.common.util.Crc32C;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.zip.Checksum;
 
 import static com.sun.common.util.Assertions.isTrueArgument;
 
@@ -30,16 +43,25 @@ import static com.sun.common.util.Assertions.isTrueArgument;
  *            1 bytes      64 - 71: SERIALIZATION_TYPE    // 序列化类型，见Serialization类定义
  *            1 bytes      72 - 79: RESPONSE_STATUS    // 响应状态，见ResponseStatus类状态定义
  *           12 bytes     80 - 175: REQUEST_ID    // 请求ID，由Id类生成
- *            4 bytes    176 - 207: TIMEOUT    // 超时时间（客户端请求的超时时间，单位ms。相对值）
- *            4 bytes    208 - 239: BODY_LENGTH    // 请求Data长度
+ *            4 bytes    176 - 207: TIMEOUT    // 超时时间（客户端请求的超时时间，单位ms。相对值，服务端从解码时开始计时）
+ *            4 bytes    208 - 239: BODY_LENGTH    // 请求Data长度（含附件区）
+ *          ATTACHMENTS（可选，控制字段的附件标记为1时，紧跟在协议头之后，长度计入BODY_LENGTH）：
+ *            2 bytes: 附件区长度（不含这2个字节）
+ *            重复：1 byte键长度 + 键（UTF-8） + 2 bytes值长度 + 值（UTF-8）
+ *          压缩的协议体（控制字段的压缩标记为1时，位于附件区之后，长度计入BODY_LENGTH）：
+ *            1 byte: 压缩类型（见Compression类定义）
+ *            4 bytes: 压缩前的长度
+ *            压缩后的数据
  *
  *          REQUEST_RESPONSE_CONTROL：
  *           Bit offset:
  *           1st bit: 请求或响应标识(1 -> request; 0 -> response)
  *           2nd bit: 是否响应(1 -> a response required; 0 -> no response required)
- *           3rd ~ 5th bits: 事件标记(见Event枚举类定义。0 -> NONE，非事件; 1 -> HEARTBEAT，由于使用的Netty自带心跳机制，暂时不用此标记; 2 -> FILE_UPLOAD; )
+ *           3rd ~ 5th bits: 事件标记(见Event枚举类定义。0 -> NONE，非事件; 1 -> HEARTBEAT，由于使用的Netty自带心跳机制，暂时不用此标记; 2 -> FILE_UPLOAD; 3 -> CATALOG，服务目录协商; )
  *           6th ~ 8th bits: IdType标记
- *           9 ~ 16th bits: 保留比特位（reserved bits），待后续新增功能使用。
+ *           9th bit: 附件标记(1 -> 协议头之后有附件区; 0 -> 无附件)
+ *           10th bit: 压缩标记(1 -> 协议体已压缩; 0 -> 未压缩)
+ *           11 ~ 16th bits: 保留比特位（reserved bits），待后续新增功能使用。
  *
  * @author: Sun Xiaodong
  *
@@ -86,19 +108,68 @@ public final class ExchangeCodec implements Codec {
     static final int ID_SHIFT_BITS = 8;
     static final int ID_TAG_MASK = 0x700;
     public static final int OBJECT_ID = 0;
+    //# 9th bit: attachments tag #
+    static final int ATTACHMENTS_SHIFT_BITS = 7;
+    static final int ATTACHMENTS_TAG_MASK = 0x80;
+    //# 10th bit: compressed body tag #
+    static final int COMPRESSED_SHIFT_BITS = 6;
+    static final int COMPRESSED_TAG_MASK = 0x40;
     //---- REQUEST_RESPONSE_CONTROL end ----
 
+    //---- ATTACHMENTS start ----
+    static final int ATTACHMENTS_LENGTH_LENGTH = 2;
+    static final int MAX_ATTACHMENTS_LENGTH = 0xFFFF;
+    static final int MAX_ATTACHMENT_KEY_LENGTH = 0xFF;
+    static final int MAX_ATTACHMENT_VALUE_LENGTH = 0xFFFF;
+    //---- ATTACHMENTS end ----
 
-    public ExchangeCodec() {}
+    //---- COMPRESSED BODY start ----
+    static final int COMPRESSION_TYPE_LENGTH = 1;
+    static final int UNCOMPRESSED_LENGTH_LENGTH = 4;
+    static final int COMPRESSION_HEADER_LENGTH = COMPRESSION_TYPE_LENGTH + UNCOMPRESSED_LENGTH_LENGTH;
+    //---- COMPRESSED BODY end ----
+
+    // 协议体不小于该值时才压缩（协议头的压缩类型不为null时）
+    private final int compressionThreshold;
+    // 解压后协议体的最大长度（与未压缩时的限制一致）
+    private final int maxBodyLength;
+
+
+    public ExchangeCodec() {
+        this(Constants.DEFAULT_COMPRESSION_THRESHOLD, Constants.DEFAULT_MAX_FRAME_LENGTH);
+    }
+
+    /**
+     * @param compressionThreshold 压缩阈值，协议体不小于该值时才压缩，单位：byte
+     * @param maxFrameLength 帧的最大长度（解压后的协议体长度不超过maxFrameLength - HEADER_LENGTH）
+     */
+    public ExchangeCodec(final int compressionThreshold, final int maxFrameLength) {
+        this.compressionThreshold = Math.max(0, compressionThreshold);
+        this.maxBodyLength = Math.max(0, maxFrameLength - HEADER_LENGTH);
+    }
 
 
     // 编码RPC请求或RPC响应
     @Override
     public byte[] encode(final Object msg) {
+        final ByteBuf buf = Unpooled.buffer();
+        try {
+            encode(msg, buf);
+            return ByteBufUtil.getBytes(buf);
+        } finally {
+            buf.release();
+        }
+    }
+
+    // 编码RPC请求或RPC响应，直接写入out
+    @Override
+    public void encode(final Object msg, final ByteBuf out) {
         if (msg instanceof Request) {
-            return encodeRequest((Request) msg).array();
+            final Request request = (Request) msg;
+            encodeData(request.getHeader(), request.getBody(), out);
         } else if (msg instanceof Response) {
-            return encodeResponse((Response) msg).array();
+            final Response response = (Response) msg;
+            encodeData(response.getHeader(), response.getBody(), out);
         } else {
             log.error("Unknown object: {}", msg);
             throw new IllegalArgumentException("Unknown object");
@@ -109,24 +180,33 @@ public final class ExchangeCodec implements Codec {
     // 解码后的对象可能是响应，也可能是请求。需要根据协议中的REQUEST_RESPONSE_CONTROL字段判断
     @Override
     public Object decode(final byte[] data) {
-        final ByteBuffer encodeHeader = ByteBuffer.wrap(data, 0, HEADER_LENGTH);
+        return decode(Unpooled.wrappedBuffer(data));
+    }
+
+    // RPC请求、RPC响应解码，协议头字段通过绝对索引直接从in读取，协议体以ByteBuffer视图交给序列化器，不复制数据
+    @Override
+    public Object decode(final ByteBuf in) {
+        final int start = in.readerIndex();
+        final int frameLength = in.readableBytes();
+        isTrueArgument("frameLength >= HEADER_LENGTH", frameLength >= HEADER_LENGTH);
         // 校验魔数、校验CRC32
-        final short magic = encodeHeader.getShort(MAGIC_OFFSET);
+        final short magic = in.getShort(start + MAGIC_OFFSET);
         if (magic != MAGIC) {
             return null;
         }
-        final long crc32 = Crc32C.compute(encodeHeader, MAGIC_OFFSET, data.length - CRC_LENGTH);
-        if (encodeHeader.getInt(CRC_OFFSET) != (int) (crc32 & 0xFFFFFFFFL)) {
+        final long crc32 = crc32c(in, start + MAGIC_OFFSET, frameLength - CRC_LENGTH);
+        if (in.getInt(start + CRC_OFFSET) != (int) (crc32 & 0xFFFFFFFFL)) {
             throw new IllegalStateException("Incorrect crc32 checksum");
         }
 
         // 超时时间
-        final int timeout = encodeHeader.getInt(TIMEOUT_OFFSET);
+        final int timeout = in.getInt(start + TIMEOUT_OFFSET);
         // 请求、响应控制字段
-        final short control = encodeHeader.getShort(REQUEST_RESPONSE_CONTROL_OFFSET);
+        final short control = in.getShort(start + REQUEST_RESPONSE_CONTROL_OFFSET);
         final boolean isRequest = REQUEST == ((control & REQUEST_RESPONSE_TAG_MASK) >>> REQUEST_RESPONSE_SHIFT_BITS) ,
                 isResponseRequired = RESPONSE_REQUIRED == ((control & RESPONSE_REQUIRED_TAG_MASK) >>> RESPONSE_REQUIRED_SHIFT_BITS);
-        final Header header = isRequest ? RequestHeader.getDefault(timeout).setResponseRequired(isResponseRequired) : ResponseHeader.getDefault();
+        // 请求记录到达时间（服务端以此计算请求的剩余时间，排队、调度的时间计入其中）
+        final Header header = isRequest ? RequestHeader.getDefault(timeout).setResponseRequired(isResponseRequired).setArrivalNanos(System.nanoTime()) : ResponseHeader.getDefault();
 
         // 事件标记
         final byte event = (byte) ((control & EVENT_TAG_MASK) >>> EVENT_SHIFT_BITS);
@@ -135,84 +215,202 @@ public final class ExchangeCodec implements Codec {
 
         // 写入请求ID
         final int idType = ((control & ID_TAG_MASK) >>> ID_SHIFT_BITS);
-        final byte[] requestId = new byte[REQUEST_ID_LENGTH];
-        System.arraycopy(data, REQUEST_ID_OFFSET, requestId, 0, REQUEST_ID_LENGTH);
-        final Id id = getRequestId(requestId, idType);
+        final Id id = getRequestId(in, start + REQUEST_ID_OFFSET, idType);
         header.setId(id);
 
         // 序列化类型
-        final byte serialization = encodeHeader.get(SERIALIZATION_TYPE_OFFSET);
+        final byte serialization = in.getByte(start + SERIALIZATION_TYPE_OFFSET);
         Serialization s = Serialization.values()[0].codeOf(serialization).orElse(null);
         header.setSerialization(Objects.requireNonNull(s));
 
         // RequestData长度
-        final int bodyLength = encodeHeader.getInt(BODY_LENGTH_OFFSET);
-        isTrueArgument("bodyLength == data.length - HEADER_LENGTH", bodyLength == data.length - HEADER_LENGTH);
-        final byte[] decodeData = new byte[bodyLength];
-        System.arraycopy(data, HEADER_LENGTH, decodeData, 0, bodyLength);
-        Serializer serializer = header.serializerFactory().newSerializer();
+        int bodyLength = in.getInt(start + BODY_LENGTH_OFFSET);
+        isTrueArgument("bodyLength == frameLength - HEADER_LENGTH", bodyLength == frameLength - HEADER_LENGTH);
+        int bodyOffset = start + HEADER_LENGTH;
+        // 附件区
+        if (0 != (control & ATTACHMENTS_TAG_MASK)) {
+            isTrueArgument("bodyLength >= ATTACHMENTS_LENGTH_LENGTH", bodyLength >= ATTACHMENTS_LENGTH_LENGTH);
+            final int attachmentsLength = in.getUnsignedShort(bodyOffset);
+            isTrueArgument("attachmentsLength <= bodyLength - ATTACHMENTS_LENGTH_LENGTH", attachmentsLength <= bodyLength - ATTACHMENTS_LENGTH_LENGTH);
+            header.setAttachments(decodeAttachments(in, bodyOffset + ATTACHMENTS_LENGTH_LENGTH, attachmentsLength));
+            bodyOffset += ATTACHMENTS_LENGTH_LENGTH + attachmentsLength;
+            bodyLength -= ATTACHMENTS_LENGTH_LENGTH + attachmentsLength;
+        }
+        Serializer serializer = header.serializer();
+        final Class<?> bodyClass = isRequest ? RequestBody.class : ResponseBody.class;
+        final Object body;
+        if (0 != (control & COMPRESSED_TAG_MASK)) {
+            // 压缩的协议体：解压到池化的ByteBuf中，反序列化后释放
+            body = decompressAndDeserialize(header, serializer, bodyClass, in, bodyOffset, bodyLength);
+        } else {
+            body = serializer.deserialize(bodyClass, InputSource.wrap(in, bodyOffset, bodyLength));
+        }
 
         if (isRequest) {  // 请求
-            final RequestBody body = serializer.deserialize(RequestBody.class, decodeData);
-            return new Request((RequestHeader) header, body);
+            return new Request((RequestHeader) header, (RequestBody) body);
         } else {  // 响应
             // 响应状态
             ResponseHeader responseHeader = (ResponseHeader) header;
-            responseHeader.setStatus(encodeHeader.get(RESPONSE_STATUS_OFFSET));
-
-            final ResponseBody body = serializer.deserialize(ResponseBody.class, decodeData);
-            return new Response(responseHeader, body);
+            responseHeader.setStatus(in.getByte(start + RESPONSE_STATUS_OFFSET));
+            return new Response(responseHeader, (ResponseBody) body);
         }
     }
 
 
-    // 编码请求数据
-    private static ByteBuffer encodeRequest(final Request request) {
-        Serializer serializer = request.getHeader().serializerFactory().newSerializer();
-        final byte[] body = serializer.serialize(request.getBody());
-        return encodeData(request.getHeader(), body);
+    private Object decompressAndDeserialize(final Header header, final Serializer serializer, final Class<?> bodyClass,
+                                            final ByteBuf in, final int bodyOffset, final int bodyLength) {
+        isTrueArgument("bodyLength >= COMPRESSION_HEADER_LENGTH", bodyLength >= COMPRESSION_HEADER_LENGTH);
+        final byte code = in.getByte(bodyOffset);
+        final Compression compression = Compression.values()[0].codeOf(code).orElse(null);
+        final Compressor compressor = Objects.isNull(compression) ? null : compression.compressor();
+        if (Objects.isNull(compressor)) {
+            throw new IllegalStateException("Unsupported compression type: " + code);
+        }
+        final int uncompressedLength = in.getInt(bodyOffset + COMPRESSION_TYPE_LENGTH);
+        isTrueArgument("0 <= uncompressedLength <= maxBodyLength", uncompressedLength >= 0 && uncompressedLength <= maxBodyLength);
+        header.setCompression(compression);
+        final ByteBuf uncompressed = in.alloc().buffer(uncompressedLength);
+        try {
+            compressor.decompress(in, bodyOffset + COMPRESSION_HEADER_LENGTH, bodyLength - COMPRESSION_HEADER_LENGTH, uncompressed, uncompressedLength);
+            return serializer.deserialize(bodyClass, InputSource.wrap(uncompressed, uncompressed.readerIndex(), uncompressedLength));
+        } finally {
+            uncompressed.release();
+        }
     }
 
-    // 编码响应数据
-    private static ByteBuffer encodeResponse(final Response response) {
-        Serializer serializer = response.getHeader().serializerFactory().newSerializer();
-        final byte[] body = serializer.serialize(response.getBody());
-        return encodeData(response.getHeader(), body);
-    }
 
-    private static ByteBuffer encodeData(final Header header, final byte[] body) {
+    private void encodeData(final Header header, final Object body, final ByteBuf out) {
         final boolean isRequest = header instanceof RequestHeader;
-        final int bodyLength = body.length;
-        // 根据协议头 + 协议体，分配buffer
-        ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + bodyLength);
+        // 消息在out中的起始位置（out中可能已有其它消息）
+        final int start = out.writerIndex();
+        out.ensureWritable(HEADER_LENGTH);
 
         //Crc32校验值需要最后才可写入，位置先空出
-        buffer.position(MAGIC_OFFSET);
+        out.writeInt(0);
         // 1、魔数
-        buffer.putShort(MAGIC);
+        out.writeShort(MAGIC);
         // 2、请求响应控制
         //      请求: 请求标识、是否响应、事件标记
         //      响应: 响应标识，事件标记
-        final short control = getRequestResponseControl(header);
-        buffer.putShort(control);
+        out.writeShort(getRequestResponseControl(header));
         // 3、写入序列化算法
-        buffer.put(header.getSerialization().code());
+        out.writeByte(header.getSerialization().code());
         // 4、写入响应状态（只在Response响应下生效；如果是Request请求，则为0）
-        buffer.put(isRequest ? ((byte) 0) : ((ResponseHeader) header).getStatus());
+        out.writeByte(isRequest ? 0 : ((ResponseHeader) header).getStatus());
         // 5、写入请求ID
-        buffer.put(Objects.requireNonNull(header.getId()).toByteArray());
+        Objects.requireNonNull(header.getId()).writeTo(out);
         // 6、写入超时时间
-        buffer.putInt(isRequest ? ((RequestHeader) header).getTimeoutMillis() : 0);
-        // 7、写入序列化后的requestData长度
-        buffer.putInt(bodyLength);
-        // 8、写入序列化后的RequestData
-        buffer.put(body);
-        // 9、计算header的crc32值，并指定位置、长度，写入CRC32
-        buffer.flip();  //切换到读模式
-        final long crc32 = Crc32C.compute(buffer, MAGIC_OFFSET, buffer.limit() - CRC_LENGTH);
-        buffer.putInt(CRC_OFFSET, (int) (crc32 & 0xFFFFFFFFL));
+        out.writeInt(isRequest ? ((RequestHeader) header).getTimeoutMillis() : 0);
+        // 7、序列化后的requestData长度，需要序列化完成后才可写入，位置先空出
+        out.writeInt(0);
+        // 8、附件区（有附件时）
+        if (hasAttachments(header)) {
+            encodeAttachments(header.getAttachments(), out);
+        }
+        // 9、RequestData直接序列化到out中；需要压缩时，压缩后替换（压缩后更小时）
+        Serializer serializer = header.serializer();
+        final int bodyStart = out.writerIndex();
+        serializer.serialize(body, OutputSink.wrap(out));
+        if (Objects.nonNull(header.getCompression())) {
+            compressBody(header.getCompression(), out, start, bodyStart);
+        }
+        final int bodyLength = out.writerIndex() - start - HEADER_LENGTH;
+        out.setInt(start + BODY_LENGTH_OFFSET, bodyLength);
+        // 10、计算CRC32（从魔数开始到消息末尾），回填到消息起始位置
+        final long crc32 = crc32c(out, start + MAGIC_OFFSET, out.writerIndex() - start - CRC_LENGTH);
+        out.setInt(start + CRC_OFFSET, (int) (crc32 & 0xFFFFFFFFL));
+    }
+
+    // 压缩out中[bodyStart, writerIndex)的协议体：协议体不小于压缩阈值、压缩类型可用、且压缩后更小时，替换为压缩的协议体并设置压缩标记
+    private void compressBody(final Compression compression, final ByteBuf out, final int start, final int bodyStart) {
+        final int length = out.writerIndex() - bodyStart;
+        final Compressor compressor;
+        if (length < compressionThreshold || Objects.isNull(compressor = compression.compressor())) {
+            return;
+        }
+        // 压缩到池化的临时ByteBuf中，再复制回out（压缩后的数据比原数据短）
+        final ByteBuf compressed = out.alloc().buffer(compressor.maxCompressedLength(length));
+        try {
+            final int compressedLength = compressor.compress(out, bodyStart, length, compressed);
+            if (COMPRESSION_HEADER_LENGTH + compressedLength >= length) {
+                return;
+            }
+            out.writerIndex(bodyStart);
+            out.writeByte(compression.code());
+            out.writeInt(length);
+            out.writeBytes(compressed, compressed.readerIndex(), compressedLength);
+            final int controlIndex = start + REQUEST_RESPONSE_CONTROL_OFFSET;
+            out.setShort(controlIndex, out.getShort(controlIndex) | (1 << COMPRESSED_SHIFT_BITS));
+        } catch (RuntimeException e) {
+            // 压缩失败时发送未压缩的协议体
+            log.warn("Failed to compress body with {}: {}", compression, e.toString());
+        } finally {
+            compressed.release();
+        }
+    }
 
-        return buffer;
+    private static boolean hasAttachments(final Header header) {
+        final Map<String, String> attachments = header.getAttachments();
+        return Objects.nonNull(attachments) && !attachments.isEmpty();
+    }
+
+    // 编码附件区：附件区长度（先空出） + 键值对，键、值直接以UTF-8写入out
+    private static void encodeAttachments(final Map<String, String> attachments, final ByteBuf out) {
+        final int lengthIndex = out.writerIndex();
+        out.writeShort(0);
+        for (Map.Entry<String, String> entry : attachments.entrySet()) {
+            writeUtf8(out, entry.getKey(), 1, MAX_ATTACHMENT_KEY_LENGTH);
+            writeUtf8(out, Objects.isNull(entry.getValue()) ? "" : entry.getValue(), 2, MAX_ATTACHMENT_VALUE_LENGTH);
+        }
+        final int attachmentsLength = out.writerIndex() - lengthIndex - ATTACHMENTS_LENGTH_LENGTH;
+        isTrueArgument("attachmentsLength <= MAX_ATTACHMENTS_LENGTH", attachmentsLength <= MAX_ATTACHMENTS_LENGTH);
+        out.setShort(lengthIndex, attachmentsLength);
+    }
+
+    // 写入长度（lengthBytes个字节）+ UTF-8字符串
+    private static void writeUtf8(final ByteBuf out, final String value, final int lengthBytes, final int maxLength) {
+        final int lengthIndex = out.writerIndex();
+        out.writeZero(lengthBytes);
+        final int length = ByteBufUtil.writeUtf8(out, value);
+        isTrueArgument("attachment key length <= 255, value length <= 65535", length <= maxLength);
+        if (1 == lengthBytes) {
+            out.setByte(lengthIndex, length);
+        } else {
+            out.setShort(lengthIndex, length);
+        }
+    }
+
+    // 解码附件区
+    private static Map<String, String> decodeAttachments(final ByteBuf in, final int index, final int length) {
+        final Map<String, String> attachments = new HashMap<>();
+        final int end = index + length;
+        int i = index;
+        while (i < end) {
+            final int keyLength = in.getUnsignedByte(i);
+            i += 1;
+            isTrueArgument("attachment key within attachments", i + keyLength + 2 <= end);
+            final String key = in.toString(i, keyLength, StandardCharsets.UTF_8);
+            i += keyLength;
+            final int valueLength = in.getUnsignedShort(i);
+            i += 2;
+            isTrueArgument("attachment value within attachments", i + valueLength <= end);
+            attachments.put(key, in.toString(i, valueLength, StandardCharsets.UTF_8));
+            i += valueLength;
+        }
+        return attachments;
+    }
+
+    // 计算ByteBuf指定区间的CRC32C，直接使用ByteBuf的NIO视图（堆内存或直接内存），不复制数据
+    static long crc32c(final ByteBuf buf, final int index, final int length) {
+        if (buf.nioBufferCount() == 1) {
+            return Crc32C.compute(buf.nioBuffer(index, length), 0, length);
+        }
+        // CompositeByteBuf等由多段组成的ByteBuf
+        final Checksum checksum = Crc32C.create();
+        for (ByteBuffer nioBuffer : buf.nioBuffers(index, length)) {
+            Checksums.update(checksum, nioBuffer, nioBuffer.remaining());
+        }
+        return checksum.getValue();
     }
 
     // 编码请求、响应控制
@@ -233,13 +431,18 @@ public final class ExchangeCodec implements Codec {
         final short idType = header.getId().getIdType();
         control |= (short) (idType << ID_SHIFT_BITS);
 
+        // 是否有附件
+        if (hasAttachments(header)) {
+            control |= (short) (1 << ATTACHMENTS_SHIFT_BITS);
+        }
+
         return control;
     }
 
     // 解码请求ID
-    private static Id getRequestId(final byte[] requestId, final int idType) {
+    private static Id getRequestId(final ByteBuf in, final int index, final int idType) {
         if (idType == OBJECT_ID) {
-            return new ObjectId(requestId);
+            return new ObjectId(in, index);
         }
         throw new IllegalStateException("Undefined Id type");
     }
@@ -1,12 +1,15 @@
 package com.sun.common.exchange.message;
 
+import com.sun.common.enumerator.Compression;
 import com.sun.common.enumerator.Event;
 import com.sun.common.enumerator.Serialization;
 import com.sun.common.id.serialization.Serializer;
-import com.sun.common.id.serialization.ReflectiveSerializerFactory;
 import com.sun.common.id.serialization.SerializerFactory;
 import com.sun.common.id.Id;
 
+import java.util.Map;
+import java.util.Objects;
+
 /**
  * @description: RPC消息头
  * @author: Sun Xiaodong
@@ -27,6 +30,18 @@ public class Header {
      */
     private Event event;
 
+    /**
+     * 附件（键值对，如：trace-id），为null时协议头中不含附件区
+     * 设置后不可修改（可能同时被其它请求引用，见RpcContext）
+     */
+    private Map<String, String> attachments;
+
+    /**
+     * 压缩类型，为null时不压缩；不为null时，协议体不小于压缩阈值且压缩后更小才压缩（见ExchangeCodec）
+     * 解码时，为压缩协议体使用的压缩类型
+     */
+    private Compression compression;
+
 
     public Header() {
         this.serialization = Serialization.PROTOSTUFF;
@@ -60,12 +75,42 @@ public class Header {
         return this;
     }
 
+    public Map<String, String> getAttachments() {
+        return this.attachments;
+    }
+
+    public Header setAttachments(Map<String, String> attachments) {
+        this.attachments = attachments;
+        return this;
+    }
+
+    public Compression getCompression() {
+        return this.compression;
+    }
+
+    public Header setCompression(Compression compression) {
+        this.compression = compression;
+        return this;
+    }
+
+    public String getAttachment(String key) {
+        return Objects.isNull(this.attachments) ? null : this.attachments.get(key);
+    }
+
     /**
      * 序列化工厂类
-     * @return 返回SerializerFactory对象
+     * @return 返回SerializerFactory对象（总是返回序列化类型对应的序列化器单例）
      */
     public SerializerFactory<? extends Serializer> serializerFactory() {
-        return new ReflectiveSerializerFactory<>(serialization.key());
+        return serialization.serializerFactory();
+    }
+
+    /**
+     * 序列化器
+     * @return 返回序列化类型对应的序列化器单例
+     */
+    public Serializer serializer() {
+        return serialization.serializer();
     }
 
 }
@@ -27,6 +27,11 @@ public final class RequestBody {
      * 方法参数
      */
     private Object[] parameters;
+    /**
+     * 方法ID（见ServiceCatalog，服务目录协商成功后使用）
+     * 不为null时，interfaceName、methodName、returnType、parameterTypes均为null，不参与序列化
+     */
+    private Integer methodId;
 
     public RequestBody() {}
 
@@ -74,4 +79,13 @@ public final class RequestBody {
         this.parameters = parameters;
         return this;
     }
+
+    public Integer getMethodId() {
+        return methodId;
+    }
+
+    public RequestBody setMethodId(Integer methodId) {
+        this.methodId = methodId;
+        return this;
+    }
 }
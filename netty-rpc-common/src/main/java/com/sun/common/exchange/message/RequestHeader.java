@@ -19,6 +19,11 @@ public final class RequestHeader extends Header {
      */
     private boolean responseRequired;
 
+    /**
+     * 请求到达时间（服务端解码时记录的System.nanoTime()，不编码），服务端以此计算请求的剩余时间
+     */
+    private long arrivalNanos;
+
     private RequestHeader() {
         super();
         this.responseRequired = true;
@@ -35,6 +40,15 @@ public final class RequestHeader extends Header {
         return this.timeoutMillis;
     }
 
+    public long getArrivalNanos() {
+        return this.arrivalNanos;
+    }
+
+    public RequestHeader setArrivalNanos(long arrivalNanos) {
+        this.arrivalNanos = arrivalNanos;
+        return this;
+    }
+
     // timeoutMillis
     public boolean getResponseRequired() {
         return this.responseRequired;
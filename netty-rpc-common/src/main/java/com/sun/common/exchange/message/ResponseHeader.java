@@ -27,7 +27,9 @@ public final class ResponseHeader extends Header {
                 .setStatus(this.getStatus())
                 .setId(this.getId())
                 .setEvent(this.getEvent())
-                .setSerialization(this.getSerialization());
+                .setSerialization(this.getSerialization())
+                .setAttachments(this.getAttachments())
+                .setCompression(this.getCompression());
     }
 
     public static ResponseHeader getDefault() {
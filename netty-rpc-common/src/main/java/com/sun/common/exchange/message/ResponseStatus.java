@@ -46,4 +46,27 @@ public interface ResponseStatus {
      * server side threadpool resource exhausted and quick return
      */
     byte SERVER_THREADPOOL_RESOURCE_EXHAUSTED_ERROR = 11;
+
+
+    /**
+     * 响应状态的名称（用于日志、指标的标签）
+     * @param status 响应状态
+     * @return 常量名，未定义的状态返回"UNKNOWN"
+     */
+    static String nameOf(final byte status) {
+        switch (status) {
+            case OK: return "OK";
+            case CLIENT_TIMEOUT: return "CLIENT_TIMEOUT";
+            case SERVER_TIMEOUT: return "SERVER_TIMEOUT";
+            case CHANNEL_INACTIVE: return "CHANNEL_INACTIVE";
+            case BAD_REQUEST: return "BAD_REQUEST";
+            case BAD_RESPONSE: return "BAD_RESPONSE";
+            case SERVICE_ERROR: return "SERVICE_ERROR";
+            case SERVICE_NOT_FOUND: return "SERVICE_NOT_FOUND";
+            case SERVER_ERROR: return "SERVER_ERROR";
+            case CLIENT_ERROR: return "CLIENT_ERROR";
+            case SERVER_THREADPOOL_RESOURCE_EXHAUSTED_ERROR: return "SERVER_THREADPOOL_RESOURCE_EXHAUSTED_ERROR";
+            default: return "UNKNOWN";
+        }
+    }
 }
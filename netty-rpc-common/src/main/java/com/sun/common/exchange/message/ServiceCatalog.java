@@ -0,0 +1,162 @@
+package com.sun.common.exchange.message;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * @description: 服务目录（方法签名 与 方法ID 的对应关系）
+ *               连接建立时，客户端通过Event.CATALOG事件向服务端获取服务目录（下标即为方法ID的方法签名数组），
+ *               之后的请求只需携带方法ID和参数，无需携带接口名、方法名、参数类型；
+ *               服务目录中不存在的方法，仍使用接口名、方法名、参数类型调用。
+ *               方法签名格式：接口全限定名#方法名(参数类型1,参数类型2,...)
+ * @author: Sun Xiaodong
+ */
+public final class ServiceCatalog {
+    public static final int NOT_FOUND = -1;
+
+    // k: 服务接口全限定名; v: (k: 方法名; v: 同名的重载方法)
+    private final Map<String, Map<String, Entry[]>> methods;
+    private final int size;
+
+
+    private ServiceCatalog(final String[] signatures) {
+        this.methods = new HashMap<>();
+        int size = 0;
+        for (int id = 0; id < signatures.length; id++) {
+            final String signature = signatures[id];
+            if (Objects.isNull(signature)) {
+                continue;
+            }
+            final int sharp = signature.indexOf('#');
+            final int leftParenthesis = signature.indexOf('(', sharp);
+            final int rightParenthesis = signature.lastIndexOf(')');
+            if (sharp <= 0 || leftParenthesis <= sharp || rightParenthesis < leftParenthesis) {
+                throw new IllegalArgumentException("Illegal method signature: " + signature);
+            }
+            final String interfaceName = signature.substring(0, sharp);
+            final String methodName = signature.substring(sharp + 1, leftParenthesis);
+            final String parameters = signature.substring(leftParenthesis + 1, rightParenthesis);
+            final String[] parameterTypeNames = parameters.isEmpty() ? new String[0] : parameters.split(",");
+
+            final Entry entry = new Entry(id, parameterTypeNames);
+            this.methods.computeIfAbsent(interfaceName, k -> new HashMap<>())
+                        .merge(methodName, new Entry[]{entry}, (o, n) -> {
+                            Entry[] merged = new Entry[o.length + 1];
+                            System.arraycopy(o, 0, merged, 0, o.length);
+                            merged[o.length] = n[0];
+                            return merged;
+                        });
+            size++;
+        }
+        this.size = size;
+    }
+
+
+    /**
+     * 根据服务端返回的方法签名数组创建服务目录
+     * @param signatures  方法签名数组，下标即为方法ID
+     * @return  返回服务目录
+     */
+    public static ServiceCatalog of(final String[] signatures) {
+        return new ServiceCatalog(Objects.requireNonNull(signatures));
+    }
+
+
+    /**
+     * 获取方法签名
+     * @param method  方法
+     * @return  返回方法签名
+     */
+    public static String signature(final Method method) {
+        final StringBuilder builder = new StringBuilder(64)
+                .append(method.getDeclaringClass().getName())
+                .append('#')
+                .append(method.getName())
+                .append('(');
+        final Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(parameterTypes[i].getName());
+        }
+        return builder.append(')').toString();
+    }
+
+
+    /**
+     * 查找方法ID
+     * @param interfaceName  服务接口全限定名
+     * @param methodName  方法名
+     * @param parameterTypes  参数类型列表
+     * @return  返回方法ID，不存在则返回NOT_FOUND
+     */
+    public int idOf(final String interfaceName, final String methodName, final Class<?>[] parameterTypes) {
+        final Map<String, Entry[]> overloads = methods.get(interfaceName);
+        if (null == overloads) {
+            return NOT_FOUND;
+        }
+        final Entry[] entries = overloads.get(methodName);
+        if (null != entries) {
+            for (Entry entry : entries) {
+                if (entry.matches(parameterTypes)) {
+                    return entry.id;
+                }
+            }
+        }
+        return NOT_FOUND;
+    }
+
+
+    /**
+     * 将请求体转换为紧凑格式：服务目录中存在该方法时，只保留方法ID和参数
+     * @param body  请求体
+     * @return  返回是否已转换
+     */
+    public boolean compact(final RequestBody body) {
+        if (Objects.nonNull(body.getMethodId())) {
+            return true;
+        }
+        final int id = idOf(body.getInterfaceName(), body.getMethodName(), body.getParameterTypes());
+        if (NOT_FOUND == id) {
+            return false;
+        }
+        body.setMethodId(id)
+            .setInterfaceName(null)
+            .setMethodName(null)
+            .setReturnType(null)
+            .setParameterTypes(null);
+        return true;
+    }
+
+
+    public int size() {
+        return size;
+    }
+
+
+    private static final class Entry {
+        private final int id;
+        private final String[] parameterTypeNames;
+
+        Entry(final int id, final String[] parameterTypeNames) {
+            this.id = id;
+            this.parameterTypeNames = parameterTypeNames;
+        }
+
+        boolean matches(final Class<?>[] parameterTypes) {
+            final int length = null == parameterTypes ? 0 : parameterTypes.length;
+            if (length != parameterTypeNames.length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (!parameterTypeNames[i].equals(parameterTypes[i].getName())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.sun.common.id;
 
+import io.netty.buffer.ByteBuf;
+
 import java.io.Serializable;
 
 /**
@@ -13,6 +15,14 @@ public interface Id extends Serializable {
     // 将Id转换为byte数组，且长度不超过ObjectId::OBJECT_ID_LENGTH
     byte[] toByteArray();
 
+    // 将Id直接写入ByteBuf（写入长度与toByteArray()一致），默认实现会产生一次临时数组
+    default void writeTo(final ByteBuf buf) {
+        buf.writeBytes(toByteArray());
+    }
+
+    // 64位关联ID，用于匹配请求与响应（同一进程生成的Id之间不重复），避免以toString()的结果作为键
+    long correlationId();
+
     // 将bytes数组转为Id对象
     Id parse(final byte[] array);
 
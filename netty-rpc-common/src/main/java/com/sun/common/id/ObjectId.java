@@ -16,6 +16,7 @@
 package com.sun.common.id;
 
 import com.sun.common.exchange.codec.ExchangeCodec;
+import io.netty.buffer.ByteBuf;
 
 import java.io.InvalidObjectException;
 import java.io.ObjectInputStream;
@@ -190,6 +191,21 @@ public class ObjectId implements Id, Comparable<ObjectId> {
         counter = makeInt((byte) 0, buffer.get(), buffer.get(), buffer.get());
     }
 
+    /**
+     * Constructs a new instance from the 12 bytes of the given ByteBuf starting at the absolute index,
+     * without modifying the readerIndex of the buffer.
+     */
+    public ObjectId(final ByteBuf buf, final int index) {
+        notNull("buf", buf);
+        isTrueArgument("buf has 12 bytes from index", index >= 0 && buf.capacity() - index >= OBJECT_ID_LENGTH);
+
+        // ByteBuf is always big-endian for the absolute getters below
+        timestamp = buf.getInt(index);
+        randomValue1 = buf.getUnsignedMedium(index + 4);
+        randomValue2 = buf.getShort(index + 7);
+        counter = buf.getUnsignedMedium(index + 9);
+    }
+
     /**
      * Convert to a byte array.  Note that the numbers are stored in big-endian order.
      *
@@ -201,6 +217,30 @@ public class ObjectId implements Id, Comparable<ObjectId> {
         return buffer.array();  // using .allocate ensures there is a backing array that can be returned
     }
 
+    /**
+     * Write the 12 bytes of this object id to the given ByteBuf without an intermediate array.
+     * Note that the numbers are stored in big-endian order (the default order of ByteBuf).
+     */
+    @Override
+    public void writeTo(final ByteBuf buf) {
+        notNull("buf", buf);
+        buf.ensureWritable(OBJECT_ID_LENGTH);
+        buf.writeInt(timestamp);
+        buf.writeMedium(randomValue1);
+        buf.writeShort(randomValue2);
+        buf.writeMedium(counter);
+    }
+
+    /**
+     * The 32-bit timestamp and the 24-bit counter packed into a long. The random value is fixed per process,
+     * so the correlation id is unique among the object ids generated by the same process
+     * (unless more than 16777216 ids are generated within the same second).
+     */
+    @Override
+    public long correlationId() {
+        return ((timestamp & 0xFFFFFFFFL) << 24) | counter;
+    }
+
     @Override
     public Id parse(byte[] array) {
         return new ObjectId(array);
@@ -0,0 +1,56 @@
+package com.sun.common.id.serialization;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.internal.ObjectUtil;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * @description: 以Netty ByteBuf为目标的OutputSink，自身即是OutputStream视图
+ * @author: Sun Xiaodong
+ */
+final class ByteBufOutputSink extends OutputStream implements OutputSink {
+    private final ByteBuf buf;
+    private final int startIndex;
+
+    ByteBufOutputSink(final ByteBuf buf) {
+        this.buf = ObjectUtil.checkNotNull(buf, "buf");
+        this.startIndex = buf.writerIndex();
+    }
+
+    @Override
+    public void writeByte(int b) {
+        buf.writeByte(b);
+    }
+
+    @Override
+    public void writeBytes(byte[] src, int offset, int length) {
+        buf.writeBytes(src, offset, length);
+    }
+
+    @Override
+    public void writeBytes(ByteBuffer src) {
+        buf.writeBytes(src);
+    }
+
+    @Override
+    public int writtenBytes() {
+        return buf.writerIndex() - startIndex;
+    }
+
+    @Override
+    public OutputStream asOutputStream() {
+        return this;
+    }
+
+    @Override
+    public void write(int b) {
+        writeByte(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        writeBytes(b, off, len);
+    }
+}
@@ -0,0 +1,56 @@
+package com.sun.common.id.serialization;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * @description: 以NIO ByteBuffer为数据源的InputSource（Netty ByteBuf通过其NIO视图适配）
+ * @author: Sun Xiaodong
+ */
+final class ByteBufferInputSource implements InputSource {
+    // position ~ limit之间为可读字节，不会被修改
+    private final ByteBuffer buffer;
+
+    ByteBufferInputSource(final ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public int readableBytes() {
+        return buffer.remaining();
+    }
+
+    @Override
+    public ByteBuffer nioBuffer() {
+        return buffer.duplicate();
+    }
+
+    @Override
+    public InputStream asInputStream() {
+        final ByteBuffer data = buffer.duplicate();
+        return new InputStream() {
+            @Override
+            public int read() {
+                return data.hasRemaining() ? data.get() & 0xFF : -1;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                if (len == 0) {
+                    return 0;
+                }
+                if (!data.hasRemaining()) {
+                    return -1;
+                }
+                final int n = Math.min(len, data.remaining());
+                data.get(b, off, n);
+                return n;
+            }
+
+            @Override
+            public int available() {
+                return data.remaining();
+            }
+        };
+    }
+}
@@ -0,0 +1,55 @@
+package com.sun.common.id.serialization;
+
+import io.netty.util.internal.ObjectUtil;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * @description: 以NIO ByteBuffer为目标的OutputSink，自身即是OutputStream视图
+ * @author: Sun Xiaodong
+ */
+final class ByteBufferOutputSink extends OutputStream implements OutputSink {
+    private final ByteBuffer buffer;
+    private final int startPosition;
+
+    ByteBufferOutputSink(final ByteBuffer buffer) {
+        this.buffer = ObjectUtil.checkNotNull(buffer, "buffer");
+        this.startPosition = buffer.position();
+    }
+
+    @Override
+    public void writeByte(int b) {
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public void writeBytes(byte[] src, int offset, int length) {
+        buffer.put(src, offset, length);
+    }
+
+    @Override
+    public void writeBytes(ByteBuffer src) {
+        buffer.put(src);
+    }
+
+    @Override
+    public int writtenBytes() {
+        return buffer.position() - startPosition;
+    }
+
+    @Override
+    public OutputStream asOutputStream() {
+        return this;
+    }
+
+    @Override
+    public void write(int b) {
+        writeByte(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        writeBytes(b, off, len);
+    }
+}
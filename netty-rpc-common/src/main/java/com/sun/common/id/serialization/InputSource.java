@@ -0,0 +1,52 @@
+package com.sun.common.id.serialization;
+
+import io.netty.buffer.ByteBuf;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * @description: 反序列化输入源。序列化器直接读取其中的字节（如：Netty入站帧的ByteBuf），不复制到中间数组
+ * @author: Sun Xiaodong
+ */
+public interface InputSource {
+
+    // 可读的字节数
+    int readableBytes();
+
+    // 可读字节的ByteBuffer视图（堆内存或直接内存），与InputSource共享数据，不复制
+    ByteBuffer nioBuffer();
+
+    // InputStream视图，供只支持流式输入的序列化库使用
+    InputStream asInputStream();
+
+
+    /**
+     * 读取buf中index开始的length个字节，不改变buf的读写索引
+     * @param buf  Netty ByteBuf（堆内存或直接内存）
+     * @param index  起始位置（绝对索引）
+     * @param length  字节数
+     * @return  返回InputSource对象
+     */
+    static InputSource wrap(final ByteBuf buf, final int index, final int length) {
+        return new ByteBufferInputSource(buf.nioBuffer(index, length));
+    }
+
+    /**
+     * 读取buffer中position ~ limit之间的字节，不改变buffer的position
+     * @param buffer  NIO ByteBuffer（堆内存或直接内存）
+     * @return  返回InputSource对象
+     */
+    static InputSource wrap(final ByteBuffer buffer) {
+        return new ByteBufferInputSource(buffer.slice());
+    }
+
+    /**
+     * 读取字节数组data
+     * @param data  字节数组
+     * @return  返回InputSource对象
+     */
+    static InputSource wrap(final byte[] data) {
+        return new ByteBufferInputSource(ByteBuffer.wrap(data));
+    }
+}
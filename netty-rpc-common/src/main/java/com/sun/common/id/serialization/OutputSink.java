@@ -0,0 +1,47 @@
+package com.sun.common.id.serialization;
+
+import io.netty.buffer.ByteBuf;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * @description: 序列化输出目标。序列化器将对象直接写入其中（如：Netty出站的池化ByteBuf），避免先生成完整的字节数组再复制
+ * @author: Sun Xiaodong
+ */
+public interface OutputSink {
+
+    // 写入一个字节
+    void writeByte(int b);
+
+    // 写入字节数组src中offset开始的length个字节
+    void writeBytes(byte[] src, int offset, int length);
+
+    // 写入src中position ~ limit之间的字节（写入后src的position移动到limit）
+    void writeBytes(ByteBuffer src);
+
+    // 已写入的字节数
+    int writtenBytes();
+
+    // OutputStream视图，供只支持流式输出的序列化库使用（如：Protostuff）
+    OutputStream asOutputStream();
+
+
+    /**
+     * 从buf的writerIndex开始写入，写入时buf自动扩容
+     * @param buf  Netty ByteBuf（堆内存或直接内存）
+     * @return  返回OutputSink对象
+     */
+    static OutputSink wrap(final ByteBuf buf) {
+        return new ByteBufOutputSink(buf);
+    }
+
+    /**
+     * 从buffer的position开始写入，超出limit时抛出java.nio.BufferOverflowException
+     * @param buffer  NIO ByteBuffer（堆内存或直接内存）
+     * @return  返回OutputSink对象
+     */
+    static OutputSink wrap(final ByteBuffer buffer) {
+        return new ByteBufferOutputSink(buffer);
+    }
+}
@@ -2,6 +2,9 @@ package com.sun.common.id.serialization;
 
 /**
  * @description: 序列化接口
+ *               byte[]接口需要生成完整的字节数组；OutputSink/InputSource接口直接读写网络缓冲区（ByteBuf/ByteBuffer），
+ *               编解码器优先使用后者。实现类至少需要实现byte[]接口，流式接口的默认实现会借助字节数组中转。
+ *               每种序列化类型只创建一个实例（见Serialization::serializer），所以实现类必需是无状态、线程安全的。
  * @author: Sun Xiaodong
  */
 public interface Serializer {
@@ -21,4 +24,32 @@ public interface Serializer {
      * @return 返回值类型为字节数组
      */
     <T> byte[] serialize(T object) throws RuntimeException;
+
+    /**
+     * 反序列化接口， 直接读取source中的全部字节，反序列化为T类的对象
+     * 默认实现会复制一份字节数组，实现类应尽量直接读取source
+     * @param <T> 声明接口为泛型接口
+     * @param clazz 泛型T代表的类
+     * @param source 对象的字节数据（堆内存或直接内存）
+     * @return 返回值类型为T类
+     */
+    default <T> T deserialize(Class<T> clazz, InputSource source) throws RuntimeException {
+        final byte[] data = new byte[source.readableBytes()];
+        source.nioBuffer().get(data);
+        return deserialize(clazz, data);
+    }
+
+    /**
+     * 序列化接口， 将T类的对象直接序列化到sink中
+     * 默认实现会先生成字节数组再写入sink，实现类应尽量直接写入sink
+     * @param <T> 明接口为泛型接口
+     * @param object 泛型T代表的类的对象
+     * @param sink 序列化输出目标
+     * @return 返回写入sink的字节数
+     */
+    default <T> int serialize(T object, OutputSink sink) throws RuntimeException {
+        final byte[] data = serialize(object);
+        sink.writeBytes(data, 0, data.length);
+        return data.length;
+    }
 }
@@ -0,0 +1,641 @@
+package com.sun.common.id.serialization.impl;
+
+import com.sun.common.exchange.message.RequestBody;
+import com.sun.common.exchange.message.ResponseBody;
+import com.sun.common.id.serialization.InputSource;
+import com.sun.common.id.serialization.OutputSink;
+import com.sun.common.id.serialization.Serializer;
+
+import java.lang.reflect.Array;
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @description: 手写的二进制序列化（不通过反射读写字段），只支持协议体及以下类型的值，其它类型序列化时抛出IllegalArgumentException：
+ *               null、基本类型的包装类、String、Class、基本类型数组、对象数组（元素为支持的类型）、List、Set、Map、Throwable（只传递类名和message）
+ *               格式：每个值为1字节的类型标记 + 值；int、long、长度为varint（int、long先做zigzag编码），float、double为定长（大端），字符串为UTF-8；
+ *               反序列化时，List为ArrayList，Set为LinkedHashSet，Map为LinkedHashMap，Throwable按类名重建（见Throwables）；
+ *               适用于参数、返回值只有上述类型的服务（见@SerializeWith），序列化到线程本地的可复用字节数组后，一次写入sink
+ * @author: Sun Xiaodong
+ */
+public final class BinarySerializer implements Serializer {
+    // 类型标记
+    private static final byte NULL = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte BYTE = 3;
+    private static final byte SHORT = 4;
+    private static final byte CHAR = 5;
+    private static final byte INT = 6;
+    private static final byte LONG = 7;
+    private static final byte FLOAT = 8;
+    private static final byte DOUBLE = 9;
+    private static final byte STRING = 10;
+    private static final byte CLASS = 11;
+    private static final byte BYTE_ARRAY = 12;
+    private static final byte SHORT_ARRAY = 13;
+    private static final byte CHAR_ARRAY = 14;
+    private static final byte INT_ARRAY = 15;
+    private static final byte LONG_ARRAY = 16;
+    private static final byte FLOAT_ARRAY = 17;
+    private static final byte DOUBLE_ARRAY = 18;
+    private static final byte BOOLEAN_ARRAY = 19;
+    private static final byte STRING_ARRAY = 20;
+    private static final byte CLASS_ARRAY = 21;
+    // Object[]
+    private static final byte OBJECT_ARRAY = 22;
+    // 元素类型不是Object的对象数组：元素类型的类名 + 元素
+    private static final byte TYPED_ARRAY = 23;
+    private static final byte LIST = 24;
+    private static final byte SET = 25;
+    private static final byte MAP = 26;
+    private static final byte THROWABLE = 27;
+    private static final byte REQUEST_BODY = 28;
+    private static final byte RESPONSE_BODY = 29;
+
+    // 输出数组的初始容量、保留的最大容量（更大的数组用完后不保留）
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+    private static final int MAX_POOLED_BUFFER_SIZE = 1 << 20;
+
+    // 类名 -> Class（含基本类型）
+    private static final Map<String, Class<?>> CLASSES = new ConcurrentHashMap<>();
+
+    static {
+        for (Class<?> clazz : new Class<?>[]{boolean.class, byte.class, short.class, char.class, int.class, long.class, float.class, double.class, void.class}) {
+            CLASSES.put(clazz.getName(), clazz);
+        }
+    }
+
+    // Class -> UTF-8编码的类名（Class的生命周期内只编码一次）
+    private static final ClassValue<byte[]> CLASS_NAMES = new ClassValue<byte[]>() {
+        @Override
+        protected byte[] computeValue(Class<?> type) {
+            return type.getName().getBytes(StandardCharsets.UTF_8);
+        }
+    };
+
+    private static final ThreadLocalPool<Writer> POOL = new ThreadLocalPool<>(Writer::new);
+
+    public BinarySerializer() {}
+
+
+    @Override
+    public <T> T deserialize(Class<T> clazz, byte[] data) throws RuntimeException {
+        return deserialize(clazz, ByteBuffer.wrap(data));
+    }
+
+    // 直接从source的ByteBuffer视图（堆内存或直接内存）读取，不复制数据
+    @Override
+    public <T> T deserialize(Class<T> clazz, InputSource source) throws RuntimeException {
+        return deserialize(clazz, source.nioBuffer());
+    }
+
+    @Override
+    public <T> byte[] serialize(T obj) throws RuntimeException {
+        final Writer writer = Writer.acquire();
+        try {
+            writer.writeValue(obj);
+            final byte[] data = new byte[writer.position];
+            System.arraycopy(writer.buffer, 0, data, 0, writer.position);
+            return data;
+        } finally {
+            writer.release();
+        }
+    }
+
+    @Override
+    public <T> int serialize(T obj, OutputSink sink) throws RuntimeException {
+        final Writer writer = Writer.acquire();
+        try {
+            writer.writeValue(obj);
+            sink.writeBytes(writer.buffer, 0, writer.position);
+            return writer.position;
+        } finally {
+            writer.release();
+        }
+    }
+
+
+    private static <T> T deserialize(final Class<T> clazz, final ByteBuffer data) {
+        try {
+            final Object value = new Reader(data.order(ByteOrder.BIG_ENDIAN)).readValue();
+            if (data.hasRemaining()) {
+                throw new IllegalStateException("Corrupted binary body, " + data.remaining() + " trailing bytes");
+            }
+            return clazz.cast(value);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalStateException("Truncated binary body", e);
+        }
+    }
+
+    private static Class<?> classForName(final String name) {
+        Class<?> clazz = CLASSES.get(name);
+        if (null == clazz) {
+            try {
+                clazz = Class.forName(name, false, BinarySerializer.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("Class not found: " + name, e);
+            }
+            CLASSES.putIfAbsent(name, clazz);
+        }
+        return clazz;
+    }
+
+
+    // 序列化：写入线程本地的可复用字节数组（见ThreadLocalPool）
+    private static final class Writer {
+        private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+        private int position;
+
+        static Writer acquire() {
+            final Writer writer = POOL.acquire();
+            writer.position = 0;
+            return writer;
+        }
+
+        void release() {
+            if (buffer.length > MAX_POOLED_BUFFER_SIZE) {
+                buffer = new byte[INITIAL_BUFFER_SIZE];
+            }
+            POOL.release(this);
+        }
+
+        void writeValue(final Object value) {
+            if (null == value) {
+                writeByte(NULL);
+                return;
+            }
+            final Class<?> clazz = value.getClass();
+            if (String.class == clazz) {
+                writeByte(STRING);
+                writeString((String) value);
+            } else if (Integer.class == clazz) {
+                writeByte(INT);
+                writeVarInt(zigZag((Integer) value));
+            } else if (Long.class == clazz) {
+                writeByte(LONG);
+                writeVarLong(zigZag((Long) value));
+            } else if (Boolean.class == clazz) {
+                writeByte((Boolean) value ? TRUE : FALSE);
+            } else if (Double.class == clazz) {
+                writeByte(DOUBLE);
+                writeFixedLong(Double.doubleToRawLongBits((Double) value));
+            } else if (Float.class == clazz) {
+                writeByte(FLOAT);
+                writeFixedInt(Float.floatToRawIntBits((Float) value));
+            } else if (Byte.class == clazz) {
+                writeByte(BYTE);
+                writeByte((Byte) value);
+            } else if (Short.class == clazz) {
+                writeByte(SHORT);
+                writeFixedShort((Short) value);
+            } else if (Character.class == clazz) {
+                writeByte(CHAR);
+                writeFixedShort((Character) value);
+            } else if (Class.class == clazz) {
+                writeByte(CLASS);
+                writeClassName((Class<?>) value);
+            } else if (RequestBody.class == clazz) {
+                writeRequestBody((RequestBody) value);
+            } else if (ResponseBody.class == clazz) {
+                writeResponseBody((ResponseBody) value);
+            } else if (clazz.isArray()) {
+                writeArray(value, clazz.getComponentType());
+            } else if (value instanceof List) {
+                writeByte(LIST);
+                writeCollection((List<?>) value);
+            } else if (value instanceof Set) {
+                writeByte(SET);
+                writeCollection((Set<?>) value);
+            } else if (value instanceof Map) {
+                writeByte(MAP);
+                final Map<?, ?> map = (Map<?, ?>) value;
+                writeVarInt(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    writeValue(entry.getKey());
+                    writeValue(entry.getValue());
+                }
+            } else if (value instanceof Throwable) {
+                writeByte(THROWABLE);
+                writeClassName(clazz);
+                writeValue(((Throwable) value).getMessage());
+            } else {
+                throw new IllegalArgumentException("BINARY serialization does not support " + clazz.getName() + ", use PROTOSTUFF, KRYO or FURY instead");
+            }
+        }
+
+        void writeRequestBody(final RequestBody body) {
+            writeByte(REQUEST_BODY);
+            writeValue(body.getInterfaceName());
+            writeValue(body.getMethodName());
+            writeValue(body.getReturnType());
+            writeValue(body.getParameterTypes());
+            writeValue(body.getParameters());
+            writeValue(body.getMethodId());
+        }
+
+        void writeResponseBody(final ResponseBody body) {
+            writeByte(RESPONSE_BODY);
+            writeByte(body.getSuccess() ? TRUE : FALSE);
+            writeValue(body.getResult());
+            writeValue(body.getErrorMsg());
+        }
+
+        void writeArray(final Object array, final Class<?> componentType) {
+            if (componentType.isPrimitive()) {
+                writePrimitiveArray(array, componentType);
+                return;
+            }
+            final Object[] elements = (Object[]) array;
+            if (Object.class == componentType) {
+                writeByte(OBJECT_ARRAY);
+            } else if (String.class == componentType) {
+                writeByte(STRING_ARRAY);
+            } else if (Class.class == componentType) {
+                writeByte(CLASS_ARRAY);
+            } else {
+                writeByte(TYPED_ARRAY);
+                writeClassName(componentType);
+            }
+            writeVarInt(elements.length);
+            for (Object element : elements) {
+                writeValue(element);
+            }
+        }
+
+        void writePrimitiveArray(final Object array, final Class<?> componentType) {
+            if (byte.class == componentType) {
+                final byte[] values = (byte[]) array;
+                writeByte(BYTE_ARRAY);
+                writeVarInt(values.length);
+                ensureWritable(values.length);
+                System.arraycopy(values, 0, buffer, position, values.length);
+                position += values.length;
+            } else if (int.class == componentType) {
+                final int[] values = (int[]) array;
+                writeByte(INT_ARRAY);
+                writeVarInt(values.length);
+                for (int v : values) {
+                    writeVarInt(zigZag(v));
+                }
+            } else if (long.class == componentType) {
+                final long[] values = (long[]) array;
+                writeByte(LONG_ARRAY);
+                writeVarInt(values.length);
+                for (long v : values) {
+                    writeVarLong(zigZag(v));
+                }
+            } else if (double.class == componentType) {
+                final double[] values = (double[]) array;
+                writeByte(DOUBLE_ARRAY);
+                writeVarInt(values.length);
+                for (double v : values) {
+                    writeFixedLong(Double.doubleToRawLongBits(v));
+                }
+            } else if (float.class == componentType) {
+                final float[] values = (float[]) array;
+                writeByte(FLOAT_ARRAY);
+                writeVarInt(values.length);
+                for (float v : values) {
+                    writeFixedInt(Float.floatToRawIntBits(v));
+                }
+            } else if (boolean.class == componentType) {
+                final boolean[] values = (boolean[]) array;
+                writeByte(BOOLEAN_ARRAY);
+                writeVarInt(values.length);
+                ensureWritable(values.length);
+                for (boolean v : values) {
+                    buffer[position++] = (byte) (v ? 1 : 0);
+                }
+            } else if (short.class == componentType) {
+                final short[] values = (short[]) array;
+                writeByte(SHORT_ARRAY);
+                writeVarInt(values.length);
+                for (short v : values) {
+                    writeFixedShort(v);
+                }
+            } else {
+                final char[] values = (char[]) array;
+                writeByte(CHAR_ARRAY);
+                writeVarInt(values.length);
+                for (char v : values) {
+                    writeFixedShort(v);
+                }
+            }
+        }
+
+        void writeCollection(final Collection<?> collection) {
+            writeVarInt(collection.size());
+            for (Object element : collection) {
+                writeValue(element);
+            }
+        }
+
+        // 按ASCII逐字符写入，遇到非ASCII字符时回退，编码为UTF-8后写入
+        void writeString(final String s) {
+            final int length = s.length();
+            ensureWritable(5 + length);
+            final int start = position;
+            writeVarInt(length);
+            for (int i = 0; i < length; i++) {
+                final char c = s.charAt(i);
+                if (c >= 0x80) {
+                    position = start;
+                    writeBytesWithLength(s.getBytes(StandardCharsets.UTF_8));
+                    return;
+                }
+                buffer[position++] = (byte) c;
+            }
+        }
+
+        void writeClassName(final Class<?> clazz) {
+            writeBytesWithLength(CLASS_NAMES.get(clazz));
+        }
+
+        void writeBytesWithLength(final byte[] bytes) {
+            writeVarInt(bytes.length);
+            ensureWritable(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void writeByte(final int b) {
+            ensureWritable(1);
+            buffer[position++] = (byte) b;
+        }
+
+        void writeFixedShort(final int v) {
+            ensureWritable(2);
+            buffer[position++] = (byte) (v >>> 8);
+            buffer[position++] = (byte) v;
+        }
+
+        void writeFixedInt(final int v) {
+            ensureWritable(4);
+            buffer[position++] = (byte) (v >>> 24);
+            buffer[position++] = (byte) (v >>> 16);
+            buffer[position++] = (byte) (v >>> 8);
+            buffer[position++] = (byte) v;
+        }
+
+        void writeFixedLong(final long v) {
+            writeFixedInt((int) (v >>> 32));
+            writeFixedInt((int) v);
+        }
+
+        void writeVarInt(int v) {
+            ensureWritable(5);
+            while ((v & ~0x7F) != 0) {
+                buffer[position++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buffer[position++] = (byte) v;
+        }
+
+        void writeVarLong(long v) {
+            ensureWritable(10);
+            while ((v & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buffer[position++] = (byte) v;
+        }
+
+        void ensureWritable(final int length) {
+            if (position + length > buffer.length) {
+                final byte[] newBuffer = new byte[Math.max(buffer.length << 1, position + length)];
+                System.arraycopy(buffer, 0, newBuffer, 0, position);
+                buffer = newBuffer;
+            }
+        }
+
+        static int zigZag(final int v) {
+            return (v << 1) ^ (v >> 31);
+        }
+
+        static long zigZag(final long v) {
+            return (v << 1) ^ (v >> 63);
+        }
+    }
+
+
+    // 反序列化：直接读取ByteBuffer（堆内存或直接内存）
+    private static final class Reader {
+        private final ByteBuffer data;
+
+        Reader(final ByteBuffer data) {
+            this.data = data;
+        }
+
+        Object readValue() {
+            final byte tag = data.get();
+            switch (tag) {
+                case NULL:
+                    return null;
+                case TRUE:
+                    return Boolean.TRUE;
+                case FALSE:
+                    return Boolean.FALSE;
+                case BYTE:
+                    return data.get();
+                case SHORT:
+                    return data.getShort();
+                case CHAR:
+                    return data.getChar();
+                case INT:
+                    return unZigZag(readVarInt());
+                case LONG:
+                    return unZigZag(readVarLong());
+                case FLOAT:
+                    return data.getFloat();
+                case DOUBLE:
+                    return data.getDouble();
+                case STRING:
+                    return readString();
+                case CLASS:
+                    return classForName(readString());
+                case STRING_ARRAY:
+                    return readElements(new String[readLength(1)]);
+                case CLASS_ARRAY:
+                    return readElements(new Class<?>[readLength(1)]);
+                case OBJECT_ARRAY:
+                    return readElements(new Object[readLength(1)]);
+                case TYPED_ARRAY:
+                    final Class<?> componentType = classForName(readString());
+                    return readElements((Object[]) Array.newInstance(componentType, readLength(1)));
+                case LIST:
+                    final int listSize = readLength(1);
+                    return readCollection(new ArrayList<>(listSize), listSize);
+                case SET:
+                    final int setSize = readLength(1);
+                    return readCollection(new LinkedHashSet<>(capacity(setSize)), setSize);
+                case MAP:
+                    final int mapSize = readLength(2);
+                    final Map<Object, Object> map = new LinkedHashMap<>(capacity(mapSize));
+                    for (int i = 0; i < mapSize; i++) {
+                        map.put(readValue(), readValue());
+                    }
+                    return map;
+                case THROWABLE:
+                    final String className = readString();
+                    return Throwables.newInstance(className, (String) readValue());
+                case REQUEST_BODY:
+                    return new RequestBody()
+                            .setInterfaceName((String) readValue())
+                            .setMethodName((String) readValue())
+                            .setReturnType((Class<?>) readValue())
+                            .setParameterTypes((Class<?>[]) readValue())
+                            .setParameters((Object[]) readValue())
+                            .setMethodId((Integer) readValue());
+                case RESPONSE_BODY:
+                    final boolean success = TRUE == data.get();
+                    final Object result = readValue();
+                    final String errorMsg = (String) readValue();
+                    return success ? new ResponseBody(result) : new ResponseBody(result, errorMsg);
+                default:
+                    return readPrimitiveArray(tag);
+            }
+        }
+
+        Object readPrimitiveArray(final byte tag) {
+            switch (tag) {
+                case BYTE_ARRAY: {
+                    final byte[] values = new byte[readLength(1)];
+                    data.get(values);
+                    return values;
+                }
+                case INT_ARRAY: {
+                    final int[] values = new int[readLength(1)];
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = unZigZag(readVarInt());
+                    }
+                    return values;
+                }
+                case LONG_ARRAY: {
+                    final long[] values = new long[readLength(1)];
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = unZigZag(readVarLong());
+                    }
+                    return values;
+                }
+                case DOUBLE_ARRAY: {
+                    final double[] values = new double[readLength(8)];
+                    data.asDoubleBuffer().get(values);
+                    ((Buffer) data).position(data.position() + (values.length << 3));
+                    return values;
+                }
+                case FLOAT_ARRAY: {
+                    final float[] values = new float[readLength(4)];
+                    data.asFloatBuffer().get(values);
+                    ((Buffer) data).position(data.position() + (values.length << 2));
+                    return values;
+                }
+                case BOOLEAN_ARRAY: {
+                    final boolean[] values = new boolean[readLength(1)];
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = 0 != data.get();
+                    }
+                    return values;
+                }
+                case SHORT_ARRAY: {
+                    final short[] values = new short[readLength(2)];
+                    data.asShortBuffer().get(values);
+                    ((Buffer) data).position(data.position() + (values.length << 1));
+                    return values;
+                }
+                case CHAR_ARRAY: {
+                    final char[] values = new char[readLength(2)];
+                    data.asCharBuffer().get(values);
+                    ((Buffer) data).position(data.position() + (values.length << 1));
+                    return values;
+                }
+                default:
+                    throw new IllegalStateException("Corrupted binary body, unknown type tag: " + tag);
+            }
+        }
+
+        Object[] readElements(final Object[] elements) {
+            for (int i = 0; i < elements.length; i++) {
+                elements[i] = readValue();
+            }
+            return elements;
+        }
+
+        <C extends Collection<Object>> C readCollection(final C collection, final int size) {
+            for (int i = 0; i < size; i++) {
+                collection.add(readValue());
+            }
+            return collection;
+        }
+
+        String readString() {
+            final int length = readLength(1);
+            final String s;
+            if (data.hasArray()) {
+                s = new String(data.array(), data.arrayOffset() + data.position(), length, StandardCharsets.UTF_8);
+                ((Buffer) data).position(data.position() + length);
+            } else {
+                final byte[] bytes = new byte[length];
+                data.get(bytes);
+                s = new String(bytes, StandardCharsets.UTF_8);
+            }
+            return s;
+        }
+
+        // 长度（元素个数），每个元素至少elementSize字节，超过剩余字节数时数据已损坏，不分配数组
+        int readLength(final int elementSize) {
+            final int length = readVarInt();
+            if (length < 0 || (long) length * elementSize > data.remaining()) {
+                throw new IllegalStateException("Corrupted binary body, invalid length: " + length);
+            }
+            return length;
+        }
+
+        int readVarInt() {
+            int result = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                final byte b = data.get();
+                result |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return result;
+                }
+            }
+            throw new IllegalStateException("Corrupted binary body, malformed varint");
+        }
+
+        long readVarLong() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                final byte b = data.get();
+                result |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return result;
+                }
+            }
+            throw new IllegalStateException("Corrupted binary body, malformed varint");
+        }
+
+        static int unZigZag(final int v) {
+            return (v >>> 1) ^ -(v & 1);
+        }
+
+        static long unZigZag(final long v) {
+            return (v >>> 1) ^ -(v & 1);
+        }
+
+        static int capacity(final int size) {
+            return size < 3 ? size + 1 : (int) (size / 0.75F + 1.0F);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.sun.common.id.serialization.impl;
+
+import com.sun.common.exchange.message.RequestBody;
+import com.sun.common.exchange.message.ResponseBody;
+import com.sun.common.id.serialization.InputSource;
+import com.sun.common.id.serialization.OutputSink;
+import com.sun.common.id.serialization.Serializer;
+import org.apache.fury.Fury;
+import org.apache.fury.config.Language;
+import org.apache.fury.memory.MemoryBuffer;
+
+/**
+ * @description: 通过Fury实现序列化，反序列化（运行时为每个类生成序列化代码并JIT编译，不经过反射读写字段）
+ *               Fury实例不是线程安全的，与可复用的MemoryBuffer一起由ThreadLocalPool按线程复用；
+ *               代码生成异步进行，生成完成前使用解释模式，首次请求不等待编译；
+ *               协议体按固定顺序注册（REGISTERED_CLASSES的顺序即ID，客户端、服务端须一致，只能在末尾追加），
+ *               JDK常用类型由Fury内置注册，其它类写入类名，由ClassChecker检查是否在SerializationAllowlist中，不在时序列化、反序列化时抛出异常
+ *               （Fury在构建时仍会输出未要求注册的警告，此时ClassChecker尚未设置）；
+ *               不跟踪对象引用（不支持循环引用，与Protostuff一致），异常只传递类名和message（见Throwables）
+ * @author: Sun Xiaodong
+ */
+public final class FurySerializer implements Serializer {
+    private static final Class<?>[] REGISTERED_CLASSES = {RequestBody.class, ResponseBody.class};
+    // MemoryBuffer初始容量、保留的最大容量（更大的MemoryBuffer用完后不保留）
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+    private static final int MAX_POOLED_BUFFER_SIZE = 1 << 20;
+
+    private static final ThreadLocalPool<FuryHolder> POOL = new ThreadLocalPool<>(FuryHolder::new);
+
+    public FurySerializer() {}
+
+
+    @Override
+    public <T> T deserialize(Class<T> clazz, byte[] data) throws RuntimeException {
+        final FuryHolder holder = FuryHolder.acquire();
+        try {
+            return holder.fury.deserializeJavaObject(data, clazz);
+        } finally {
+            holder.release();
+        }
+    }
+
+    // 直接从source的ByteBuffer视图（堆内存或直接内存）读取，不复制数据
+    @Override
+    public <T> T deserialize(Class<T> clazz, InputSource source) throws RuntimeException {
+        final FuryHolder holder = FuryHolder.acquire();
+        try {
+            return holder.fury.deserializeJavaObject(MemoryBuffer.fromByteBuffer(source.nioBuffer()), clazz);
+        } finally {
+            holder.release();
+        }
+    }
+
+    @Override
+    public <T> byte[] serialize(T obj) throws RuntimeException {
+        final FuryHolder holder = FuryHolder.acquire();
+        try {
+            holder.buffer.writerIndex(0);
+            holder.fury.serializeJavaObject(holder.buffer, obj);
+            return holder.buffer.getBytes(0, holder.buffer.writerIndex());
+        } finally {
+            holder.release();
+        }
+    }
+
+    // 序列化到线程本地的MemoryBuffer后，一次写入sink
+    @Override
+    public <T> int serialize(T obj, OutputSink sink) throws RuntimeException {
+        final FuryHolder holder = FuryHolder.acquire();
+        try {
+            holder.buffer.writerIndex(0);
+            holder.fury.serializeJavaObject(holder.buffer, obj);
+            final int size = holder.buffer.writerIndex();
+            sink.writeBytes(holder.buffer.getHeapMemory(), 0, size);
+            return size;
+        } finally {
+            holder.release();
+        }
+    }
+
+
+    private static Fury newFury() {
+        final Fury fury = Fury.builder()
+                .withLanguage(Language.JAVA)
+                .withRefTracking(false)
+                .requireClassRegistration(false)
+                .suppressClassRegistrationWarnings(true)
+                .withAsyncCompilation(true)
+                .withClassLoader(FurySerializer.class.getClassLoader())
+                .build();
+        for (Class<?> clazz : REGISTERED_CLASSES) {
+            fury.register(clazz);
+        }
+        fury.getClassResolver().setClassChecker((classResolver, className) -> SerializationAllowlist.isAllowed(className));
+        fury.getClassResolver().setSerializerFactory((f, clazz) -> Throwable.class.isAssignableFrom(clazz) ? new ThrowableSerializer(f, clazz) : null);
+        return fury;
+    }
+
+
+    // 异常：类名由Fury写入，只写入message
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static final class ThrowableSerializer extends org.apache.fury.serializer.Serializer<Throwable> {
+        ThrowableSerializer(final Fury fury, final Class type) {
+            super(fury, type);
+        }
+
+        @Override
+        public void write(MemoryBuffer buffer, Throwable throwable) {
+            final String message = throwable.getMessage();
+            buffer.writeBoolean(null != message);
+            if (null != message) {
+                fury.writeJavaString(buffer, message);
+            }
+        }
+
+        @Override
+        public Throwable read(MemoryBuffer buffer) {
+            final String message = buffer.readBoolean() ? fury.readJavaString(buffer) : null;
+            return Throwables.newInstance(type, message);
+        }
+    }
+
+
+    // 线程本地的Fury实例及其MemoryBuffer
+    private static final class FuryHolder {
+        private final Fury fury = newFury();
+        private MemoryBuffer buffer = MemoryBuffer.newHeapBuffer(INITIAL_BUFFER_SIZE);
+
+        static FuryHolder acquire() {
+            return POOL.acquire();
+        }
+
+        void release() {
+            if (buffer.size() > MAX_POOLED_BUFFER_SIZE) {
+                buffer = MemoryBuffer.newHeapBuffer(INITIAL_BUFFER_SIZE);
+            }
+            POOL.release(this);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.sun.common.id.serialization.impl;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Registration;
+import com.esotericsoftware.kryo.io.ByteBufferInput;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.util.DefaultClassResolver;
+import com.esotericsoftware.kryo.util.DefaultInstantiatorStrategy;
+import com.sun.common.exchange.message.RequestBody;
+import com.sun.common.exchange.message.ResponseBody;
+import com.sun.common.id.serialization.InputSource;
+import com.sun.common.id.serialization.OutputSink;
+import com.sun.common.id.serialization.Serializer;
+import org.objenesis.strategy.StdInstantiatorStrategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * @description: 通过Kryo实现序列化，反序列化
+ *               Kryo实例不是线程安全的，与可复用的Output、ByteBufferInput一起由ThreadLocalPool按线程复用；
+ *               协议体及常用的集合类按固定ID注册（REGISTERED_CLASSES的顺序即ID，客户端、服务端须一致，只能在末尾追加），
+ *               要求注册：未按ID注册的类只有在SerializationAllowlist中时（如：业务自定义的参数类型）才按类名注册，否则序列化、反序列化时抛出异常；
+ *               不跟踪对象引用（不支持循环引用，与Protostuff一致），异常只传递类名和message（见Throwables）
+ * @author: Sun Xiaodong
+ */
+public final class KryoSerializer implements Serializer {
+    // 注册ID的起始值（Kryo内置类型使用0 ~ 9）
+    private static final int FIRST_REGISTRATION_ID = 100;
+    private static final Class<?>[] REGISTERED_CLASSES = {
+            RequestBody.class, ResponseBody.class,
+            Class.class, Class[].class, Object[].class, String[].class,
+            byte[].class, int[].class, long[].class, double[].class, boolean[].class,
+            ArrayList.class, LinkedList.class, HashMap.class, LinkedHashMap.class, TreeMap.class, HashSet.class, LinkedHashSet.class
+    };
+    // Output初始容量、保留的最大容量（更大的Output用完后不保留）
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+    private static final int MAX_POOLED_BUFFER_SIZE = 1 << 20;
+
+    private static final ThreadLocalPool<KryoHolder> POOL = new ThreadLocalPool<>(KryoHolder::new);
+
+    public KryoSerializer() {}
+
+
+    @Override
+    public <T> T deserialize(Class<T> clazz, byte[] data) throws RuntimeException {
+        final KryoHolder holder = KryoHolder.acquire();
+        try {
+            return holder.kryo.readObject(new Input(data), clazz);
+        } finally {
+            holder.release();
+        }
+    }
+
+    // 直接从source的ByteBuffer视图（堆内存或直接内存）读取，不复制数据
+    @Override
+    public <T> T deserialize(Class<T> clazz, InputSource source) throws RuntimeException {
+        final KryoHolder holder = KryoHolder.acquire();
+        try {
+            holder.input.setBuffer(source.nioBuffer());
+            return holder.kryo.readObject(holder.input, clazz);
+        } finally {
+            holder.release();
+        }
+    }
+
+    @Override
+    public <T> byte[] serialize(T obj) throws RuntimeException {
+        final KryoHolder holder = KryoHolder.acquire();
+        try {
+            holder.output.reset();
+            holder.kryo.writeObject(holder.output, obj);
+            return holder.output.toBytes();
+        } finally {
+            holder.release();
+        }
+    }
+
+    // 序列化到线程本地的Output后，一次写入sink
+    @Override
+    public <T> int serialize(T obj, OutputSink sink) throws RuntimeException {
+        final KryoHolder holder = KryoHolder.acquire();
+        try {
+            holder.output.reset();
+            holder.kryo.writeObject(holder.output, obj);
+            final int size = holder.output.position();
+            sink.writeBytes(holder.output.getBuffer(), 0, size);
+            return size;
+        } finally {
+            holder.release();
+        }
+    }
+
+
+    private static Kryo newKryo() {
+        final AllowlistClassResolver classResolver = new AllowlistClassResolver();
+        final Kryo kryo = new Kryo(classResolver, null);
+        kryo.setRegistrationRequired(true);
+        kryo.setReferences(false);
+        kryo.setClassLoader(KryoSerializer.class.getClassLoader());
+        // 优先使用无参构造方法，没有时不调用构造方法创建对象
+        kryo.setInstantiatorStrategy(new DefaultInstantiatorStrategy(new StdInstantiatorStrategy()));
+        kryo.addDefaultSerializer(Throwable.class, new ThrowableSerializer());
+        addCopySerializers(kryo);
+        for (int i = 0; i < REGISTERED_CLASSES.length; i++) {
+            kryo.register(REGISTERED_CLASSES[i], FIRST_REGISTRATION_ID + i);
+        }
+        classResolver.allowlistEnabled = true;
+        return kryo;
+    }
+
+
+    // JDK集合的包装类（Arrays.asList、Collections.unmodifiableXxx）：字段不可访问（JDK 9+的模块限制），也不能通过add方法填充，
+    // 复制为对应的集合类写入，读取后重新包装（SortedSet、SortedMap的比较器随TreeSet、TreeMap一起写入）
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static void addCopySerializers(final Kryo kryo) {
+        kryo.addDefaultSerializer(Arrays.asList().getClass(), new CopySerializer(ArrayList.class, c -> new ArrayList((List) c), l -> Arrays.asList(((List) l).toArray())));
+        kryo.addDefaultSerializer(Collections.unmodifiableList(new ArrayList<>()).getClass(),
+                new CopySerializer(ArrayList.class, c -> new ArrayList((List) c), l -> Collections.unmodifiableList((List) l)));
+        kryo.addDefaultSerializer(Collections.unmodifiableList(new LinkedList<>()).getClass(),
+                new CopySerializer(ArrayList.class, c -> new ArrayList((List) c), l -> Collections.unmodifiableList((List) l)));
+        kryo.addDefaultSerializer(Collections.unmodifiableCollection(new ArrayList<>()).getClass(),
+                new CopySerializer(ArrayList.class, c -> new ArrayList((Collection) c), l -> Collections.unmodifiableCollection((Collection) l)));
+        kryo.addDefaultSerializer(Collections.unmodifiableSet(new HashSet<>()).getClass(),
+                new CopySerializer(LinkedHashSet.class, c -> new LinkedHashSet((Set) c), s -> Collections.unmodifiableSet((Set) s)));
+        kryo.addDefaultSerializer(Collections.unmodifiableSortedSet(new TreeSet<>()).getClass(),
+                new CopySerializer(TreeSet.class, c -> new TreeSet((SortedSet) c), s -> Collections.unmodifiableSortedSet((SortedSet) s)));
+        kryo.addDefaultSerializer(Collections.unmodifiableNavigableSet(new TreeSet<>()).getClass(),
+                new CopySerializer(TreeSet.class, c -> new TreeSet((SortedSet) c), s -> Collections.unmodifiableNavigableSet((NavigableSet) s)));
+        kryo.addDefaultSerializer(Collections.unmodifiableMap(new HashMap<>()).getClass(),
+                new CopySerializer(LinkedHashMap.class, m -> new LinkedHashMap((Map) m), m -> Collections.unmodifiableMap((Map) m)));
+        kryo.addDefaultSerializer(Collections.unmodifiableSortedMap(new TreeMap<>()).getClass(),
+                new CopySerializer(TreeMap.class, m -> new TreeMap((SortedMap) m), m -> Collections.unmodifiableSortedMap((SortedMap) m)));
+        kryo.addDefaultSerializer(Collections.unmodifiableNavigableMap(new TreeMap<>()).getClass(),
+                new CopySerializer(TreeMap.class, m -> new TreeMap((SortedMap) m), m -> Collections.unmodifiableNavigableMap((NavigableMap) m)));
+    }
+
+
+    // 未按ID注册的类在SerializationAllowlist中时，按类名注册（写入类名）；否则返回null，由Kryo抛出未注册的异常
+    // 按ID注册完成后才启用（注册时Kryo也通过getRegistration检查类是否已注册）
+    private static final class AllowlistClassResolver extends DefaultClassResolver {
+        private boolean allowlistEnabled;
+
+        @Override
+        public Registration getRegistration(Class type) {
+            final Registration registration = super.getRegistration(type);
+            if (allowlistEnabled && Objects.isNull(registration) && SerializationAllowlist.isAllowed(type)) {
+                return registerImplicit(type);
+            }
+            return registration;
+        }
+    }
+
+
+    // 异常：类名由Kryo写入，只写入message
+    private static final class ThrowableSerializer extends com.esotericsoftware.kryo.Serializer<Throwable> {
+        @Override
+        public void write(Kryo kryo, Output output, Throwable throwable) {
+            output.writeString(throwable.getMessage());
+        }
+
+        @Override
+        public Throwable read(Kryo kryo, Input input, Class<? extends Throwable> type) {
+            return Throwables.newInstance(type, input.readString());
+        }
+    }
+
+
+    // 复制为copyType写入，读取后由wrap重新包装
+    private static final class CopySerializer extends com.esotericsoftware.kryo.Serializer<Object> {
+        private final Class<?> copyType;
+        private final Function<Object, Object> copy;
+        private final Function<Object, Object> wrap;
+
+        CopySerializer(final Class<?> copyType, final Function<Object, Object> copy, final Function<Object, Object> wrap) {
+            this.copyType = copyType;
+            this.copy = copy;
+            this.wrap = wrap;
+        }
+
+        @Override
+        public void write(Kryo kryo, Output output, Object object) {
+            kryo.writeObject(output, copy.apply(object));
+        }
+
+        @Override
+        public Object read(Kryo kryo, Input input, Class<?> type) {
+            return wrap.apply(kryo.readObject(input, copyType));
+        }
+    }
+
+
+    // 线程本地的Kryo实例及其Output、Input
+    private static final class KryoHolder {
+        private final Kryo kryo = newKryo();
+        private Output output = new Output(INITIAL_BUFFER_SIZE, -1);
+        private final ByteBufferInput input = new ByteBufferInput();
+
+        static KryoHolder acquire() {
+            return POOL.acquire();
+        }
+
+        void release() {
+            if (output.getBuffer().length > MAX_POOLED_BUFFER_SIZE) {
+                output = new Output(INITIAL_BUFFER_SIZE, -1);
+            }
+            POOL.release(this);
+        }
+    }
+}
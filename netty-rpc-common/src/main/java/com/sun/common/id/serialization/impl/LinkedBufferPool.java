@@ -0,0 +1,85 @@
+package com.sun.common.id.serialization.impl;
+
+import io.netty.util.internal.MathUtil;
+import io.protostuff.LinkedBuffer;
+
+/**
+ * @description: 线程本地的LinkedBuffer池（见ThreadLocalPool），复用时调用LinkedBuffer::clear清空，不重新分配。
+ *               容量自适应（参考Netty的AdaptiveRecvByteBufAllocator）：
+ *               1、连续GROW_THRESHOLD次消息大于当前容量，则扩容到能容纳该消息的2的幂（不超过MAX_BUFFER_SIZE）；
+ *               2、连续SHRINK_THRESHOLD次消息小于当前容量的1/4，则缩容一半（不小于MIN_BUFFER_SIZE）；
+ *               偶尔出现的大消息只会临时链接额外的LinkedBuffer节点，clear后即释放，不会长期占用大块内存。
+ * @author: Sun Xiaodong
+ */
+final class LinkedBufferPool {
+    // 最小（也是初始）容量
+    static final int MIN_BUFFER_SIZE = LinkedBuffer.DEFAULT_BUFFER_SIZE;
+    // 池化的最大容量，更大的消息由LinkedBuffer临时链接新节点
+    static final int MAX_BUFFER_SIZE = 64 * 1024;
+    // 连续多少次消息大于当前容量时扩容
+    private static final int GROW_THRESHOLD = 4;
+    // 连续多少次消息小于当前容量的1/4时缩容
+    private static final int SHRINK_THRESHOLD = 256;
+
+    private static final ThreadLocalPool<LinkedBufferPool> POOL = new ThreadLocalPool<>(LinkedBufferPool::new);
+
+    private LinkedBuffer buffer;
+    private int capacity;
+    private int growCount;
+    private int shrinkCount;
+
+    private LinkedBufferPool() {
+        this.capacity = MIN_BUFFER_SIZE;
+        this.buffer = LinkedBuffer.allocate(capacity);
+    }
+
+
+    /**
+     * 获取当前线程的LinkedBufferPool，使用完成后必需调用release方法归还
+     * @return  返回持有已清空的LinkedBuffer的LinkedBufferPool
+     */
+    static LinkedBufferPool acquire() {
+        return POOL.acquire();
+    }
+
+
+    LinkedBuffer buffer() {
+        return buffer;
+    }
+
+
+    /**
+     * 清空并归还LinkedBuffer
+     * @param messageSize  本次序列化的消息大小，用于调整缓冲区容量（序列化失败时传0）
+     */
+    void release(final int messageSize) {
+        buffer.clear();
+        adjust(messageSize);
+        POOL.release(this);
+    }
+
+
+    private void adjust(final int messageSize) {
+        if (messageSize > capacity) {
+            shrinkCount = 0;
+            if (++growCount >= GROW_THRESHOLD && capacity < MAX_BUFFER_SIZE) {
+                resize(Math.min(MAX_BUFFER_SIZE, MathUtil.findNextPositivePowerOfTwo(messageSize)));
+            }
+        } else if (messageSize < (capacity >>> 2)) {
+            growCount = 0;
+            if (++shrinkCount >= SHRINK_THRESHOLD && capacity > MIN_BUFFER_SIZE) {
+                resize(Math.max(MIN_BUFFER_SIZE, capacity >>> 1));
+            }
+        } else {
+            growCount = 0;
+            shrinkCount = 0;
+        }
+    }
+
+    private void resize(final int newCapacity) {
+        capacity = newCapacity;
+        buffer = LinkedBuffer.allocate(newCapacity);
+        growCount = 0;
+        shrinkCount = 0;
+    }
+}
@@ -1,96 +1,125 @@
 package com.sun.common.id.serialization.impl;
 
+import com.sun.common.id.serialization.InputSource;
+import com.sun.common.id.serialization.OutputSink;
 import com.sun.common.id.serialization.Serializer;
+import io.protostuff.ByteBufferInput;
 import io.protostuff.LinkedBuffer;
 import io.protostuff.ProtostuffIOUtil;
 import io.protostuff.Schema;
-import io.protostuff.runtime.RuntimeSchema;
 
-import java.lang.ref.WeakReference;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.Map;
-import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * @description: 通过Protostuff实现序列化，反序列化
+ * @description: 通过Protostuff实现序列化，反序列化（Schema由SchemaRegistry缓存）
  * @author: Sun Xiaodong
  */
 public final class ProtostuffSerializer implements Serializer {
 
-    // 缓存Schema
-    private static final Map<Class<?>, WeakReference<Object>> SCHEMA_CACHE = new ConcurrentHashMap<>();
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    @Override
+    public <T> T deserialize(Class<T> clazz, byte[] data) throws RuntimeException {
+        if (shouldWrapper(clazz)) {
+            Schema<SerializationWrapper> schema = SchemaRegistry.getSchema(SerializationWrapper.class);
+            SerializationWrapper<T> wrapperObj = schema.newMessage();
+            ProtostuffIOUtil.mergeFrom(data, wrapperObj, schema);
+            return wrapperObj.getData();
+        } else {
+            Schema<T> schema = SchemaRegistry.getSchema(clazz);
+            T t = schema.newMessage();
+            ProtostuffIOUtil.mergeFrom(data, t, schema);
+            return t;
+        }
+    }
 
+    // 直接从source的ByteBuffer视图（堆内存或直接内存）读取，不复制数据
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    @Override
+    public <T> T deserialize(Class<T> clazz, InputSource source) throws RuntimeException {
+        final ByteBuffer data = source.nioBuffer();
+        if (shouldWrapper(clazz)) {
+            Schema<SerializationWrapper> schema = SchemaRegistry.getSchema(SerializationWrapper.class);
+            SerializationWrapper<T> wrapperObj = schema.newMessage();
+            mergeFrom(data, wrapperObj, schema);
+            return wrapperObj.getData();
+        } else {
+            Schema<T> schema = SchemaRegistry.getSchema(clazz);
+            T t = schema.newMessage();
+            mergeFrom(data, t, schema);
+            return t;
+        }
+    }
 
     @SuppressWarnings({ "unchecked", "rawtypes" })
     @Override
-    public <T> T deserialize(Class<T> clazz, byte[] data) throws RuntimeException {
+    public <T> byte[] serialize(T obj) throws RuntimeException {
+        final LinkedBufferPool pool = LinkedBufferPool.acquire();
+        final LinkedBuffer buffer = pool.buffer();
+        byte[] data = null;
         try {
+            Class<T> clazz = (Class<T>) obj.getClass();
             if (shouldWrapper(clazz)) {
-                Schema<SerializationWrapper> schema = (Schema<SerializationWrapper>) getSchema(SerializationWrapper.class).get();
-                SerializationWrapper<T> wrapperObj = schema.newMessage();
-                ProtostuffIOUtil.mergeFrom(data, wrapperObj, schema);
-                return wrapperObj.getData();
+                SerializationWrapper<T> wrapperObj = SerializationWrapper.builder(obj);
+                data = ProtostuffIOUtil.toByteArray(wrapperObj, SchemaRegistry.getSchema(SerializationWrapper.class), buffer);
             } else {
-                Schema<T> schema = (Schema<T>) getSchema(clazz).get();
-                T t = schema.newMessage();
-                ProtostuffIOUtil.mergeFrom(data, t, schema);
-                return t;
+                data = ProtostuffIOUtil.toByteArray(obj, SchemaRegistry.getSchema(clazz), buffer);
             }
+            return data;
         } finally {
-            // 防止reference弱引用对象在使用过程中被GC回收，需要JDK 9+支持
-            //Reference.reachabilityFence(this);
+            // 归还线程本地的LinkedBuffer（清空后复用）
+            pool.release(null == data ? 0 : data.length);
         }
     }
 
+
+    // 通过Protostuff的流式输出，将LinkedBuffer中的数据分段写入sink（如：出站的ByteBuf），不生成完整的字节数组
     @SuppressWarnings({ "unchecked", "rawtypes" })
     @Override
-    public <T> byte[] serialize(T obj) throws RuntimeException {
+    public <T> int serialize(T obj, OutputSink sink) throws RuntimeException {
+        final LinkedBufferPool pool = LinkedBufferPool.acquire();
+        final LinkedBuffer buffer = pool.buffer();
+        int size = 0;
         try {
-            final LinkedBuffer buffer = getBuffer();
             Class<T> clazz = (Class<T>) obj.getClass();
             if (shouldWrapper(clazz)) {
                 SerializationWrapper<T> wrapperObj = SerializationWrapper.builder(obj);
-                WeakReference<Object> reference = getSchema(SerializationWrapper.class);
-                return ProtostuffIOUtil.toByteArray(wrapperObj, (Schema<SerializationWrapper>) reference.get(), buffer);
+                size = ProtostuffIOUtil.writeTo(sink.asOutputStream(), wrapperObj, SchemaRegistry.getSchema(SerializationWrapper.class), buffer);
             } else {
-                WeakReference<Object> reference = getSchema(clazz);
-                return ProtostuffIOUtil.toByteArray(obj, (Schema<T>) reference.get(), buffer);
+                size = ProtostuffIOUtil.writeTo(sink.asOutputStream(), obj, SchemaRegistry.getSchema(clazz), buffer);
             }
+            return size;
+        } catch (IOException e) {
+            throw new RuntimeException("Serializing to an OutputSink threw an IOException.", e);
         } finally {
-            // 防止reference弱引用对象在使用过程中被GC回收，需要JDK 9+支持
-            //Reference.reachabilityFence(this);
+            pool.release(size);
         }
     }
 
 
     // 是否需要包装（当遇到Protostuff不支持序列化/反序列化数组、集合类等对象时，需要使用包装类包装）
-    private static <T> boolean shouldWrapper(Class<T> clazz) {
+    static <T> boolean shouldWrapper(Class<T> clazz) {
         return null != clazz && (clazz.isArray() || Collection.class.isAssignableFrom(clazz) || Map.class.isAssignableFrom(clazz));
     }
 
 
-    private static LinkedBuffer getBuffer() {
-        return LinkedBuffer.allocate(LinkedBuffer.DEFAULT_BUFFER_SIZE);
-    }
-
-
-    private static <T> WeakReference<Object> getSchema(Class<T> clazz) {
-        WeakReference<Object> reference = SCHEMA_CACHE.get(clazz);
-        if (Objects.isNull(reference)) {
-            Schema<T> schema = RuntimeSchema.getSchema(clazz);
-            if (Objects.nonNull(schema)) {
-                reference = new WeakReference<>(schema);
-                SCHEMA_CACHE.putIfAbsent(clazz, reference);
-            } else {
-                throw new IllegalStateException("Nonexistent schema");
-            }
+    // 与ProtostuffIOUtil::mergeFrom(byte[], T, Schema)一致，只是输入换成了ByteBuffer（ByteBufferInput会slice，不影响data的position）
+    private static <T> void mergeFrom(final ByteBuffer data, final T message, final Schema<T> schema) {
+        try {
+            final ByteBufferInput input = new ByteBufferInput(data, true);
+            schema.mergeFrom(input, message);
+            input.checkLastTagWas(0);
+        } catch (BufferUnderflowException e) {
+            throw new RuntimeException("Truncated.", e);
+        } catch (IOException e) {
+            throw new RuntimeException("Reading from a ByteBuffer threw an IOException (should never happen).", e);
         }
-        return reference;
     }
 
 
-
     // 序列化包装类
     static class SerializationWrapper<T> {
         private T data;
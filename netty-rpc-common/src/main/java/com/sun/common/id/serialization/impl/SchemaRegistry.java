@@ -0,0 +1,77 @@
+package com.sun.common.id.serialization.impl;
+
+import io.protostuff.Schema;
+import io.protostuff.runtime.RuntimeSchema;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @description: Protostuff Schema注册表
+ *               使用ClassValue缓存Schema：Schema与Class（及其ClassLoader）生命周期相同，强引用，不会被GC提前回收；
+ *               ClassLoader被卸载时，随Class一起回收，不会造成内存泄漏。
+ *               启动时可预热RPC服务接口方法的参数类型、返回类型的Schema，避免在首次请求时创建。
+ * @author: Sun Xiaodong
+ */
+public final class SchemaRegistry {
+    // 查找次数、未命中（创建Schema）次数
+    private static final LongAdder LOOKUPS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+
+    private static final ClassValue<Schema<?>> SCHEMAS = new ClassValue<Schema<?>>() {
+        @Override
+        protected Schema<?> computeValue(Class<?> type) {
+            MISSES.increment();
+            final Schema<?> schema = RuntimeSchema.getSchema(type);
+            if (Objects.isNull(schema)) {
+                throw new IllegalStateException("Nonexistent schema");
+            }
+            return schema;
+        }
+    };
+
+
+    /**
+     * 获取clazz对应的Schema，不存在则创建
+     * @param clazz  类
+     * @return  返回Schema对象
+     * @param <T>  泛型声明
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Schema<T> getSchema(final Class<T> clazz) {
+        LOOKUPS.increment();
+        return (Schema<T>) SCHEMAS.get(clazz);
+    }
+
+
+    /**
+     * 预热RPC服务接口用到的类型（见ServiceTypes）中自定义类的Schema，以及数组、集合类的包装类的Schema
+     * JDK自带的类型（java.*、javax.*）、基本类型、接口、抽象类、枚举由Protostuff内置支持，无需预热
+     * @param serviceInterface  RPC服务接口类
+     */
+    public static void warmUp(final Class<?> serviceInterface) {
+        ServiceTypes.forEach(serviceInterface, clazz -> {
+            if (ProtostuffSerializer.shouldWrapper(clazz)) {
+                getSchema(ProtostuffSerializer.SerializationWrapper.class);
+            } else if (ServiceTypes.isPojo(clazz)) {
+                getSchema(clazz);
+            }
+        });
+    }
+
+
+    // 命中次数
+    public static long hits() {
+        return Math.max(0L, LOOKUPS.sum() - MISSES.sum());
+    }
+
+    // 未命中（创建Schema）次数
+    public static long misses() {
+        return MISSES.sum();
+    }
+
+
+    private SchemaRegistry() {
+        throw new IllegalStateException("Instantiation not allowed");
+    }
+}
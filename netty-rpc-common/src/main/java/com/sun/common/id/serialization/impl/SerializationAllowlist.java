@@ -0,0 +1,105 @@
+package com.sun.common.id.serialization.impl;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @description: KRYO、FURY反序列化时允许创建的类（按类名），不在其中的类序列化、反序列化时都抛出异常，
+ *               避免对端通过任意类名触发反序列化漏洞（gadget chain）
+ *               包括：常用的JDK值类型、集合类及其包装类（Arrays.asList、Collections.emptyXxx/singletonXxx/unmodifiableXxx），RPC服务接口（@RpcServiceInterface）用到的类型（见ServiceTypes，服务端注册服务、客户端创建代理时添加），
+ *               以及通过allow方法添加的类型（如：参数、返回值声明为接口或父类时的实际类型）；
+ *               数组按元素类型判断，异常（Throwable的子类）只传递类名和message（见Throwables），不按字段反序列化
+ * @author: Sun Xiaodong
+ */
+public final class SerializationAllowlist {
+    private static final Set<String> ALLOWED = ConcurrentHashMap.newKeySet();
+
+    static {
+        allow(Object.class, String.class, Boolean.class, Byte.class, Short.class, Character.class, Integer.class, Long.class,
+                Float.class, Double.class, Class.class, BigInteger.class, BigDecimal.class, Date.class, UUID.class,
+                Instant.class, Duration.class, LocalDate.class, LocalTime.class, LocalDateTime.class,
+                ArrayList.class, LinkedList.class, HashMap.class, LinkedHashMap.class, TreeMap.class, HashSet.class, LinkedHashSet.class,
+                Collections.emptyList().getClass(), Collections.emptyMap().getClass(), Collections.emptySet().getClass(),
+                Collections.singletonList(null).getClass(), Collections.singletonMap(null, null).getClass(), Collections.singleton(null).getClass(),
+                TreeSet.class, Arrays.asList().getClass(),
+                Collections.unmodifiableList(new ArrayList<>()).getClass(), Collections.unmodifiableList(new LinkedList<>()).getClass(),
+                Collections.unmodifiableCollection(new ArrayList<>()).getClass(), Collections.unmodifiableSet(new HashSet<>()).getClass(),
+                Collections.unmodifiableSortedSet(new TreeSet<>()).getClass(), Collections.unmodifiableNavigableSet(new TreeSet<>()).getClass(),
+                Collections.unmodifiableMap(new HashMap<>()).getClass(), Collections.unmodifiableSortedMap(new TreeMap<>()).getClass(),
+                Collections.unmodifiableNavigableMap(new TreeMap<>()).getClass());
+    }
+
+
+    /**
+     * 添加允许序列化的类
+     * @param classes  类
+     */
+    public static void allow(final Class<?>... classes) {
+        for (Class<?> clazz : classes) {
+            ALLOWED.add(clazz.getName());
+        }
+    }
+
+
+    /**
+     * 添加RPC服务接口用到的类型（见ServiceTypes）
+     * @param serviceInterface  RPC服务接口类
+     */
+    public static void allowServiceTypes(final Class<?> serviceInterface) {
+        ServiceTypes.forEach(serviceInterface, SerializationAllowlist::allow);
+    }
+
+
+    /**
+     * 是否允许序列化
+     * @param clazz  类
+     * @return  基本类型、允许的类、元素类型允许的数组、异常返回true
+     */
+    public static boolean isAllowed(final Class<?> clazz) {
+        if (clazz.isArray()) {
+            return isAllowed(clazz.getComponentType());
+        }
+        return clazz.isPrimitive() || ALLOWED.contains(clazz.getName()) || Throwable.class.isAssignableFrom(clazz);
+    }
+
+
+    /**
+     * 是否允许序列化（按类名判断，不在允许列表中时加载类但不初始化，判断是否为异常、数组）
+     * @param className  类名
+     * @return  同isAllowed(Class)，类不存在时返回false
+     */
+    static boolean isAllowed(final String className) {
+        if (ALLOWED.contains(className)) {
+            return true;
+        }
+        try {
+            return isAllowed(Class.forName(className, false, SerializationAllowlist.class.getClassLoader()));
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+
+    private SerializationAllowlist() {
+        throw new IllegalStateException("Instantiation not allowed");
+    }
+}
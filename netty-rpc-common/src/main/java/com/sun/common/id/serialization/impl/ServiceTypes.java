@@ -0,0 +1,91 @@
+package com.sun.common.id.serialization.impl;
+
+import com.sun.common.exchange.message.RequestBody;
+import com.sun.common.exchange.message.ResponseBody;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * @description: RPC服务接口用到的类型：请求体、响应体，所有方法的参数类型、返回类型，及其泛型实参、数组元素类型，
+ *               以及自定义类（见isPojo）的字段类型（递归，包括父类的字段，不包括static、transient字段）
+ *               供SchemaRegistry预热Schema、SerializationAllowlist生成允许序列化的类型
+ * @author: Sun Xiaodong
+ */
+final class ServiceTypes {
+
+    /**
+     * 遍历RPC服务接口用到的类型，每个类型只访问一次
+     * @param serviceInterface  RPC服务接口类
+     * @param visitor  类型的访问者
+     */
+    static void forEach(final Class<?> serviceInterface, final Consumer<Class<?>> visitor) {
+        final Set<Type> visited = new HashSet<>();
+        visit(RequestBody.class, visited, visitor);
+        visit(ResponseBody.class, visited, visitor);
+        for (Method method : serviceInterface.getMethods()) {
+            visit(method.getGenericReturnType(), visited, visitor);
+            for (Type parameterType : method.getGenericParameterTypes()) {
+                visit(parameterType, visited, visitor);
+            }
+        }
+    }
+
+
+    // 需要按字段序列化的自定义类（JDK自带的类型、基本类型、接口、抽象类、枚举由序列化框架内置支持）
+    static boolean isPojo(final Class<?> clazz) {
+        if (clazz.isPrimitive() || clazz.isArray() || clazz.isInterface() || clazz.isEnum() || clazz.isAnnotation()
+                || Modifier.isAbstract(clazz.getModifiers())) {
+            return false;
+        }
+        final String name = clazz.getName();
+        return !name.startsWith("java.") && !name.startsWith("javax.");
+    }
+
+
+    private static void visit(final Type type, final Set<Type> visited, final Consumer<Class<?>> visitor) {
+        if (!visited.add(type)) {
+            return;
+        }
+        if (type instanceof Class) {
+            final Class<?> clazz = (Class<?>) type;
+            visitor.accept(clazz);
+            if (clazz.isArray()) {
+                visit(clazz.getComponentType(), visited, visitor);
+            } else if (isPojo(clazz)) {
+                for (Class<?> c = clazz; Object.class != c && isPojo(c); c = c.getSuperclass()) {
+                    for (Field field : c.getDeclaredFields()) {
+                        if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers())) {
+                            visit(field.getGenericType(), visited, visitor);
+                        }
+                    }
+                }
+            }
+        } else if (type instanceof ParameterizedType) {
+            final ParameterizedType parameterizedType = (ParameterizedType) type;
+            visit(parameterizedType.getRawType(), visited, visitor);
+            for (Type argument : parameterizedType.getActualTypeArguments()) {
+                visit(argument, visited, visitor);
+            }
+        } else if (type instanceof GenericArrayType) {
+            visit(((GenericArrayType) type).getGenericComponentType(), visited, visitor);
+        } else if (type instanceof WildcardType) {
+            for (Type bound : ((WildcardType) type).getUpperBounds()) {
+                visit(bound, visited, visitor);
+            }
+        }
+    }
+
+
+    private ServiceTypes() {
+        throw new IllegalStateException("Instantiation not allowed");
+    }
+}
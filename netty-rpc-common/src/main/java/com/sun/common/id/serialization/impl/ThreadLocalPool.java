@@ -0,0 +1,71 @@
+package com.sun.common.id.serialization.impl;
+
+import io.netty.util.concurrent.FastThreadLocal;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * @description: 线程本地的对象池，序列化器复用非线程安全的对象（Kryo、Fury实例，缓冲区等）
+ *               每个线程最多MAX_DEPTH个对象，首次使用时创建（event loop线程上使用FastThreadLocal的快速路径）；
+ *               序列化过程中嵌套序列化时（如：对象的序列化方法中再次调用序列化器），使用下一个对象，不与外层共用；
+ *               嵌套层数超过MAX_DEPTH时抛出IllegalStateException，不临时创建新对象（Kryo、Fury实例的创建开销很大）。
+ *               acquire、release须成对调用（try-finally），且后获取的先归还
+ * @author: Sun Xiaodong
+ */
+final class ThreadLocalPool<T> {
+    // 每个线程的最大对象数（最大嵌套层数）
+    static final int MAX_DEPTH = 2;
+
+    private final Supplier<T> factory;
+    private final FastThreadLocal<Slots> slots = new FastThreadLocal<Slots>() {
+        @Override
+        protected Slots initialValue() {
+            return new Slots();
+        }
+    };
+
+    ThreadLocalPool(final Supplier<T> factory) {
+        this.factory = Objects.requireNonNull(factory);
+    }
+
+
+    /**
+     * 获取当前线程的对象，使用完成后必需调用release方法归还
+     * @return  返回当前嵌套层对应的对象
+     * @throws IllegalStateException  嵌套层数超过MAX_DEPTH
+     */
+    @SuppressWarnings("unchecked")
+    T acquire() {
+        final Slots current = slots.get();
+        if (current.depth == MAX_DEPTH) {
+            throw new IllegalStateException("Nested serialization is limited to " + MAX_DEPTH + " levels per thread");
+        }
+        Object object = current.objects[current.depth];
+        if (Objects.isNull(object)) {
+            object = factory.get();
+            current.objects[current.depth] = object;
+        }
+        current.depth++;
+        return (T) object;
+    }
+
+
+    /**
+     * 归还对象（重复归还、归还非当前层的对象时忽略）
+     * @param object  acquire方法返回的对象
+     */
+    void release(final T object) {
+        final Slots current = slots.get();
+        if (current.depth > 0 && current.objects[current.depth - 1] == object) {
+            current.depth--;
+        }
+    }
+
+
+    private static final class Slots {
+        private final Object[] objects = new Object[MAX_DEPTH];
+        // 正在使用的对象数
+        private int depth;
+    }
+}
@@ -0,0 +1,52 @@
+package com.sun.common.id.serialization.impl;
+
+/**
+ * @description: 异常的序列化形式：只传递类名和message（不传递堆栈、cause，不经过JDK序列化）
+ *               反序列化时，类名对应的类是Throwable且有(String)构造方法时，以message创建该类的异常；
+ *               否则创建RuntimeException（message为"类名: message"，message为null时为类名）
+ * @author: Sun Xiaodong
+ */
+final class Throwables {
+
+    /**
+     * 以类名和message重建异常
+     * @param className  异常的类名
+     * @param message  异常的message，可以为null
+     * @return  返回重建的异常
+     */
+    static Throwable newInstance(final String className, final String message) {
+        try {
+            return newInstance(Class.forName(className, false, Throwables.class.getClassLoader()), message);
+        } catch (ClassNotFoundException | LinkageError e) {
+            return fallback(className, message);
+        }
+    }
+
+
+    /**
+     * 以类和message重建异常
+     * @param type  异常的类
+     * @param message  异常的message，可以为null
+     * @return  返回重建的异常
+     */
+    static Throwable newInstance(final Class<?> type, final String message) {
+        if (Throwable.class.isAssignableFrom(type)) {
+            try {
+                return (Throwable) type.getConstructor(String.class).newInstance(message);
+            } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+                // 没有(String)构造方法、不可访问、构造方法抛出异常时，使用RuntimeException
+            }
+        }
+        return fallback(type.getName(), message);
+    }
+
+
+    private static RuntimeException fallback(final String className, final String message) {
+        return new RuntimeException(null == message ? className : className + ": " + message);
+    }
+
+
+    private Throwables() {
+        throw new IllegalStateException("Instantiation not allowed");
+    }
+}
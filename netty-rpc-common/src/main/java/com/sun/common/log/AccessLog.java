@@ -0,0 +1,246 @@
+package com.sun.common.log;
+
+import com.sun.common.exchange.message.ResponseStatus;
+import com.sun.common.id.Id;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @description: 请求访问日志（替代每条消息一次的INFO日志）
+ *               请求完成时只做采样判断，被选中的请求以基本类型字段和对象引用写入预分配的环形缓冲区，
+ *               不格式化Id、不拼接字符串、不调用日志框架；由后台线程批量取出并输出，I/O线程、业务线程不做日志工作；
+ *               slowThresholdMillis > 0 时只记录耗时不小于该值的请求（慢请求日志），否则按sampleRate采样；
+ *               失败的请求（响应状态不是OK）总是被选中；每秒最多记录maxPerSecond条，缓冲区已满时丢弃，不阻塞调用线程
+ * @author: Sun Xiaodong
+ */
+public final class AccessLog {
+    private static final Logger log = LoggerFactory.getLogger(AccessLog.class);
+    // 缓冲区为空时，后台线程的等待时间，单位：ms
+    private static final long DRAIN_INTERVAL = 10L;
+    private static final String NONE = "-";
+
+    // 日志中标识本端：client、server
+    private final String side;
+    private final boolean enabled;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final int maxPerSecond;
+
+    // 环形缓冲区（多生产者、单消费者），sequences[i]标识槽位i的状态：等于写入位置时可写，等于写入位置+1时可读
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final long[] timestamps;
+    private final long[] latencies;
+    private final byte[] statuses;
+    private final Object[] ids;
+    private final Object[] remotes;
+    private final Object[] interfaceNames;
+    private final Object[] methodNames;
+    private final Object[] traceIds;
+    private final AtomicLong tail = new AtomicLong();
+    // 只由后台线程访问
+    private long head;
+
+    // 限流：当前秒（System.currentTimeMillis() / 1000）及其中已记录的条数
+    private final AtomicLong window = new AtomicLong();
+    private final AtomicLong windowCount = new AtomicLong();
+
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Thread writer;
+    private volatile boolean closed;
+
+    /**
+     * @param side 本端标识，如：client、server
+     * @param enabled 是否记录访问日志
+     * @param sampleRate 采样率：[0, 1]
+     * @param slowThresholdMillis 慢请求阈值（单位ms），大于0时只记录慢请求
+     * @param maxPerSecond 每秒最多记录的条数
+     * @param bufferSize 环形缓冲区大小（向上取2的幂）
+     */
+    public AccessLog(final String side, final boolean enabled, final double sampleRate, final long slowThresholdMillis,
+                     final int maxPerSecond, final int bufferSize) {
+        this.side = side;
+        this.enabled = enabled;
+        this.sampleRate = Math.max(0D, Math.min(1D, sampleRate));
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, slowThresholdMillis));
+        this.maxPerSecond = Math.max(1, maxPerSecond);
+
+        final int capacity = enabled ? powerOfTwo(bufferSize) : 1;
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            this.sequences.set(i, i);
+        }
+        this.timestamps = new long[capacity];
+        this.latencies = new long[capacity];
+        this.statuses = new byte[capacity];
+        this.ids = new Object[capacity];
+        this.remotes = new Object[capacity];
+        this.interfaceNames = new Object[capacity];
+        this.methodNames = new Object[capacity];
+        this.traceIds = new Object[capacity];
+
+        if (enabled) {
+            this.writer = new DefaultThreadFactory("rpc_access_log", true).newThread(this::drainLoop);
+            this.writer.start();
+        } else {
+            this.writer = null;
+        }
+    }
+
+
+    /**
+     * 请求完成时调用，未被选中时立即返回
+     * @param id 请求ID
+     * @param remote 对端地址
+     * @param interfaceName 服务接口全限定名
+     * @param methodName 服务方法名
+     * @param traceId 请求附件中的trace-id（同一trace-id的各节点日志可对比出较慢的一跳），没有时为null
+     * @param status 响应状态（见ResponseStatus）
+     * @param latencyNanos 请求耗时，单位：ns
+     */
+    public void record(final Id id, final Object remote, final String interfaceName, final String methodName,
+                       final String traceId, final byte status, final long latencyNanos) {
+        if (!enabled || closed || !isSelected(status, latencyNanos) || !tryAcquire()) {
+            return;
+        }
+        long pos = tail.get();
+        while (true) {
+            final int index = (int) pos & mask;
+            final long diff = sequences.get(index) - pos;
+            if (0 == diff) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    timestamps[index] = System.currentTimeMillis();
+                    latencies[index] = latencyNanos;
+                    statuses[index] = status;
+                    ids[index] = id;
+                    remotes[index] = remote;
+                    interfaceNames[index] = interfaceName;
+                    methodNames[index] = methodName;
+                    traceIds[index] = traceId;
+                    sequences.lazySet(index, pos + 1);
+                    recorded.increment();
+                    return;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                // 缓冲区已满（后台线程来不及输出），丢弃
+                dropped.increment();
+                return;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+
+    // 已记录（写入缓冲区）的条数
+    public long recorded() {
+        return recorded.sum();
+    }
+
+    // 因缓冲区已满而丢弃的条数
+    public long dropped() {
+        return dropped.sum();
+    }
+
+
+    // 输出缓冲区中剩余的日志，并停止后台线程
+    public void close(final long timeoutMillis) {
+        if (!enabled || closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(Math.max(1L, timeoutMillis));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Access log closed, {} recorded, {} dropped.", recorded(), dropped());
+    }
+
+
+    private boolean isSelected(final byte status, final long latencyNanos) {
+        if (ResponseStatus.OK != status) {
+            return true;
+        }
+        if (slowThresholdNanos > 0) {
+            return latencyNanos >= slowThresholdNanos;
+        }
+        return sampleRate >= 1D || (sampleRate > 0D && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    // 每秒最多记录maxPerSecond条（只有被选中的请求才会访问计数器）
+    private boolean tryAcquire() {
+        final long second = System.currentTimeMillis() / 1000L;
+        final long current = window.get();
+        if (second != current && window.compareAndSet(current, second)) {
+            windowCount.set(0L);
+        }
+        return windowCount.incrementAndGet() <= maxPerSecond;
+    }
+
+
+    private void drainLoop() {
+        while (!closed) {
+            if (0 == drain()) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(DRAIN_INTERVAL));
+            }
+        }
+        drain();
+    }
+
+    // 输出缓冲区中已写入的日志，返回输出的条数
+    private int drain() {
+        int count = 0;
+        while (true) {
+            final int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                return count;
+            }
+            final Object id = ids[index];
+            final Object remote = remotes[index];
+            final Object interfaceName = interfaceNames[index];
+            final Object methodName = methodNames[index];
+            final Object traceId = traceIds[index];
+            final long timestamp = timestamps[index];
+            final long latency = latencies[index];
+            final byte status = statuses[index];
+            // 释放引用后再交还槽位
+            ids[index] = null;
+            remotes[index] = null;
+            interfaceNames[index] = null;
+            methodNames[index] = null;
+            traceIds[index] = null;
+            sequences.lazySet(index, head + mask + 1);
+            head++;
+            count++;
+            try {
+                log.info("{} {} {} {}#{} trace={} status={} latency={}us at={}", side, id, orNone(remote), orNone(interfaceName),
+                        orNone(methodName), orNone(traceId), status, TimeUnit.NANOSECONDS.toMicros(latency), timestamp);
+            } catch (Throwable t) {
+                // 日志输出异常不影响后台线程
+            }
+        }
+    }
+
+    private static Object orNone(final Object value) {
+        return Objects.isNull(value) ? NONE : value;
+    }
+
+    private static int powerOfTwo(final int size) {
+        final int n = Math.max(2, Math.min(size, 1 << 20));
+        return Integer.highestOneBit(n - 1) << 1;
+    }
+}
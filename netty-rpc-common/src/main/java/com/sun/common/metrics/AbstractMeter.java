@@ -0,0 +1,38 @@
+package com.sun.common.metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @description: 指标的名称和标签
+ * @author: Sun Xiaodong
+ */
+abstract class AbstractMeter implements Meter {
+    private final String name;
+    private final Map<String, String> tags;
+
+    AbstractMeter(final String name, final String[] tags) {
+        this.name = name;
+        final Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < tags.length; i += 2) {
+            map.put(tags[i], tags[i + 1]);
+        }
+        this.tags = Collections.unmodifiableMap(map);
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public Map<String, String> tags() {
+        return tags;
+    }
+
+    @Override
+    public String toString() {
+        return name + tags;
+    }
+}
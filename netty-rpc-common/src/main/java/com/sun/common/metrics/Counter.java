@@ -0,0 +1,16 @@
+package com.sun.common.metrics;
+
+/**
+ * @description: 计数器（只增不减）
+ * @author: Sun Xiaodong
+ */
+public interface Counter extends Meter {
+
+    default void increment() {
+        add(1L);
+    }
+
+    void add(long amount);
+
+    long count();
+}
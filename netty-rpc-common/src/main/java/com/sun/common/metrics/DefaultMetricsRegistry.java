@@ -0,0 +1,145 @@
+package com.sun.common.metrics;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
+
+/**
+ * @description: 默认的指标注册表（无锁）：计数器基于LongAdder，分布统计基于按线程分段的对数-线性直方图（见StripedHistogram）
+ * @author: Sun Xiaodong
+ */
+public class DefaultMetricsRegistry implements MetricsRegistry {
+    private final ConcurrentMap<MeterKey, Meter> meters = new ConcurrentHashMap<>();
+    private final List<Consumer<Meter>> listeners = new CopyOnWriteArrayList<>();
+
+    public DefaultMetricsRegistry() {}
+
+
+    @Override
+    public Counter counter(final String name, final String... tags) {
+        return register(Counter.class, name, tags, key -> new DefaultCounter(name, tags));
+    }
+
+    @Override
+    public Histogram histogram(final String name, final String baseUnit, final String... tags) {
+        return register(Histogram.class, name, tags, key -> new StripedHistogram(name, baseUnit, tags));
+    }
+
+    @Override
+    public Gauge gauge(final String name, final DoubleSupplier supplier, final String... tags) {
+        Objects.requireNonNull(supplier);
+        return register(Gauge.class, name, tags, key -> new DefaultGauge(name, supplier, tags));
+    }
+
+    @Override
+    public Collection<Meter> meters() {
+        return Collections.unmodifiableCollection(meters.values());
+    }
+
+    @Override
+    public void addListener(final Consumer<Meter> listener) {
+        synchronized (listeners) {
+            listeners.add(listener);
+            meters.values().forEach(listener);
+        }
+    }
+
+
+    private <M extends Meter> M register(final Class<M> type, final String name, final String[] tags, final Function<MeterKey, Meter> factory) {
+        Objects.requireNonNull(name);
+        if (0 != (tags.length & 1)) {
+            throw new IllegalArgumentException("Tags must be key-value pairs: " + Arrays.toString(tags));
+        }
+        final MeterKey key = new MeterKey(name, tags);
+        Meter meter = meters.get(key);
+        if (Objects.isNull(meter)) {
+            synchronized (listeners) {
+                meter = meters.get(key);
+                if (Objects.isNull(meter)) {
+                    meter = factory.apply(key);
+                    meters.put(key, meter);
+                    for (Consumer<Meter> listener : listeners) {
+                        listener.accept(meter);
+                    }
+                }
+            }
+        }
+        if (!type.isInstance(meter)) {
+            throw new IllegalArgumentException("Meter " + meter + " is not a " + type.getSimpleName());
+        }
+        return type.cast(meter);
+    }
+
+
+    private static final class MeterKey {
+        private final String name;
+        private final String[] tags;
+        private final int hash;
+
+        MeterKey(final String name, final String[] tags) {
+            this.name = name;
+            this.tags = tags.clone();
+            this.hash = 31 * name.hashCode() + Arrays.hashCode(tags);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MeterKey)) {
+                return false;
+            }
+            final MeterKey other = (MeterKey) o;
+            return name.equals(other.name) && Arrays.equals(tags, other.tags);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+
+    private static final class DefaultCounter extends AbstractMeter implements Counter {
+        private final LongAdder adder = new LongAdder();
+
+        DefaultCounter(final String name, final String[] tags) {
+            super(name, tags);
+        }
+
+        @Override
+        public void add(final long amount) {
+            adder.add(amount);
+        }
+
+        @Override
+        public long count() {
+            return adder.sum();
+        }
+    }
+
+
+    private static final class DefaultGauge extends AbstractMeter implements Gauge {
+        private final DoubleSupplier supplier;
+
+        DefaultGauge(final String name, final DoubleSupplier supplier, final String[] tags) {
+            super(name, tags);
+            this.supplier = supplier;
+        }
+
+        @Override
+        public double value() {
+            return supplier.getAsDouble();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.sun.common.metrics;
+
+/**
+ * @description: 瞬时值（如：未完成的请求数、线程池队列长度），读取时才计算
+ * @author: Sun Xiaodong
+ */
+public interface Gauge extends Meter {
+
+    double value();
+}
@@ -0,0 +1,35 @@
+package com.sun.common.metrics;
+
+/**
+ * @description: 分布统计（如：请求耗时、帧大小），记录的值为非负的long，单位见baseUnit
+ * @author: Sun Xiaodong
+ */
+public interface Histogram extends Meter {
+    // 基本单位：纳秒（耗时）
+    String NANOSECONDS = "nanoseconds";
+    // 基本单位：字节（大小）
+    String BYTES = "bytes";
+
+    String baseUnit();
+
+    void record(long value);
+
+    Snapshot snapshot();
+
+
+    // 某一时刻的统计快照
+    interface Snapshot {
+        long count();
+
+        long sum();
+
+        long max();
+
+        // 分位数的值，percentile: [0, 100]
+        long valueAtPercentile(double percentile);
+
+        default double mean() {
+            return 0 == count() ? 0D : (double) sum() / count();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.sun.common.metrics;
+
+import java.util.Map;
+
+/**
+ * @description: 指标，由名称和标签（如：side、service、method）唯一确定
+ * @author: Sun Xiaodong
+ */
+public interface Meter {
+
+    String name();
+
+    // 标签，k: 标签名，v: 标签值（不可修改，按创建时的顺序）
+    Map<String, String> tags();
+}
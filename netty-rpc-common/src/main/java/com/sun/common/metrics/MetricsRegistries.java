@@ -0,0 +1,26 @@
+package com.sun.common.metrics;
+
+import java.util.Iterator;
+import java.util.ServiceLoader;
+
+/**
+ * @description: 指标注册表工具类
+ *               通过ServiceLoader加载MetricsRegistry的实现，没有时使用DefaultMetricsRegistry
+ * @author: Sun Xiaodong
+ */
+public final class MetricsRegistries {
+
+    /**
+     * 创建指标注册表
+     * @return  返回ServiceLoader加载到的第一个实现，没有时返回DefaultMetricsRegistry
+     */
+    public static MetricsRegistry create() {
+        final Iterator<MetricsRegistry> iterator = ServiceLoader.load(MetricsRegistry.class, MetricsRegistries.class.getClassLoader()).iterator();
+        return iterator.hasNext() ? iterator.next() : new DefaultMetricsRegistry();
+    }
+
+
+    private MetricsRegistries() {
+        throw new IllegalStateException("Instantiation not allowed");
+    }
+}
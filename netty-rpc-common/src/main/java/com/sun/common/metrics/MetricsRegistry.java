@@ -0,0 +1,45 @@
+package com.sun.common.metrics;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.function.DoubleSupplier;
+
+/**
+ * @description: 指标注册表（SPI），客户端、服务端的所有指标都通过它创建
+ *               同名同标签的指标只创建一次，重复获取时返回同一个对象；调用者应在启动时（或首次使用时）获取并持有指标，
+ *               请求处理中只调用指标的记录方法，不重复查找
+ *               实现类通过ServiceLoader加载（META-INF/services/com.sun.common.metrics.MetricsRegistry），
+ *               或在Spring容器中声明MetricsRegistry类型的bean；都没有时使用DefaultMetricsRegistry（见MetricsRegistries）
+ * @author: Sun Xiaodong
+ */
+public interface MetricsRegistry {
+
+    /**
+     * 获取或创建计数器
+     * @param name 指标名
+     * @param tags 标签，按 标签名, 标签值, 标签名, 标签值... 排列
+     */
+    Counter counter(String name, String... tags);
+
+    /**
+     * 获取或创建分布统计
+     * @param name 指标名
+     * @param baseUnit 基本单位，见Histogram::NANOSECONDS、Histogram::BYTES
+     * @param tags 标签，按 标签名, 标签值, 标签名, 标签值... 排列
+     */
+    Histogram histogram(String name, String baseUnit, String... tags);
+
+    /**
+     * 注册瞬时值（同名同标签已存在时，返回已注册的瞬时值）
+     * @param name 指标名
+     * @param supplier 读取时调用，需要线程安全
+     * @param tags 标签，按 标签名, 标签值, 标签名, 标签值... 排列
+     */
+    Gauge gauge(String name, DoubleSupplier supplier, String... tags);
+
+    // 已创建的所有指标
+    Collection<Meter> meters();
+
+    // 指标创建时通知listener（添加时先对已创建的指标各通知一次），用于导出到其它监控系统
+    void addListener(Consumer<Meter> listener);
+}
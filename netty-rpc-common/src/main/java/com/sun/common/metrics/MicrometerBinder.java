@@ -0,0 +1,80 @@
+package com.sun.common.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @description: 将MetricsRegistry中的指标绑定到Micrometer（Spring Boot actuator的/actuator/metrics、/actuator/prometheus等）
+ *               只注册读取函数，不复制数据：计数器 -> FunctionCounter；瞬时值 -> Gauge；
+ *               耗时 -> FunctionTimer 及 {name}.percentile{percentile}（单位：s）、{name}.max；
+ *               大小 -> {name}.count、{name}.sum 及 {name}.percentile{percentile}、{name}.max；
+ *               之后创建的指标（如首次调用的服务方法）在创建时绑定
+ * @author: Sun Xiaodong
+ */
+public final class MicrometerBinder implements MeterBinder {
+    private static final double[] PERCENTILES = {50D, 90D, 99D, 99.9D};
+    // percentile标签值（与PERCENTILES一一对应）
+    private static final String[] PERCENTILE_TAGS = {"0.5", "0.9", "0.99", "0.999"};
+
+    private final MetricsRegistry registry;
+
+    public MicrometerBinder(final MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+
+    @Override
+    public void bindTo(final MeterRegistry meterRegistry) {
+        registry.addListener(meter -> bind(meterRegistry, meter));
+    }
+
+
+    private static void bind(final MeterRegistry meterRegistry, final Meter meter) {
+        final Tags tags = tagsOf(meter.tags());
+        if (meter instanceof Counter) {
+            FunctionCounter.builder(meter.name(), (Counter) meter, Counter::count).tags(tags).register(meterRegistry);
+        } else if (meter instanceof Gauge) {
+            io.micrometer.core.instrument.Gauge.builder(meter.name(), (Gauge) meter, Gauge::value).tags(tags).register(meterRegistry);
+        } else if (meter instanceof Histogram) {
+            bindHistogram(meterRegistry, (Histogram) meter, tags);
+        }
+    }
+
+    private static void bindHistogram(final MeterRegistry meterRegistry, final Histogram histogram, final Tags tags) {
+        final String name = histogram.name();
+        final boolean isTime = Histogram.NANOSECONDS.equals(histogram.baseUnit());
+        // 耗时以秒为单位导出（Micrometer的约定）
+        final double scale = isTime ? 1D / TimeUnit.SECONDS.toNanos(1L) : 1D;
+        final String unit = isTime ? "seconds" : histogram.baseUnit();
+        if (isTime) {
+            FunctionTimer.builder(name, histogram, h -> h.snapshot().count(), h -> h.snapshot().sum(), TimeUnit.NANOSECONDS)
+                         .tags(tags).register(meterRegistry);
+        } else {
+            FunctionCounter.builder(name + ".count", histogram, h -> h.snapshot().count()).tags(tags).register(meterRegistry);
+            FunctionCounter.builder(name + ".sum", histogram, h -> h.snapshot().sum()).baseUnit(unit).tags(tags).register(meterRegistry);
+        }
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            final double percentile = PERCENTILES[i];
+            io.micrometer.core.instrument.Gauge.builder(name + ".percentile", histogram, h -> h.snapshot().valueAtPercentile(percentile) * scale)
+                                               .baseUnit(unit).tags(tags.and("percentile", PERCENTILE_TAGS[i]))
+                                               .register(meterRegistry);
+        }
+        io.micrometer.core.instrument.Gauge.builder(name + ".max", histogram, h -> h.snapshot().max() * scale)
+                                           .baseUnit(unit).tags(tags).register(meterRegistry);
+    }
+
+    private static Tags tagsOf(final Map<String, String> tags) {
+        final List<Tag> list = new ArrayList<>(tags.size());
+        tags.forEach((k, v) -> list.add(Tag.of(k, v)));
+        return Tags.of(list);
+    }
+}
@@ -0,0 +1,156 @@
+package com.sun.common.metrics;
+
+import com.sun.common.exchange.message.ResponseStatus;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * @description: 客户端或服务端的RPC指标（所有指标都带有side标签：client、server）
+ *               rpc.requests{service, method}: 完成的请求数；rpc.errors{service, method, status}: 按响应状态统计的失败请求数；
+ *               rpc.latency{service, method}: 请求耗时（客户端：发出请求到收到响应；服务端：解码完成到响应交给连接写出）；
+ *               rpc.in.flight: 未完成的请求数；rpc.bytes.in/rpc.bytes.out: 收发的字节数；rpc.frame.size{direction}: 帧大小；
+ *               rpc.flush.count/rpc.flush.messages: 写合并的flush次数、flush写出的帧数（见WriteCoalescer），rpc.flush.messages.per.flush: 平均每次flush写出的帧数
+ *               每个服务方法的指标在首次调用时创建并缓存（按接口名、方法名两级查找，不分配对象），之后只做计数
+ * @author: Sun Xiaodong
+ */
+public final class RpcMetrics {
+    public static final String REQUESTS = "rpc.requests";
+    public static final String ERRORS = "rpc.errors";
+    public static final String LATENCY = "rpc.latency";
+    public static final String IN_FLIGHT = "rpc.in.flight";
+    public static final String BYTES_IN = "rpc.bytes.in";
+    public static final String BYTES_OUT = "rpc.bytes.out";
+    public static final String FRAME_SIZE = "rpc.frame.size";
+    public static final String FLUSHES = "rpc.flush.count";
+    public static final String FLUSH_MESSAGES = "rpc.flush.messages";
+    public static final String MESSAGES_PER_FLUSH = "rpc.flush.messages.per.flush";
+    private static final String NONE = "-";
+
+    private final MetricsRegistry registry;
+    private final String side;
+    // k: 服务接口全限定名，v: (k: 方法名，v: 方法的指标)
+    private final ConcurrentMap<String, ConcurrentMap<String, MethodMetrics>> methods = new ConcurrentHashMap<>();
+    private final LongAdder inFlight = new LongAdder();
+    private final Counter bytesIn;
+    private final Counter bytesOut;
+    private final Histogram frameSizeIn;
+    private final Histogram frameSizeOut;
+    private final Counter flushes;
+    private final Counter flushMessages;
+
+    public RpcMetrics(final MetricsRegistry registry, final String side) {
+        this.registry = Objects.requireNonNull(registry);
+        this.side = side;
+        this.bytesIn = registry.counter(BYTES_IN, "side", side);
+        this.bytesOut = registry.counter(BYTES_OUT, "side", side);
+        this.frameSizeIn = registry.histogram(FRAME_SIZE, Histogram.BYTES, "side", side, "direction", "in");
+        this.frameSizeOut = registry.histogram(FRAME_SIZE, Histogram.BYTES, "side", side, "direction", "out");
+        this.flushes = registry.counter(FLUSHES, "side", side);
+        this.flushMessages = registry.counter(FLUSH_MESSAGES, "side", side);
+        registry.gauge(IN_FLIGHT, inFlight::sum, "side", side);
+        registry.gauge(MESSAGES_PER_FLUSH, this::messagesPerFlush, "side", side);
+    }
+
+
+    // 服务方法的指标（接口名、方法名未知时为"-"）
+    public MethodMetrics method(final String interfaceName, final String methodName) {
+        final String service = Objects.isNull(interfaceName) ? NONE : interfaceName;
+        final String method = Objects.isNull(methodName) ? NONE : methodName;
+        // 先get再computeIfAbsent：JDK 8的computeIfAbsent在键已存在时也会对桶加锁
+        ConcurrentMap<String, MethodMetrics> serviceMethods = methods.get(service);
+        if (Objects.isNull(serviceMethods)) {
+            serviceMethods = methods.computeIfAbsent(service, k -> new ConcurrentHashMap<>());
+        }
+        final MethodMetrics methodMetrics = serviceMethods.get(method);
+        return Objects.nonNull(methodMetrics) ? methodMetrics
+                : serviceMethods.computeIfAbsent(method, k -> new MethodMetrics(service, method));
+    }
+
+    // 请求开始、结束（未完成的请求数）
+    public void requestStarted() {
+        inFlight.increment();
+    }
+
+    public void requestCompleted() {
+        inFlight.decrement();
+    }
+
+    // 收到、发出一个帧
+    public void inbound(final int frameBytes) {
+        bytesIn.add(frameBytes);
+        frameSizeIn.record(frameBytes);
+    }
+
+    public void outbound(final int frameBytes) {
+        bytesOut.add(frameBytes);
+        frameSizeOut.record(frameBytes);
+    }
+
+    // 写合并处理器flush一次，写出messages个帧
+    public void flushed(final int messages) {
+        flushes.increment();
+        flushMessages.add(messages);
+    }
+
+    // flush次数
+    public long flushes() {
+        return flushes.count();
+    }
+
+    // 平均每次flush写出的帧数
+    public double messagesPerFlush() {
+        final long count = flushes.count();
+        return 0 == count ? 0D : (double) flushMessages.count() / count;
+    }
+
+    // 注册带有side标签的瞬时值
+    public Gauge gauge(final String name, final DoubleSupplier supplier) {
+        return registry.gauge(name, supplier, "side", side);
+    }
+
+    public MetricsRegistry registry() {
+        return registry;
+    }
+
+
+    public final class MethodMetrics {
+        private final String service;
+        private final String method;
+        private final Counter requests;
+        private final Histogram latency;
+        // 按响应状态索引的失败计数器，首次出现该状态时创建
+        private final AtomicReferenceArray<Counter> errors = new AtomicReferenceArray<>(256);
+
+        private MethodMetrics(final String service, final String method) {
+            this.service = service;
+            this.method = method;
+            this.requests = registry.counter(REQUESTS, "side", side, "service", service, "method", method);
+            this.latency = registry.histogram(LATENCY, Histogram.NANOSECONDS, "side", side, "service", service, "method", method);
+        }
+
+        /**
+         * 请求完成时调用
+         * @param status 响应状态（见ResponseStatus）
+         * @param latencyNanos 请求耗时，单位：ns
+         */
+        public void record(final byte status, final long latencyNanos) {
+            requests.increment();
+            latency.record(latencyNanos);
+            if (ResponseStatus.OK != status) {
+                final int index = status & 0xFF;
+                Counter counter = errors.get(index);
+                if (Objects.isNull(counter)) {
+                    counter = registry.counter(ERRORS, "side", side, "service", service, "method", method,
+                            "status", ResponseStatus.nameOf(status));
+                    errors.lazySet(index, counter);
+                }
+                counter.increment();
+            }
+        }
+    }
+}
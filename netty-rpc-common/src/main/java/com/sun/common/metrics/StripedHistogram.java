@@ -0,0 +1,132 @@
+package com.sun.common.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @description: 无锁的分布统计：对数-线性分桶（每个2的幂区间再等分为8个子区间，分位数的相对误差不超过12.5%），
+ *               按线程分散到多个分段（stripe）中计数，记录时只有一次无竞争的原子加，不加锁、不分配对象；读取时合并各分段
+ * @author: Sun Xiaodong
+ */
+final class StripedHistogram extends AbstractMeter implements Histogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // 0 ~ 7各占一个桶，其后每个2的幂区间占8个桶
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+    // 分段数（2的幂），不超过8
+    private static final int STRIPES = Math.min(8, Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) << 1);
+
+    private final String baseUnit;
+    // 每个分段：BUCKETS个桶的计数 + 1个总和
+    private final AtomicLongArray[] stripes;
+    private final AtomicLong max = new AtomicLong();
+
+    StripedHistogram(final String name, final String baseUnit, final String[] tags) {
+        super(name, tags);
+        this.baseUnit = baseUnit;
+        this.stripes = new AtomicLongArray[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            this.stripes[i] = new AtomicLongArray(BUCKETS + 1);
+        }
+    }
+
+
+    @Override
+    public String baseUnit() {
+        return baseUnit;
+    }
+
+    @Override
+    public void record(final long value) {
+        final long v = Math.max(0L, value);
+        final AtomicLongArray stripe = stripes[(int) Thread.currentThread().getId() & (STRIPES - 1)];
+        stripe.incrementAndGet(bucket(v));
+        stripe.addAndGet(BUCKETS, v);
+        // 最大值只在变大时更新，稳定后不再写
+        long current;
+        while (v > (current = max.get()) && !max.compareAndSet(current, v)) {
+            // retry
+        }
+    }
+
+    @Override
+    public Snapshot snapshot() {
+        final long[] counts = new long[BUCKETS];
+        long count = 0L, sum = 0L;
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKETS; i++) {
+                final long c = stripe.get(i);
+                counts[i] += c;
+                count += c;
+            }
+            sum += stripe.get(BUCKETS);
+        }
+        return new HistogramSnapshot(counts, count, sum, max.get());
+    }
+
+
+    static int bucket(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        final int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    // 桶中的最大值
+    static long upperBound(final int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        final int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        final long lower = (long) (SUB_BUCKETS | (bucket & (SUB_BUCKETS - 1))) << (exponent - SUB_BUCKET_BITS);
+        return lower + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+
+    private static final class HistogramSnapshot implements Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        HistogramSnapshot(final long[] counts, final long count, final long sum, final long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        @Override
+        public long count() {
+            return count;
+        }
+
+        @Override
+        public long sum() {
+            return sum;
+        }
+
+        @Override
+        public long max() {
+            return max;
+        }
+
+        @Override
+        public long valueAtPercentile(final double percentile) {
+            if (0 == count) {
+                return 0L;
+            }
+            final long rank = Math.max(1L, (long) Math.ceil(Math.min(100D, Math.max(0D, percentile)) / 100D * count));
+            long cumulative = 0L;
+            for (int i = 0; i < counts.length; i++) {
+                cumulative += counts[i];
+                if (cumulative >= rank) {
+                    return Math.min(upperBound(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
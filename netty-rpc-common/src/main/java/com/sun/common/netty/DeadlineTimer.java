@@ -0,0 +1,59 @@
+package com.sun.common.netty;
+
+import com.sun.common.util.Constants;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * @description: 请求超时服务，客户端、服务端共用
+ *               所有未完成请求的超时由一个时间轮线程统一处理，不需要为每个请求阻塞一个线程等待超时；
+ *               超时时以onTimeout提供的结果完成future，future先完成时取消超时任务；
+ *               future在调用方指定的executor中完成（future的后续回调也在其中执行），时间轮线程只负责触发，不被回调阻塞
+ * @author: Sun Xiaodong
+ */
+public final class DeadlineTimer {
+    private static final Timer TIMER = new HashedWheelTimer(new DefaultThreadFactory("rpc_deadline_timer", true),
+            Constants.DEADLINE_TICK_DURATION, TimeUnit.MILLISECONDS, Constants.DEADLINE_TICKS_PER_WHEEL);
+
+    private DeadlineTimer() {}
+
+
+    /**
+     * future在timeoutMillis内未完成时，以onTimeout的结果完成future
+     * @param future 等待完成的future
+     * @param timeoutMillis 超时时间（单位ms），不大于0时表示没有超时限制
+     * @param onTimeout 超时结果
+     * @param executor 超时时完成future的线程（如：客户端的响应回调线程池、服务端连接的event loop）
+     */
+    public static <T> void expireAfter(final CompletableFuture<T> future, final long timeoutMillis, final Supplier<T> onTimeout,
+                                       final Executor executor) {
+        if (timeoutMillis <= 0 || future.isDone()) {
+            return;
+        }
+        final Timeout timeout = TIMER.newTimeout(t -> {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                executor.execute(() -> {
+                    if (!future.isDone()) {
+                        future.complete(onTimeout.get());
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // executor已关闭（如：应用停止中），在时间轮线程中完成，避免future永远不完成
+                future.complete(onTimeout.get());
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+        // 先完成时，取消超时任务，使其尽早从时间轮中移除
+        future.whenComplete((result, throwable) -> timeout.cancel());
+    }
+}
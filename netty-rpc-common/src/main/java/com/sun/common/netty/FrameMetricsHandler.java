@@ -0,0 +1,39 @@
+package com.sun.common.netty;
+
+import com.sun.common.metrics.RpcMetrics;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+
+/**
+ * @description: 帧大小、收发字节数的统计（所有连接共用一个实例）
+ *               位于帧解码器之后、编码器之前：入站时读到的是完整的帧，出站时写出的是编码后的帧
+ * @author: Sun Xiaodong
+ */
+@ChannelHandler.Sharable
+public final class FrameMetricsHandler extends ChannelDuplexHandler {
+    private final RpcMetrics metrics;
+
+    public FrameMetricsHandler(final RpcMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (msg instanceof ByteBuf) {
+            metrics.inbound(((ByteBuf) msg).readableBytes());
+        }
+        ctx.fireChannelRead(msg);
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof ByteBuf) {
+            metrics.outbound(((ByteBuf) msg).readableBytes());
+        }
+        ctx.write(msg, promise);
+    }
+}
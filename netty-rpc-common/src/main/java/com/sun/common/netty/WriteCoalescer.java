@@ -0,0 +1,98 @@
+package com.sun.common.netty;
+
+import com.sun.common.metrics.RpcMetrics;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+
+/**
+ * @description: 写合并处理器（每个连接一个实例，位于编码器之前，即靠近pipeline头部，写入的是编码后的RPC帧）
+ *               writeAndFlush时只写入、不立即flush，在event loop本轮任务执行完时统一flush一次，
+ *               使同一轮中写出的多个请求/响应合并为一次系统调用；
+ *               未flush的帧数达到maxMessages、或字节数达到maxBytes时立即flush，连接不可写、关闭前也立即flush；
+ *               与Netty的FlushConsolidationHandler类似，区别在于按RPC帧计数、计字节，并统计每次flush写出的帧数（记录到所在一侧的RpcMetrics）
+ * @author: Sun Xiaodong
+ */
+public final class WriteCoalescer extends ChannelDuplexHandler {
+    private final int maxMessages;
+    private final long maxBytes;
+    // 客户端或服务端的RPC指标（同一侧的所有连接共用）
+    private final RpcMetrics metrics;
+    // 以下字段只在连接的event loop中访问
+    private ChannelHandlerContext ctx;
+    private int pendingMessages;
+    private long pendingBytes;
+    private boolean flushScheduled;
+    private final Runnable flushTask = () -> {
+        flushScheduled = false;
+        flushNow();
+    };
+
+    public WriteCoalescer(final int maxMessages, final long maxBytes, final RpcMetrics metrics) {
+        this.maxMessages = Math.max(1, maxMessages);
+        this.maxBytes = Math.max(1L, maxBytes);
+        this.metrics = metrics;
+    }
+
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) {
+        this.ctx = ctx;
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+        pendingMessages++;
+        if (msg instanceof ByteBuf) {
+            pendingBytes += ((ByteBuf) msg).readableBytes();
+        }
+        ctx.write(msg, promise);
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) {
+        if (pendingMessages >= maxMessages || pendingBytes >= maxBytes) {
+            flushNow();
+        } else if (!flushScheduled) {
+            // 在本轮已提交的任务（其它线程提交的写请求）之后执行，合并为一次flush
+            flushScheduled = true;
+            ctx.executor().execute(flushTask);
+        }
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        if (!ctx.channel().isWritable()) {
+            flushNow();
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
+    @Override
+    public void disconnect(ChannelHandlerContext ctx, ChannelPromise promise) {
+        flushNow();
+        ctx.disconnect(promise);
+    }
+
+    @Override
+    public void close(ChannelHandlerContext ctx, ChannelPromise promise) {
+        flushNow();
+        ctx.close(promise);
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) {
+        flushNow();
+    }
+
+
+    private void flushNow() {
+        if (pendingMessages > 0) {
+            metrics.flushed(pendingMessages);
+            pendingMessages = 0;
+            pendingBytes = 0;
+        }
+        ctx.flush();
+    }
+}
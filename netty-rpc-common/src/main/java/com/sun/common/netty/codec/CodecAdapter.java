@@ -7,8 +7,8 @@ import com.sun.common.exchange.codec.Codec;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.ByteToMessageDecoder;
 import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.handler.codec.MessageToMessageDecoder;
 
 /**
  * @description: RPC编码解码适配器
@@ -39,24 +39,26 @@ public class CodecAdapter {
      * RPC消息编码器
      */
     class RpcEncoder extends MessageToByteEncoder<Object> {
+        // 协议头、协议体直接写入池化的out，CRC32在out中回填，不产生中间数组
         @Override
         protected void encode(ChannelHandlerContext ctx, Object msg, ByteBuf out) throws Exception {
-            final byte[] encode = codec.encode(msg);
-            out.writeBytes(encode);
+            codec.encode(msg, out);
         }
     }
 
     /**
      * RPC消息解码器
      */
-    class RpcDecoder extends ByteToMessageDecoder {
-        // 因为自定义了处理粘包、半包解码器LengthFieldBasedFrameDecoder，所以此处in可保证是完整的消息
+    class RpcDecoder extends MessageToMessageDecoder<ByteBuf> {
+        // 因为自定义了处理粘包、半包解码器LengthFieldBasedFrameDecoder，所以此处in可保证是完整的消息，无需再累积字节
+        // 直接从in解码，不复制到中间数组；解码完成后in由MessageToMessageDecoder释放
         @Override
         protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
-            final byte[] data = new byte[in.capacity()];
-            in.readBytes(data, 0, in.capacity());
-            Object msg = codec.decode(data);
-            out.add(msg);
+            Object msg = codec.decode(in);
+            in.skipBytes(in.readableBytes());
+            if (null != msg) {
+                out.add(msg);
+            }
         }
     }
 }
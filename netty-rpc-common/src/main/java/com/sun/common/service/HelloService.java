@@ -1,8 +1,13 @@
 package com.sun.common.service;
 
+import com.sun.common.annotation.Compress;
+import com.sun.common.annotation.NonBlocking;
 import com.sun.common.annotation.RpcServiceInterface;
+import com.sun.common.annotation.SerializeWith;
+import com.sun.common.enumerator.Serialization;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @description: 测试接口
@@ -11,6 +16,14 @@ import java.util.List;
 
 @RpcServiceInterface
 public interface HelloService {
+    // 参数、返回值只有String，使用手写的二进制序列化
+    @NonBlocking
+    @SerializeWith(Serialization.BINARY)
     String sayHello(String name);
+    // 响应体较大时压缩（不小于压缩阈值时）
+    @Compress
     List<Integer> random();
+    // 异步方法：客户端不阻塞调用线程，服务端在返回的future完成时响应
+    @NonBlocking
+    CompletableFuture<String> sayHelloAsync(String name);
 }
@@ -30,7 +30,7 @@ public final class Assertions {
 
     // validate range in: [min, max]
     public static void rangeIn(final int current, int min, int max) {
-        if (Math.max(0, current) != Math.min(current, max)) {
+        if (current < min || current > max) {
             throw new IllegalArgumentException(String.format("The given number %d can't be greater than %d or less than %d", current, max, min));
         }
     }
@@ -16,6 +16,10 @@
  */
 package com.sun.common.util;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.util.zip.Checksum;
 
@@ -29,6 +33,20 @@ import java.util.zip.Checksum;
  * NOTE: This class is intended for INTERNAL usage only within Kafka.
  */
 public final class Checksums {
+    private static final MethodHandle BYTE_BUFFER_UPDATE;
+
+    static {
+        MethodHandle byteBufferUpdate = null;
+        if (Java.IS_JAVA9_COMPATIBLE) {
+            try {
+                byteBufferUpdate = MethodHandles.publicLookup().findVirtual(Checksum.class, "update",
+                    MethodType.methodType(void.class, ByteBuffer.class));
+            } catch (Throwable t) {
+                handleUpdateThrowable(t);
+            }
+        }
+        BYTE_BUFFER_UPDATE = byteBufferUpdate;
+    }
 
     private Checksums() {
     }
@@ -40,6 +58,22 @@ public final class Checksums {
     public static void update(Checksum checksum, ByteBuffer buffer, int offset, int length) {
         if (buffer.hasArray()) {
             checksum.update(buffer.array(), buffer.position() + buffer.arrayOffset() + offset, length);
+        } else if (BYTE_BUFFER_UPDATE != null && buffer.isDirect()) {
+            final int oldPosition = buffer.position();
+            final int oldLimit = buffer.limit();
+            try {
+                // save a slice to be used to save an allocation in the hot-path
+                final int start = oldPosition + offset;
+                ((Buffer) buffer).limit(start + length);
+                ((Buffer) buffer).position(start);
+                BYTE_BUFFER_UPDATE.invokeExact(checksum, buffer);
+            } catch (Throwable e) {
+                throw new IllegalStateException("Error executing update method", e);
+            } finally {
+                // reset buffer's offsets
+                ((Buffer) buffer).limit(oldLimit);
+                ((Buffer) buffer).position(oldPosition);
+            }
         } else {
             int start = buffer.position() + offset;
             for (int i = start; i < start + length; i++)
@@ -64,4 +98,14 @@ public final class Checksums {
         checksum.update((byte) (input >> 8));
         checksum.update((byte) input /* >> 0 */);
     }
-}
\ No newline at end of file
+
+    private static void handleUpdateThrowable(Throwable t) {
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        throw new IllegalStateException(t);
+    }
+}
@@ -48,5 +48,27 @@ public interface Constants {
     int EVENTLOOP_SHUTDOWN_TIMEOUT = 3000;
     // Netty client连接超时时间
     int CONNECTION_TIMEOUT = 3000;
+    // Netty client每个服务端的默认连接数
+    int DEFAULT_CONNECTION_POOL_SIZE = Math.min(Runtime.getRuntime().availableProcessors(), 4);
+    // 写合并：未flush的帧数达到该值时立即flush
+    int DEFAULT_FLUSH_MAX_MESSAGES = 128;
+    // 写合并：未flush的字节数达到该值时立即flush
+    int DEFAULT_FLUSH_MAX_BYTES = 64 * 1024;
+    // 服务端业务线程数
+    int DEFAULT_DISPATCH_THREADS = 16;
+    // 服务端业务线程池的等待队列长度
+    int DEFAULT_DISPATCH_QUEUE_CAPACITY = 1024;
+    // 访问日志：采样率（未设置慢请求阈值时）
+    double DEFAULT_ACCESS_LOG_SAMPLE_RATE = 0.01D;
+    // 访问日志：每秒最多记录的条数
+    int DEFAULT_ACCESS_LOG_MAX_PER_SECOND = 100;
+    // 访问日志：环形缓冲区大小
+    int DEFAULT_ACCESS_LOG_BUFFER_SIZE = 1024;
+    // 请求超时时间轮的刻度，单位：ms（超时精度）
+    long DEADLINE_TICK_DURATION = 10L;
+    // 请求超时时间轮的槽数
+    int DEADLINE_TICKS_PER_WHEEL = 512;
+    // 压缩：序列化后的协议体不小于该值时才压缩，单位：byte
+    int DEFAULT_COMPRESSION_THRESHOLD = 4096;
 
 }
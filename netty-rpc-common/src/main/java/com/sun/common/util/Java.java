@@ -40,6 +40,7 @@ public final class Java {
     // Having these as static final provides the best opportunity for compilar optimization
     public static final boolean IS_JAVA9_COMPATIBLE = VERSION.isJava9Compatible();
     public static final boolean IS_JAVA11_COMPATIBLE = VERSION.isJava11Compatible();
+    public static final boolean IS_JAVA21_COMPATIBLE = VERSION.isJava21Compatible();
 
     public static boolean isIbmJdk() {
         return System.getProperty("java.vendor").contains("IBM");
@@ -70,5 +71,9 @@ public final class Java {
             return majorVersion >= 11;
         }
 
+        boolean isJava21Compatible() {
+            return majorVersion >= 21;
+        }
+
     }
 }
\ No newline at end of file
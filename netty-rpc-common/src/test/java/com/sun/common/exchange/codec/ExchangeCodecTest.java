@@ -0,0 +1,187 @@
+package com.sun.common.exchange.codec;
+
+import com.sun.common.context.RpcContext;
+import com.sun.common.enumerator.Compression;
+import com.sun.common.enumerator.Serialization;
+import com.sun.common.exchange.message.Request;
+import com.sun.common.exchange.message.RequestBody;
+import com.sun.common.exchange.message.RequestHeader;
+import com.sun.common.exchange.message.Response;
+import com.sun.common.exchange.message.ResponseBody;
+import com.sun.common.exchange.message.ResponseHeader;
+import com.sun.common.exchange.message.ResponseStatus;
+import com.sun.common.id.serialization.impl.SerializationAllowlist;
+import com.sun.common.service.HelloService;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @description: ExchangeCodec编码、解码的往返测试：每种序列化方式 × 每种压缩类型（含不压缩） × 堆内存、直接内存，
+ *               以及请求头、响应头的附件和错误响应
+ *               压缩阈值为0，协议体可压缩（重复内容），压缩类型不为null时一定压缩
+ * @author: Sun Xiaodong
+ */
+class ExchangeCodecTest {
+    private static final int MAX_FRAME_LENGTH = 1 << 20;
+
+    private final ExchangeCodec codec = new ExchangeCodec(0, MAX_FRAME_LENGTH);
+
+
+    @BeforeAll
+    static void allowServiceTypes() {
+        SerializationAllowlist.allowServiceTypes(HelloService.class);
+    }
+
+    static Stream<Arguments> combinations() {
+        final List<Arguments> arguments = new ArrayList<>();
+        for (Serialization serialization : Serialization.values()) {
+            for (Compression compression : compressions()) {
+                for (boolean direct : new boolean[]{false, true}) {
+                    arguments.add(Arguments.of(serialization, compression, direct));
+                }
+            }
+        }
+        return arguments.stream();
+    }
+
+    // 所有压缩类型，以及null（不压缩）
+    private static List<Compression> compressions() {
+        final List<Compression> compressions = new ArrayList<>(Arrays.asList(Compression.values()));
+        compressions.add(null);
+        return compressions;
+    }
+
+
+    @ParameterizedTest(name = "{0} {1} direct={2}")
+    @MethodSource("combinations")
+    void requestRoundTrip(final Serialization serialization, final Compression compression, final boolean direct) {
+        final RequestHeader header = RequestHeader.getDefault(3000);
+        header.setSerialization(serialization).setCompression(compression).setAttachments(traceAttachments());
+        final String name = repeat("netty-rpc ", 500);
+        final Request request = new Request(header, new RequestBody()
+                .setInterfaceName(HelloService.class.getName())
+                .setMethodName("sayHello")
+                .setReturnType(String.class)
+                .setParameterTypes(new Class<?>[]{String.class})
+                .setParameters(new Object[]{name}));
+
+        final Request decoded = (Request) roundTrip(request, direct);
+        final RequestHeader decodedHeader = (RequestHeader) decoded.getHeader();
+        assertEquals(header.getId(), decodedHeader.getId());
+        assertEquals(serialization, decodedHeader.getSerialization());
+        assertEquals(compression, decodedHeader.getCompression());
+        assertEquals(3000, decodedHeader.getTimeoutMillis());
+        assertTrue(decodedHeader.getResponseRequired());
+        assertEquals(traceAttachments(), decodedHeader.getAttachments());
+        final RequestBody body = decoded.getBody();
+        assertEquals(HelloService.class.getName(), body.getInterfaceName());
+        assertEquals("sayHello", body.getMethodName());
+        assertEquals(String.class, body.getReturnType());
+        assertArrayEquals(new Class<?>[]{String.class}, body.getParameterTypes());
+        assertArrayEquals(new Object[]{name}, body.getParameters());
+    }
+
+    @ParameterizedTest(name = "{0} {1} direct={2}")
+    @MethodSource("combinations")
+    void responseRoundTrip(final Serialization serialization, final Compression compression, final boolean direct) {
+        final List<Integer> result = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            result.add(i % 10);
+        }
+        final Response response = newResponse(serialization, compression, ResponseStatus.OK, new ResponseBody(result));
+        response.getHeader().setAttachments(traceAttachments());
+
+        final Response decoded = (Response) roundTrip(response, direct);
+        final ResponseHeader decodedHeader = (ResponseHeader) decoded.getHeader();
+        assertEquals(response.getHeader().getId(), decodedHeader.getId());
+        assertEquals(serialization, decodedHeader.getSerialization());
+        assertEquals(compression, decodedHeader.getCompression());
+        assertEquals(ResponseStatus.OK, decodedHeader.getStatus());
+        assertEquals(traceAttachments(), decodedHeader.getAttachments());
+        assertEquals(result, decoded.getBody().getResult());
+        assertNull(decoded.getBody().getErrorMsg());
+    }
+
+    @ParameterizedTest
+    @EnumSource(Serialization.class)
+    void errorResponseRoundTrip(final Serialization serialization) {
+        for (boolean direct : new boolean[]{false, true}) {
+            final Response response = newResponse(serialization, null, ResponseStatus.SERVICE_ERROR,
+                    new ResponseBody(new IllegalStateException("boom"), "service failed"));
+
+            final Response decoded = (Response) roundTrip(response, direct);
+            assertEquals(response.getHeader().getId(), decoded.getHeader().getId());
+            assertEquals(ResponseStatus.SERVICE_ERROR, ((ResponseHeader) decoded.getHeader()).getStatus());
+            assertEquals("service failed", decoded.getBody().getErrorMsg());
+            final IllegalStateException cause = assertInstanceOf(IllegalStateException.class, decoded.getBody().getResult());
+            assertEquals("boom", cause.getMessage());
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Serialization.class)
+    void errorResponseWithoutResult(final Serialization serialization) {
+        final Response response = newResponse(serialization, null, ResponseStatus.SERVICE_NOT_FOUND,
+                new ResponseBody(null, "service not found"));
+
+        final Response decoded = (Response) codec.decode(codec.encode(response));
+        assertEquals(ResponseStatus.SERVICE_NOT_FOUND, ((ResponseHeader) decoded.getHeader()).getStatus());
+        assertNull(decoded.getBody().getResult());
+        assertEquals("service not found", decoded.getBody().getErrorMsg());
+    }
+
+
+    // 编码到堆内存或直接内存，再从同一个ByteBuf解码
+    private Object roundTrip(final Object msg, final boolean direct) {
+        final ByteBuf buf = direct ? Unpooled.directBuffer() : Unpooled.buffer();
+        try {
+            codec.encode(msg, buf);
+            return codec.decode(buf);
+        } finally {
+            buf.release();
+        }
+    }
+
+    private static Response newResponse(final Serialization serialization, final Compression compression, final byte status,
+                                        final ResponseBody body) {
+        final ResponseHeader header = (ResponseHeader) ResponseHeader.getDefault()
+                                                                     .setId(RequestHeader.getDefault().getId())
+                                                                     .setSerialization(serialization)
+                                                                     .setCompression(compression);
+        header.setStatus(status);
+        return new Response(header, body);
+    }
+
+    private static Map<String, String> traceAttachments() {
+        final Map<String, String> attachments = new HashMap<>();
+        attachments.put(RpcContext.TRACE_ID, "4bf92f3577b34da6a3ce929d0e0e4736");
+        attachments.put(RpcContext.SPAN_ID, "00f067aa0ba902b7");
+        return attachments;
+    }
+
+    private static String repeat(final String s, final int count) {
+        final StringBuilder sb = new StringBuilder(s.length() * count);
+        for (int i = 0; i < count; i++) {
+            sb.append(s);
+        }
+        return sb.toString();
+    }
+}
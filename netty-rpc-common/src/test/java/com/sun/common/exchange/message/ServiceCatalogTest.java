@@ -0,0 +1,101 @@
+package com.sun.common.exchange.message;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @description: ServiceCatalog的方法签名、方法ID查找（含重载方法、空槽位），以及请求体的紧凑格式转换
+ * @author: Sun Xiaodong
+ */
+class ServiceCatalogTest {
+
+    interface Greeter {
+        String greet(String name);
+        String greet(String name, int times);
+        List<Integer> numbers();
+    }
+
+
+    @Test
+    void signature() throws NoSuchMethodException {
+        assertEquals(Greeter.class.getName() + "#greet(java.lang.String)",
+                ServiceCatalog.signature(Greeter.class.getMethod("greet", String.class)));
+        assertEquals(Greeter.class.getName() + "#greet(java.lang.String,int)",
+                ServiceCatalog.signature(Greeter.class.getMethod("greet", String.class, int.class)));
+        assertEquals(Greeter.class.getName() + "#numbers()",
+                ServiceCatalog.signature(Greeter.class.getMethod("numbers")));
+    }
+
+    @Test
+    void idOfUsesArrayIndex() throws NoSuchMethodException {
+        // 下标0为空槽位（如：服务端已移除的方法），重载方法的ID不相邻
+        final ServiceCatalog catalog = ServiceCatalog.of(new String[]{
+                null,
+                ServiceCatalog.signature(Greeter.class.getMethod("greet", String.class, int.class)),
+                ServiceCatalog.signature(Greeter.class.getMethod("numbers")),
+                ServiceCatalog.signature(Greeter.class.getMethod("greet", String.class))});
+
+        assertEquals(3, catalog.size());
+        assertEquals(3, catalog.idOf(Greeter.class.getName(), "greet", new Class<?>[]{String.class}));
+        assertEquals(1, catalog.idOf(Greeter.class.getName(), "greet", new Class<?>[]{String.class, int.class}));
+        assertEquals(2, catalog.idOf(Greeter.class.getName(), "numbers", new Class<?>[0]));
+        assertEquals(2, catalog.idOf(Greeter.class.getName(), "numbers", null));
+    }
+
+    @Test
+    void idOfUnknownMethod() throws NoSuchMethodException {
+        final ServiceCatalog catalog = ServiceCatalog.of(new String[]{
+                ServiceCatalog.signature(Greeter.class.getMethod("greet", String.class))});
+
+        assertEquals(ServiceCatalog.NOT_FOUND, catalog.idOf("com.example.Unknown", "greet", new Class<?>[]{String.class}));
+        assertEquals(ServiceCatalog.NOT_FOUND, catalog.idOf(Greeter.class.getName(), "unknown", new Class<?>[]{String.class}));
+        assertEquals(ServiceCatalog.NOT_FOUND, catalog.idOf(Greeter.class.getName(), "greet", new Class<?>[]{Object.class}));
+        assertEquals(ServiceCatalog.NOT_FOUND, catalog.idOf(Greeter.class.getName(), "greet", new Class<?>[]{String.class, int.class}));
+    }
+
+    @Test
+    void illegalSignature() {
+        assertThrows(IllegalArgumentException.class, () -> ServiceCatalog.of(new String[]{"greet(java.lang.String)"}));
+        assertThrows(IllegalArgumentException.class, () -> ServiceCatalog.of(new String[]{"com.example.Greeter#greet"}));
+        assertThrows(NullPointerException.class, () -> ServiceCatalog.of(null));
+    }
+
+    @Test
+    void compact() throws NoSuchMethodException {
+        final ServiceCatalog catalog = ServiceCatalog.of(new String[]{
+                ServiceCatalog.signature(Greeter.class.getMethod("greet", String.class))});
+
+        final RequestBody known = new RequestBody()
+                .setInterfaceName(Greeter.class.getName())
+                .setMethodName("greet")
+                .setReturnType(String.class)
+                .setParameterTypes(new Class<?>[]{String.class})
+                .setParameters(new Object[]{"netty-rpc"});
+        assertTrue(catalog.compact(known));
+        assertEquals(0, known.getMethodId());
+        assertNull(known.getInterfaceName());
+        assertNull(known.getMethodName());
+        assertNull(known.getReturnType());
+        assertNull(known.getParameterTypes());
+        assertEquals("netty-rpc", known.getParameters()[0]);
+        // 已经是紧凑格式
+        assertTrue(catalog.compact(known));
+
+        final RequestBody unknown = new RequestBody()
+                .setInterfaceName(Greeter.class.getName())
+                .setMethodName("numbers")
+                .setReturnType(List.class)
+                .setParameterTypes(new Class<?>[0])
+                .setParameters(new Object[0]);
+        assertFalse(catalog.compact(unknown));
+        assertNull(unknown.getMethodId());
+        assertEquals("numbers", unknown.getMethodName());
+    }
+}
@@ -0,0 +1,141 @@
+package com.sun.registry;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * @description: 服务提供者信息
+ *               服务端启动时注册到注册中心：地址、端口、权重、预热时间、启动时间、暴露的服务接口；
+ *               以Properties文本格式保存（见encode、decode方法），不依赖其它序列化组件。
+ * @author: Sun Xiaodong
+ */
+public final class ProviderInfo {
+    public static final int DEFAULT_WEIGHT = 100;
+
+    private static final String ADDRESS = "address";
+    private static final String PORT = "port";
+    private static final String WEIGHT = "weight";
+    private static final String WARMUP = "warmup";
+    private static final String TIMESTAMP = "timestamp";
+    private static final String INTERFACES = "interfaces";
+
+    private final String address;
+    private final int port;
+    private final int weight;
+    // 预热时间，单位：ms（预热期间，客户端按启动时长线性提升该节点的权重）
+    private final long warmupMillis;
+    // 启动时间戳，单位：ms
+    private final long timestamp;
+    // 暴露的服务接口全限定名
+    private final Set<String> interfaces;
+
+    public ProviderInfo(final String address, final int port, final int weight, final long warmupMillis,
+                        final long timestamp, final Set<String> interfaces) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Provider weight must be greater than 0");
+        }
+        this.address = Objects.requireNonNull(address);
+        this.port = port;
+        this.weight = weight;
+        this.warmupMillis = Math.max(0L, warmupMillis);
+        this.timestamp = timestamp;
+        this.interfaces = Collections.unmodifiableSet(new LinkedHashSet<>(Objects.requireNonNull(interfaces)));
+    }
+
+
+    // 服务提供者ID：address:port
+    public String id() {
+        return address + ':' + port;
+    }
+
+    public String address() {
+        return address;
+    }
+
+    public int port() {
+        return port;
+    }
+
+    public int weight() {
+        return weight;
+    }
+
+    public long warmupMillis() {
+        return warmupMillis;
+    }
+
+    public long timestamp() {
+        return timestamp;
+    }
+
+    public Set<String> interfaces() {
+        return interfaces;
+    }
+
+
+    public String encode() {
+        final Properties properties = new Properties();
+        properties.setProperty(ADDRESS, address);
+        properties.setProperty(PORT, String.valueOf(port));
+        properties.setProperty(WEIGHT, String.valueOf(weight));
+        properties.setProperty(WARMUP, String.valueOf(warmupMillis));
+        properties.setProperty(TIMESTAMP, String.valueOf(timestamp));
+        properties.setProperty(INTERFACES, String.join(",", interfaces));
+        final StringWriter writer = new StringWriter();
+        try {
+            properties.store(writer, null);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return writer.toString();
+    }
+
+
+    public static ProviderInfo decode(final String text) {
+        final Properties properties = new Properties();
+        try {
+            properties.load(new StringReader(Objects.requireNonNull(text)));
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+        final String interfaces = properties.getProperty(INTERFACES, "");
+        return new ProviderInfo(
+                Objects.requireNonNull(properties.getProperty(ADDRESS), "Missing provider address"),
+                Integer.parseInt(properties.getProperty(PORT)),
+                Integer.parseInt(properties.getProperty(WEIGHT, String.valueOf(DEFAULT_WEIGHT))),
+                Long.parseLong(properties.getProperty(WARMUP, "0")),
+                Long.parseLong(properties.getProperty(TIMESTAMP, "0")),
+                interfaces.isEmpty() ? Collections.emptySet() : new LinkedHashSet<>(Arrays.asList(interfaces.split(","))));
+    }
+
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ProviderInfo)) {
+            return false;
+        }
+        final ProviderInfo that = (ProviderInfo) o;
+        return port == that.port && weight == that.weight && warmupMillis == that.warmupMillis
+                && timestamp == that.timestamp && address.equals(that.address) && interfaces.equals(that.interfaces);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(address, port, weight, warmupMillis, timestamp, interfaces);
+    }
+
+    @Override
+    public String toString() {
+        return "ProviderInfo{id=" + id() + ", weight=" + weight + ", warmupMillis=" + warmupMillis + ", interfaces=" + interfaces + '}';
+    }
+}
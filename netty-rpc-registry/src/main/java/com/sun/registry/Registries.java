@@ -0,0 +1,37 @@
+package com.sun.registry;
+
+import java.net.URI;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.ServiceLoader;
+
+/**
+ * @description: 注册中心工具类
+ *               根据注册中心地址的scheme，通过ServiceLoader加载RegistryFactory并创建注册中心，如：
+ *               zookeeper://127.0.0.1:2181,127.0.0.2:2181/netty-rpc
+ *               file:///tmp/netty-rpc-registry
+ * @author: Sun Xiaodong
+ */
+public final class Registries {
+
+    /**
+     * 创建注册中心
+     * @param address  注册中心地址
+     * @return  返回注册中心
+     */
+    public static Registry create(final String address) {
+        final URI uri = URI.create(Objects.requireNonNull(address).trim());
+        final String scheme = Objects.requireNonNull(uri.getScheme(), "Registry address must have a scheme").toLowerCase(Locale.ENGLISH);
+        for (RegistryFactory factory : ServiceLoader.load(RegistryFactory.class, Registries.class.getClassLoader())) {
+            if (factory.scheme().equalsIgnoreCase(scheme)) {
+                return factory.create(uri);
+            }
+        }
+        throw new IllegalArgumentException("Unsupported registry: " + address);
+    }
+
+
+    private Registries() {
+        throw new IllegalStateException("Instantiation not allowed");
+    }
+}
@@ -0,0 +1,41 @@
+package com.sun.registry;
+
+/**
+ * @description: 注册中心SPI
+ *               服务端（服务提供者）启动时注册，关闭时注销；
+ *               客户端（服务消费者）订阅服务提供者的变更：订阅时先收到所有已存在的服务提供者的ADDED事件，之后收到增量变更事件。
+ *               实现类通过RegistryFactory（java.util.ServiceLoader）按注册中心地址的scheme加载，见Registries类。
+ * @author: Sun Xiaodong
+ */
+public interface Registry extends AutoCloseable {
+
+    /**
+     * 注册服务提供者（同一ID重复注册时，覆盖之前的信息）
+     * @param provider  服务提供者信息
+     */
+    void register(ProviderInfo provider);
+
+    /**
+     * 注销服务提供者
+     * @param provider  服务提供者信息
+     */
+    void unregister(ProviderInfo provider);
+
+    /**
+     * 订阅服务提供者变更
+     * @param listener  变更事件监听器
+     */
+    void subscribe(RegistryListener listener);
+
+    /**
+     * 取消订阅
+     * @param listener  变更事件监听器
+     */
+    void unsubscribe(RegistryListener listener);
+
+    /**
+     * 关闭注册中心，注销本实例注册的所有服务提供者
+     */
+    @Override
+    void close();
+}
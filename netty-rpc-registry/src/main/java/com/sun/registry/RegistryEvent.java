@@ -0,0 +1,40 @@
+package com.sun.registry;
+
+import java.util.Objects;
+
+/**
+ * @description: 注册中心的服务提供者变更事件
+ * @author: Sun Xiaodong
+ */
+public final class RegistryEvent {
+
+    public enum Type {
+        // 新增服务提供者
+        ADDED,
+        // 服务提供者信息变更（如：权重）
+        UPDATED,
+        // 服务提供者下线
+        REMOVED
+    }
+
+    private final Type type;
+    private final ProviderInfo provider;
+
+    public RegistryEvent(final Type type, final ProviderInfo provider) {
+        this.type = Objects.requireNonNull(type);
+        this.provider = Objects.requireNonNull(provider);
+    }
+
+    public Type type() {
+        return type;
+    }
+
+    public ProviderInfo provider() {
+        return provider;
+    }
+
+    @Override
+    public String toString() {
+        return "RegistryEvent{type=" + type + ", provider=" + provider + '}';
+    }
+}
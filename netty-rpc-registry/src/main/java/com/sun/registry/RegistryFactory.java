@@ -0,0 +1,24 @@
+package com.sun.registry;
+
+import java.net.URI;
+
+/**
+ * @description: 注册中心工厂SPI
+ *               实现类在 META-INF/services/com.sun.registry.RegistryFactory 中声明
+ * @author: Sun Xiaodong
+ */
+public interface RegistryFactory {
+
+    /**
+     * 支持的注册中心地址scheme，如：zookeeper、file
+     * @return  返回scheme
+     */
+    String scheme();
+
+    /**
+     * 创建注册中心
+     * @param address  注册中心地址
+     * @return  返回注册中心
+     */
+    Registry create(URI address);
+}
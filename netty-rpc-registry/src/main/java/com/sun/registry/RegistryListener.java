@@ -0,0 +1,15 @@
+package com.sun.registry;
+
+/**
+ * @description: 注册中心变更事件监听器
+ * @author: Sun Xiaodong
+ */
+@FunctionalInterface
+public interface RegistryListener {
+
+    /**
+     * 服务提供者变更时回调（回调在注册中心的通知线程中执行，不可阻塞）
+     * @param event  变更事件
+     */
+    void onEvent(RegistryEvent event);
+}
@@ -0,0 +1,214 @@
+package com.sun.registry.file;
+
+import com.sun.registry.ProviderInfo;
+import com.sun.registry.Registry;
+import com.sun.registry.RegistryEvent;
+import com.sun.registry.RegistryListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @description: 基于本地目录的注册中心（无需外部服务，可用于单机部署、测试，同一进程内或同一主机的多个进程之间共享）
+ *               每个服务提供者对应目录下的一个文件（address_port.provider），内容为ProviderInfo的编码；
+ *               服务提供者每隔SCAN_INTERVAL_MILLIS刷新一次文件的修改时间（心跳），超过EXPIRE_MILLIS未刷新的文件视为已下线；
+ *               订阅者每隔SCAN_INTERVAL_MILLIS扫描一次目录，与上次结果比较后发送增量变更事件，本实例注册、注销时立即扫描。
+ * @author: Sun Xiaodong
+ */
+public final class FileRegistry implements Registry {
+    private static final Logger log = LoggerFactory.getLogger(FileRegistry.class);
+
+    static final String SUFFIX = ".provider";
+    private static final long SCAN_INTERVAL_MILLIS = 1000L;
+    private static final long EXPIRE_MILLIS = 5 * SCAN_INTERVAL_MILLIS;
+
+    private final Path directory;
+    // 本实例注册的服务提供者
+    private final Map<String, ProviderInfo> registered;
+    private final List<RegistryListener> listeners;
+    private final ScheduledExecutorService scheduler;
+    // 上次扫描到的服务提供者
+    private Map<String, ProviderInfo> snapshot;
+    private volatile boolean closed;
+
+    public FileRegistry(final Path directory) {
+        this.directory = Objects.requireNonNull(directory);
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new IllegalStateException("Can not create registry directory: " + directory, e);
+        }
+        this.registered = new ConcurrentHashMap<>();
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.snapshot = new HashMap<>();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            final Thread thread = new Thread(r, "file_registry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::heartbeatAndScan, SCAN_INTERVAL_MILLIS, SCAN_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+
+    @Override
+    public void register(ProviderInfo provider) {
+        registered.put(provider.id(), provider);
+        write(provider);
+        scheduler.execute(this::scan);
+    }
+
+
+    @Override
+    public void unregister(ProviderInfo provider) {
+        if (Objects.nonNull(registered.remove(provider.id()))) {
+            delete(provider);
+            if (!closed) {
+                scheduler.execute(this::scan);
+            }
+        }
+    }
+
+
+    @Override
+    public void subscribe(RegistryListener listener) {
+        scheduler.execute(() -> {
+            scan();
+            // 新的订阅者先收到所有已存在的服务提供者
+            synchronized (this) {
+                for (ProviderInfo provider : snapshot.values()) {
+                    notify(listener, new RegistryEvent(RegistryEvent.Type.ADDED, provider));
+                }
+                listeners.add(listener);
+            }
+        });
+    }
+
+
+    @Override
+    public void unsubscribe(RegistryListener listener) {
+        listeners.remove(listener);
+    }
+
+
+    @Override
+    public void close() {
+        closed = true;
+        for (ProviderInfo provider : registered.values()) {
+            unregister(provider);
+        }
+        listeners.clear();
+        scheduler.shutdownNow();
+    }
+
+
+    private void heartbeatAndScan() {
+        final FileTime now = FileTime.fromMillis(System.currentTimeMillis());
+        for (ProviderInfo provider : registered.values()) {
+            try {
+                Files.setLastModifiedTime(pathOf(provider), now);
+            } catch (IOException e) {
+                // 文件被误删等情况，重新写入
+                write(provider);
+            }
+        }
+        scan();
+    }
+
+
+    // 扫描目录，与上次结果比较，发送增量变更事件
+    private synchronized void scan() {
+        if (closed) {
+            return;
+        }
+        final Map<String, ProviderInfo> current = new HashMap<>();
+        final long now = System.currentTimeMillis();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path path : stream) {
+                try {
+                    if (now - Files.getLastModifiedTime(path).toMillis() > EXPIRE_MILLIS) {
+                        continue;
+                    }
+                    final ProviderInfo provider = ProviderInfo.decode(new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+                    current.put(provider.id(), provider);
+                } catch (IOException | RuntimeException e) {
+                    // 文件正在被替换、删除，或内容不完整，下次扫描时再读取
+                    log.debug("Skip registry file {}: {}", path, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Scan registry directory {} failed: {}", directory, e.getMessage());
+            return;
+        }
+
+        for (Map.Entry<String, ProviderInfo> entry : current.entrySet()) {
+            final ProviderInfo previous = snapshot.get(entry.getKey());
+            if (Objects.isNull(previous)) {
+                fire(new RegistryEvent(RegistryEvent.Type.ADDED, entry.getValue()));
+            } else if (!previous.equals(entry.getValue())) {
+                fire(new RegistryEvent(RegistryEvent.Type.UPDATED, entry.getValue()));
+            }
+        }
+        for (Map.Entry<String, ProviderInfo> entry : snapshot.entrySet()) {
+            if (!current.containsKey(entry.getKey())) {
+                fire(new RegistryEvent(RegistryEvent.Type.REMOVED, entry.getValue()));
+            }
+        }
+        snapshot = current;
+    }
+
+
+    private void fire(final RegistryEvent event) {
+        for (RegistryListener listener : listeners) {
+            notify(listener, event);
+        }
+    }
+
+    private static void notify(final RegistryListener listener, final RegistryEvent event) {
+        try {
+            listener.onEvent(event);
+        } catch (Exception e) {
+            log.warn("Registry listener failed on {}", event, e);
+        }
+    }
+
+
+    // 先写临时文件，再原子替换，避免订阅者读到不完整的内容
+    private void write(final ProviderInfo provider) {
+        final Path path = pathOf(provider);
+        try {
+            final Path temp = Files.createTempFile(directory, provider.address(), ".tmp");
+            Files.write(temp, provider.encode().getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("Register provider {} failed", provider, e);
+        }
+    }
+
+    private void delete(final ProviderInfo provider) {
+        try {
+            Files.deleteIfExists(pathOf(provider));
+        } catch (IOException e) {
+            log.warn("Unregister provider {} failed", provider, e);
+        }
+    }
+
+    private Path pathOf(final ProviderInfo provider) {
+        return directory.resolve(provider.address() + '_' + provider.port() + SUFFIX);
+    }
+}
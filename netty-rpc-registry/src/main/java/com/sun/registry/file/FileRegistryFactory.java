@@ -0,0 +1,24 @@
+package com.sun.registry.file;
+
+import com.sun.registry.Registry;
+import com.sun.registry.RegistryFactory;
+
+import java.net.URI;
+import java.nio.file.Paths;
+
+/**
+ * @description: 本地目录注册中心工厂，地址格式：file:///tmp/netty-rpc-registry
+ * @author: Sun Xiaodong
+ */
+public final class FileRegistryFactory implements RegistryFactory {
+
+    @Override
+    public String scheme() {
+        return "file";
+    }
+
+    @Override
+    public Registry create(URI address) {
+        return new FileRegistry(Paths.get(address));
+    }
+}
@@ -0,0 +1,161 @@
+package com.sun.registry.zookeeper;
+
+import com.sun.registry.ProviderInfo;
+import com.sun.registry.Registry;
+import com.sun.registry.RegistryEvent;
+import com.sun.registry.RegistryListener;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.curator.framework.recipes.cache.CuratorCache;
+import org.apache.curator.framework.recipes.cache.CuratorCacheListener;
+import org.apache.curator.framework.recipes.nodes.PersistentNode;
+import org.apache.curator.retry.ExponentialBackoffRetry;
+import org.apache.zookeeper.CreateMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * @description: 基于ZooKeeper（Curator）的注册中心
+ *               服务提供者注册为临时节点：{root}/providers/{address:port}，节点数据为ProviderInfo的编码；
+ *               使用PersistentNode保证会话过期、重连后临时节点被重新创建；
+ *               订阅者通过CuratorCache监听{root}/providers的子节点变化。
+ * @author: Sun Xiaodong
+ */
+public final class ZookeeperRegistry implements Registry {
+    private static final Logger log = LoggerFactory.getLogger(ZookeeperRegistry.class);
+    private static final String PROVIDERS = "/providers";
+
+    private final CuratorFramework client;
+    private final String providersPath;
+    // 本实例注册的服务提供者节点
+    private final Map<String, PersistentNode> nodes;
+    private final List<RegistryListener> listeners;
+    private volatile CuratorCache cache;
+
+    public ZookeeperRegistry(final String connectString, final String root) {
+        this.client = CuratorFrameworkFactory.newClient(Objects.requireNonNull(connectString), new ExponentialBackoffRetry(1000, 3));
+        this.providersPath = (root.endsWith("/") ? root.substring(0, root.length() - 1) : root) + PROVIDERS;
+        this.nodes = new ConcurrentHashMap<>();
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.client.start();
+    }
+
+
+    @Override
+    public void register(ProviderInfo provider) {
+        final PersistentNode node = new PersistentNode(client, CreateMode.EPHEMERAL, false,
+                providersPath + '/' + provider.id(), provider.encode().getBytes(StandardCharsets.UTF_8));
+        node.start();
+        final PersistentNode previous = nodes.put(provider.id(), node);
+        closeQuietly(previous);
+    }
+
+
+    @Override
+    public void unregister(ProviderInfo provider) {
+        closeQuietly(nodes.remove(provider.id()));
+    }
+
+
+    @Override
+    public synchronized void subscribe(RegistryListener listener) {
+        CuratorCache cache = this.cache;
+        if (Objects.nonNull(cache)) {
+            // 新的订阅者先收到所有已存在的服务提供者
+            cache.stream().filter(this::isProvider).forEach(data -> {
+                final ProviderInfo provider = decode(data);
+                if (Objects.nonNull(provider)) {
+                    notify(listener, new RegistryEvent(RegistryEvent.Type.ADDED, provider));
+                }
+            });
+            listeners.add(listener);
+            return;
+        }
+        listeners.add(listener);
+        // CuratorCache启动时，已存在的节点以创建事件通知
+        cache = CuratorCache.build(client, providersPath);
+        cache.listenable().addListener(CuratorCacheListener.builder()
+                .forCreates(data -> fire(RegistryEvent.Type.ADDED, data))
+                .forChanges((oldData, data) -> fire(RegistryEvent.Type.UPDATED, data))
+                .forDeletes(data -> fire(RegistryEvent.Type.REMOVED, data))
+                .build());
+        cache.start();
+        this.cache = cache;
+    }
+
+
+    @Override
+    public void unsubscribe(RegistryListener listener) {
+        listeners.remove(listener);
+    }
+
+
+    @Override
+    public void close() {
+        for (String id : nodes.keySet()) {
+            closeQuietly(nodes.remove(id));
+        }
+        listeners.clear();
+        if (Objects.nonNull(cache)) {
+            cache.close();
+        }
+        client.close();
+    }
+
+
+    private void fire(final RegistryEvent.Type type, final ChildData data) {
+        if (!isProvider(data)) {
+            return;
+        }
+        final ProviderInfo provider = decode(data);
+        if (Objects.isNull(provider)) {
+            return;
+        }
+        final RegistryEvent event = new RegistryEvent(type, provider);
+        for (RegistryListener listener : listeners) {
+            notify(listener, event);
+        }
+    }
+
+    // 只处理{root}/providers的直接子节点
+    private boolean isProvider(final ChildData data) {
+        final String path = data.getPath();
+        return path.startsWith(providersPath + '/') && path.indexOf('/', providersPath.length() + 1) < 0;
+    }
+
+    private static ProviderInfo decode(final ChildData data) {
+        try {
+            return ProviderInfo.decode(new String(data.getData(), StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            log.warn("Illegal provider node {}: {}", data.getPath(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static void notify(final RegistryListener listener, final RegistryEvent event) {
+        try {
+            listener.onEvent(event);
+        } catch (Exception e) {
+            log.warn("Registry listener failed on {}", event, e);
+        }
+    }
+
+    private static void closeQuietly(final PersistentNode node) {
+        if (Objects.nonNull(node)) {
+            try {
+                node.close();
+            } catch (IOException e) {
+                log.warn("Close provider node failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.sun.registry.zookeeper;
+
+import com.sun.registry.Registry;
+import com.sun.registry.RegistryFactory;
+
+import java.net.URI;
+import java.util.Objects;
+
+/**
+ * @description: ZooKeeper注册中心工厂，地址格式：zookeeper://127.0.0.1:2181,127.0.0.2:2181/netty-rpc（根路径默认/netty-rpc）
+ * @author: Sun Xiaodong
+ */
+public final class ZookeeperRegistryFactory implements RegistryFactory {
+    private static final String DEFAULT_ROOT = "/netty-rpc";
+
+    @Override
+    public String scheme() {
+        return "zookeeper";
+    }
+
+    @Override
+    public Registry create(URI address) {
+        final String root = address.getPath();
+        return new ZookeeperRegistry(Objects.requireNonNull(address.getAuthority(), "Missing zookeeper address"),
+                (Objects.isNull(root) || root.isEmpty() || "/".equals(root)) ? DEFAULT_ROOT : root);
+    }
+}
@@ -0,0 +1,140 @@
+package com.sun.registry.file;
+
+import com.sun.registry.ProviderInfo;
+import com.sun.registry.RegistryEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @description: FileRegistry的注册、查找（订阅收到的事件）、注销：同一实例内、共享目录的两个实例之间，
+ *               以及重复注册时的UPDATED事件、过期和内容不完整的文件被忽略
+ *               事件在注册中心的扫描线程中发送，测试以阻塞队列等待（扫描间隔1s）
+ * @author: Sun Xiaodong
+ */
+class FileRegistryTest {
+    private static final long EVENT_TIMEOUT_SECONDS = 5L;
+
+    @TempDir
+    Path directory;
+
+
+    @Test
+    void registerThenSubscribe() throws InterruptedException {
+        try (FileRegistry registry = new FileRegistry(directory)) {
+            final ProviderInfo provider = provider(20822, 100);
+            registry.register(provider);
+            assertTrue(Files.exists(directory.resolve("127.0.0.1_20822" + FileRegistry.SUFFIX)));
+
+            final BlockingQueue<RegistryEvent> events = subscribe(registry);
+            assertEvent(RegistryEvent.Type.ADDED, provider, events);
+        }
+    }
+
+    @Test
+    void subscribeThenRegisterAndUnregister() throws InterruptedException {
+        try (FileRegistry registry = new FileRegistry(directory)) {
+            final BlockingQueue<RegistryEvent> events = subscribe(registry);
+            final ProviderInfo provider = provider(20822, 100);
+            registry.register(provider);
+            assertEvent(RegistryEvent.Type.ADDED, provider, events);
+
+            registry.unregister(provider);
+            assertEvent(RegistryEvent.Type.REMOVED, provider, events);
+            assertFalse(Files.exists(directory.resolve("127.0.0.1_20822" + FileRegistry.SUFFIX)));
+        }
+    }
+
+    @Test
+    void registerAgainFiresUpdated() throws InterruptedException {
+        try (FileRegistry registry = new FileRegistry(directory)) {
+            final BlockingQueue<RegistryEvent> events = subscribe(registry);
+            registry.register(provider(20822, 100));
+            assertEvent(RegistryEvent.Type.ADDED, provider(20822, 100), events);
+
+            registry.register(provider(20822, 50));
+            assertEvent(RegistryEvent.Type.UPDATED, provider(20822, 50), events);
+        }
+    }
+
+    @Test
+    void sharedDirectoryBetweenInstances() throws InterruptedException {
+        try (FileRegistry consumer = new FileRegistry(directory)) {
+            final ProviderInfo first = provider(20822, 100);
+            final ProviderInfo second = provider(20823, 100);
+            final FileRegistry producer = new FileRegistry(directory);
+            producer.register(first);
+            producer.register(second);
+
+            final BlockingQueue<RegistryEvent> events = subscribe(consumer);
+            final RegistryEvent e1 = events.poll(EVENT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            final RegistryEvent e2 = events.poll(EVENT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            assertNotNull(e1);
+            assertNotNull(e2);
+            assertEquals(RegistryEvent.Type.ADDED, e1.type());
+            assertEquals(RegistryEvent.Type.ADDED, e2.type());
+            assertEquals(2, new HashSet<>(Arrays.asList(e1.provider(), e2.provider())).size());
+
+            // 关闭时注销本实例注册的所有服务提供者，另一个实例在下次扫描时收到REMOVED事件
+            producer.close();
+            final RegistryEvent r1 = events.poll(EVENT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            final RegistryEvent r2 = events.poll(EVENT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            assertNotNull(r1);
+            assertNotNull(r2);
+            assertEquals(RegistryEvent.Type.REMOVED, r1.type());
+            assertEquals(RegistryEvent.Type.REMOVED, r2.type());
+        }
+    }
+
+    @Test
+    void ignoresExpiredAndIncompleteFiles() throws Exception {
+        final Path expired = directory.resolve("127.0.0.1_20824" + FileRegistry.SUFFIX);
+        Files.write(expired, provider(20824, 100).encode().getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(expired, FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(1)));
+        Files.write(directory.resolve("127.0.0.1_20825" + FileRegistry.SUFFIX), "port=20825".getBytes(StandardCharsets.UTF_8));
+
+        try (FileRegistry registry = new FileRegistry(directory)) {
+            final BlockingQueue<RegistryEvent> events = subscribe(registry);
+            final ProviderInfo provider = provider(20822, 100);
+            registry.register(provider);
+            assertEvent(RegistryEvent.Type.ADDED, provider, events);
+            // 再等待一次扫描，不应收到其它事件
+            assertNull(events.poll(1500L, TimeUnit.MILLISECONDS));
+        }
+    }
+
+
+    private static ProviderInfo provider(final int port, final int weight) {
+        return new ProviderInfo("127.0.0.1", port, weight, 0L, 1L, Collections.singleton("com.sun.common.service.HelloService"));
+    }
+
+    private static BlockingQueue<RegistryEvent> subscribe(final FileRegistry registry) {
+        final BlockingQueue<RegistryEvent> events = new LinkedBlockingQueue<>();
+        registry.subscribe(events::add);
+        return events;
+    }
+
+    private static void assertEvent(final RegistryEvent.Type type, final ProviderInfo provider,
+                                    final BlockingQueue<RegistryEvent> events) throws InterruptedException {
+        final RegistryEvent event = events.poll(EVENT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertNotNull(event, "no " + type + " event within " + EVENT_TIMEOUT_SECONDS + "s");
+        assertEquals(type, event.type());
+        assertEquals(provider, event.provider());
+    }
+}
@@ -1,12 +1,25 @@
 package com.sun.server.context;
 
 import com.sun.common.annotation.RpcService;
+import com.sun.common.annotation.RpcServiceInterface;
 import com.sun.common.exchange.codec.ExchangeCodec;
+import com.sun.common.id.serialization.impl.SchemaRegistry;
+import com.sun.common.id.serialization.impl.SerializationAllowlist;
+import com.sun.common.log.AccessLog;
+import com.sun.common.metrics.MetricsRegistry;
+import com.sun.common.metrics.RpcMetrics;
+import com.sun.common.netty.FrameMetricsHandler;
 import com.sun.common.netty.NettyOperation;
+import com.sun.common.netty.WriteCoalescer;
 import com.sun.common.netty.codec.CodecAdapter;
 import com.sun.common.netty.codec.RpcProtocolFrameDecoder;
 import com.sun.common.util.Constants;
+import com.sun.common.util.StringUtil;
+import com.sun.registry.ProviderInfo;
+import com.sun.registry.Registries;
+import com.sun.registry.Registry;
 import com.sun.server.context.configure.RpcServerProperties;
+import com.sun.server.dispatch.Dispatcher;
 import com.sun.server.handler.HeartBeatServerHandler;
 import com.sun.server.handler.RpcServerHandler;
 import com.sun.server.service.ServiceFactory;
@@ -20,7 +33,6 @@ import io.netty.channel.ChannelPipeline;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.timeout.IdleStateHandler;
-import io.netty.util.concurrent.EventExecutorGroup;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
@@ -50,6 +62,8 @@ public class RpcServer implements ApplicationContextAware, InitializingBean {
 
     @Resource
     private RpcServerProperties properties;
+    @Resource
+    private MetricsRegistry metricsRegistry;
 
     private NettyServer server;
 
@@ -81,6 +95,11 @@ public class RpcServer implements ApplicationContextAware, InitializingBean {
                 for (Class<?> interfaceClass : interfaceClasses) {
                     // 添加服务接口类的全限定名、及其对应的实现类bean对象到ServiceFactory
                     addServiceMethod.invoke(null, interfaceClass, v);
+                    // 预热服务接口方法参数、返回值的Schema，避免首次请求时创建；并允许KRYO、FURY反序列化这些类型
+                    if (interfaceClass.isAnnotationPresent(RpcServiceInterface.class)) {
+                        SchemaRegistry.warmUp(interfaceClass);
+                        SerializationAllowlist.allowServiceTypes(interfaceClass);
+                    }
                 }
             } catch (ReflectiveOperationException e) {
                 log.error("{}", e);
@@ -105,13 +124,18 @@ public class RpcServer implements ApplicationContextAware, InitializingBean {
     class NettyServer extends Thread implements NettyOperation {
         private static final String BOOS_EVENTLOOP_POOL_NAME = "server_boss_eventloop";
         private static final String WORKER_EVENTLOOP_POOL_NAME = "server_worker_eventloop";
-        private static final String HANDLER_THREAD_POOL_NAME = "rpc_handler_eventloop";
 
         private Channel channel;
+        // 注册中心（未配置时为null）
+        private Registry registry;
         private EventLoopGroup boss;
         private EventLoopGroup worker;
-        // Rpc业务线程池
-        private EventExecutorGroup handlerGroup;
+        // 服务方法调度器（业务线程池）
+        private Dispatcher dispatcher;
+        // 访问日志
+        private AccessLog accessLog;
+        // RPC指标
+        private RpcMetrics metrics;
 
         public NettyServer() {}
 
@@ -126,8 +150,10 @@ public class RpcServer implements ApplicationContextAware, InitializingBean {
             try {
                 ServerBootstrap bootstrap = initServerBootstrap();
                 // 绑定端口，开启监听
-                ChannelFuture future = Objects.requireNonNull(bootstrap).bind(getBindAddress()).syncUninterruptibly();
+                final InetSocketAddress bindAddress = getBindAddress();
+                ChannelFuture future = Objects.requireNonNull(bootstrap).bind(bindAddress).syncUninterruptibly();
                 this.channel = future.channel();
+                register(bindAddress);
                 //future.channel().closeFuture().syncUninterruptibly();
             } catch (Exception e) {
                 log.error("{}", e);
@@ -137,6 +163,14 @@ public class RpcServer implements ApplicationContextAware, InitializingBean {
 
         @Override
         public void doClose() {
+            // 先从注册中心注销，客户端不再向本服务端发送新请求
+            try {
+                if (Objects.nonNull(registry)) {
+                    registry.close();
+                }
+            } catch (Exception e) {
+                log.warn(e.getMessage(), e);
+            }
             try {
                 if (Objects.nonNull(channel) && channel.isOpen()) {
                     channel.close();
@@ -162,19 +196,47 @@ public class RpcServer implements ApplicationContextAware, InitializingBean {
                 log.warn("{}", e);
             }
             try {
-                this.handlerGroup.shutdownGracefully(quietPeriod, eventLoopTimeout, TimeUnit.MILLISECONDS).syncUninterruptibly();
+                if (Objects.nonNull(this.dispatcher)) {
+                    this.dispatcher.close(eventLoopTimeout);
+                }
             } catch (Exception e) {
                 log.warn("{}", e);
             }
+            if (Objects.nonNull(this.accessLog)) {
+                this.accessLog.close(eventLoopTimeout);
+            }
+            if (Objects.nonNull(this.metrics)) {
+                log.info("Write coalescing: {} flushes, {} messages per flush", metrics.flushes(),
+                        String.format("%.2f", metrics.messagesPerFlush()));
+            }
             log.info("Netty server closed.");
         }
 
 
+        // 服务端的RPC指标（含写合并的统计），以及业务线程池队列长度、访问日志的统计
+        private RpcMetrics newMetrics() {
+            final RpcMetrics rpcMetrics = new RpcMetrics(metricsRegistry, "server");
+            final Dispatcher dispatcher = this.dispatcher;
+            final AccessLog accessLog = this.accessLog;
+            rpcMetrics.gauge("rpc.dispatcher.queue.depth", dispatcher::queueDepth);
+            rpcMetrics.gauge("rpc.access.log.dropped", accessLog::dropped);
+            return rpcMetrics;
+        }
+
+
         private ServerBootstrap initServerBootstrap() {
             try {
                 this.boss = NettyOperation.eventLoopGroup(1, BOOS_EVENTLOOP_POOL_NAME);
                 this.worker = NettyOperation.eventLoopGroup(properties.getNettyServer().getIoThreads(), WORKER_EVENTLOOP_POOL_NAME);
-                this.handlerGroup = NettyOperation.eventLoopGroup(16, HANDLER_THREAD_POOL_NAME);
+                this.dispatcher = new Dispatcher(properties.getDispatcher(), ServiceFactory.getInvokers());
+                final RpcServerProperties.AccessLog accessLogConfig = properties.getAccessLog();
+                this.accessLog = new AccessLog("server", accessLogConfig.getEnabled(), accessLogConfig.getSampleRate(),
+                        accessLogConfig.getSlowThreshold(), accessLogConfig.getMaxPerSecond(), accessLogConfig.getBufferSize());
+                this.metrics = newMetrics();
+                // 压缩阈值，只用于被@Compress标记的服务方法的响应（压缩类型与请求相同）
+                final int compressionThreshold = properties.getCompression().getThreshold();
+                log.info("Response compression threshold: {} bytes", compressionThreshold);
+                final FrameMetricsHandler frameMetricsHandler = new FrameMetricsHandler(metrics);
                 return new ServerBootstrap().group(boss, worker)
                       .option(ChannelOption.SO_REUSEADDR, true)
                       .childOption(ChannelOption.TCP_NODELAY, true)
@@ -188,20 +250,24 @@ public class RpcServer implements ApplicationContextAware, InitializingBean {
                           @Override
                           protected void initChannel(SocketChannel ch) {
                               final ChannelPipeline pipeline = ch.pipeline();
-                              CodecAdapter adapter = new CodecAdapter(new ExchangeCodec());
-                              pipeline.addLast("idle_state_handler", new IdleStateHandler(0, 0, 5, TimeUnit.SECONDS))
+                              CodecAdapter adapter = new CodecAdapter(new ExchangeCodec(compressionThreshold, properties.getMaxFrameLength()));
+                              final RpcServerProperties.NettyServer nettyServer = properties.getNettyServer();
+                              // 写合并处理器位于编码器之前（靠近pipeline头部），处理编码后的帧
+                              pipeline.addLast("write_coalescer", new WriteCoalescer(nettyServer.getFlushMaxMessages(), nettyServer.getFlushMaxBytes(), metrics))
+                                      .addLast("idle_state_handler", new IdleStateHandler(0, 0, 5, TimeUnit.SECONDS))
                                       .addLast("heartbeat_handler", new HeartBeatServerHandler())
                                       .addLast("rpc_frame_decoder", new RpcProtocolFrameDecoder(properties.getMaxFrameLength()))
+                                      .addLast("frame_metrics", frameMetricsHandler)
                                       .addLast("rpc_decoder", adapter.getDecoder())
                                       .addLast("rpc_encoder", adapter.getEncoder())
-                                      .addLast("rpc_business_server_handler", new RpcServerHandler(handlerGroup, RpcServer.this.properties));
+                                      .addLast("rpc_business_server_handler", new RpcServerHandler(dispatcher, accessLog, metrics, RpcServer.this.properties));
                           }
                       });
             } catch (Exception e) {
                 log.error("{}", e);
-                if (Objects.nonNull(handlerGroup)) {
+                if (Objects.nonNull(dispatcher)) {
                     try {
-                        handlerGroup.shutdownGracefully();
+                        dispatcher.close(0L);
                     } catch (Exception exception) {
                         log.warn("{}", exception);
                     }
@@ -225,6 +291,20 @@ public class RpcServer implements ApplicationContextAware, InitializingBean {
         }
 
 
+        // 注册服务提供者：地址、端口、权重、预热时间、暴露的服务接口
+        private void register(final InetSocketAddress bindAddress) {
+            final RpcServerProperties.Registry config = properties.getRegistry();
+            if (Objects.isNull(config) || StringUtil.isBlank(config.getAddress())) {
+                return;
+            }
+            this.registry = Registries.create(config.getAddress());
+            final ProviderInfo provider = new ProviderInfo(bindAddress.getAddress().getHostAddress(), bindAddress.getPort(),
+                    config.getWeight(), config.getWarmup(), System.currentTimeMillis(), ServiceFactory.interfaceNames());
+            this.registry.register(provider);
+            log.info("Registered {} to {}", provider, config.getAddress());
+        }
+
+
         private InetSocketAddress getBindAddress() throws UnknownHostException {
             final int port = properties.getNettyServer().getPort();
             return new InetSocketAddress(InetAddress.getLocalHost(), port);
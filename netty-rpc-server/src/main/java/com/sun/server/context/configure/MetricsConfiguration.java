@@ -0,0 +1,36 @@
+package com.sun.server.context.configure;
+
+import com.sun.common.metrics.MetricsRegistries;
+import com.sun.common.metrics.MetricsRegistry;
+import com.sun.common.metrics.MicrometerBinder;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * @description: RPC指标：未声明MetricsRegistry类型的bean时，使用ServiceLoader加载的实现（默认DefaultMetricsRegistry）；
+ *               classpath中有Micrometer（Spring Boot actuator）时，将RPC指标绑定到actuator的MeterRegistry
+ * @author: Sun Xiaodong
+ */
+
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public MetricsRegistry rpcMetricsRegistry() {
+        return MetricsRegistries.create();
+    }
+
+
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    static class MicrometerConfiguration {
+        @Bean
+        public MeterBinder rpcMeterBinder(final MetricsRegistry rpcMetricsRegistry) {
+            return new MicrometerBinder(rpcMetricsRegistry);
+        }
+    }
+}
@@ -6,13 +6,24 @@ package com.sun.server.context.configure;
  */
 
 import com.sun.common.util.Constants;
+import com.sun.common.util.StringUtil;
+import com.sun.registry.ProviderInfo;
+import com.sun.server.dispatch.DispatchMode;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
 @Configuration
 @ConfigurationProperties(prefix = "rpc")
 public class RpcServerProperties {
     private NettyServer nettyServer;
+    private Registry registry;
+    private Dispatcher dispatcher;
+    private AccessLog accessLog;
+    private Compression compression;
     private Integer payload;
     private Integer timeout;
     private Integer maxFrameLength;
@@ -20,6 +31,10 @@ public class RpcServerProperties {
 
     RpcServerProperties() {
         this.maxFrameLength = Constants.DEFAULT_PAYLOAD + Constants.HEADER_LENGTH;
+        this.registry = new Registry();
+        this.dispatcher = new Dispatcher();
+        this.accessLog = new AccessLog();
+        this.compression = new Compression();
     }
 
 
@@ -31,6 +46,38 @@ public class RpcServerProperties {
         this.nettyServer = nettyServer;
     }
 
+    public Registry getRegistry() {
+        return registry;
+    }
+
+    public void setRegistry(Registry registry) {
+        this.registry = registry;
+    }
+
+    public Dispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    public void setDispatcher(Dispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    public AccessLog getAccessLog() {
+        return accessLog;
+    }
+
+    public void setAccessLog(AccessLog accessLog) {
+        this.accessLog = accessLog;
+    }
+
+    public Compression getCompression() {
+        return compression;
+    }
+
+    public void setCompression(Compression compression) {
+        this.compression = compression;
+    }
+
     public Integer getPayload() {
         return payload;
     }
@@ -60,12 +107,17 @@ public class RpcServerProperties {
         private Integer port;
         private Integer ioThreads;
         private Integer eventLoopTimeout;
+        // 写合并：未flush的帧数、字节数达到该值时立即flush（见WriteCoalescer）
+        private Integer flushMaxMessages;
+        private Integer flushMaxBytes;
 
 
         public NettyServer() {
             this.port = Constants.DEFAULT_PORT;
             this.ioThreads = Constants.DEFAULT_IO_THREADS;
             this.eventLoopTimeout = Constants.EVENTLOOP_SHUTDOWN_TIMEOUT;
+            this.flushMaxMessages = Constants.DEFAULT_FLUSH_MAX_MESSAGES;
+            this.flushMaxBytes = Constants.DEFAULT_FLUSH_MAX_BYTES;
         }
 
         public Integer getPort() {
@@ -86,6 +138,24 @@ public class RpcServerProperties {
             this.ioThreads = ioThreads;
         }
 
+        public Integer getFlushMaxMessages() {
+            return flushMaxMessages;
+        }
+
+        public void setFlushMaxMessages(Integer flushMaxMessages) {
+            rangeIn(flushMaxMessages, 1, 65536);
+            this.flushMaxMessages = flushMaxMessages;
+        }
+
+        public Integer getFlushMaxBytes() {
+            return flushMaxBytes;
+        }
+
+        public void setFlushMaxBytes(Integer flushMaxBytes) {
+            rangeIn(flushMaxBytes, 1, Integer.MAX_VALUE);
+            this.flushMaxBytes = flushMaxBytes;
+        }
+
         public Integer getEventLoopTimeout() {
             return eventLoopTimeout;
         }
@@ -96,9 +166,227 @@ public class RpcServerProperties {
     }
 
 
+    public static final class Registry {
+        // 注册中心地址（未设置时不注册），如：zookeeper://127.0.0.1:2181/netty-rpc、file:///tmp/netty-rpc-registry
+        private String address;
+        // 服务提供者权重
+        private Integer weight;
+        // 服务提供者预热时间，单位：ms
+        private Integer warmup;
+
+        public Registry() {
+            this.weight = ProviderInfo.DEFAULT_WEIGHT;
+            this.warmup = 0;
+        }
+
+        public String getAddress() {
+            return address;
+        }
+
+        public void setAddress(String address) {
+            this.address = address;
+        }
+
+        public Integer getWeight() {
+            return weight;
+        }
+
+        public void setWeight(Integer weight) {
+            rangeIn(weight, 1, 10000);
+            this.weight = weight;
+        }
+
+        public Integer getWarmup() {
+            return warmup;
+        }
+
+        public void setWarmup(Integer warmup) {
+            rangeIn(warmup, 0, Integer.MAX_VALUE);
+            this.warmup = warmup;
+        }
+    }
+
+
+    public static final class Dispatcher {
+        // 服务方法的执行方式
+        private DispatchMode mode;
+        // 业务线程数
+        private Integer threads;
+        // 业务线程池的等待队列长度（队列已满时，立即以SERVER_THREADPOOL_RESOURCE_EXHAUSTED_ERROR响应）
+        private Integer queueCapacity;
+        // 隔离线程池，k: 服务接口全限定名（接口的所有方法）或 服务接口全限定名#方法名（同名的所有重载方法），方法名的配置优先
+        private Map<String, Bulkhead> bulkheads;
+
+        public Dispatcher() {
+            this.mode = DispatchMode.WORKER_POOL;
+            this.threads = Constants.DEFAULT_DISPATCH_THREADS;
+            this.queueCapacity = Constants.DEFAULT_DISPATCH_QUEUE_CAPACITY;
+            this.bulkheads = new LinkedHashMap<>();
+        }
+
+        public DispatchMode getMode() {
+            return mode;
+        }
+
+        public void setMode(String mode) {
+            DispatchMode dispatchMode = StringUtil.isBlank(mode) ? null
+                    : DispatchMode.values()[0].keyOf(StringUtil.strip(mode)).orElse(null);
+            if (Objects.isNull(dispatchMode)) {
+                throw new IllegalArgumentException("Dispatch mode must be one of: worker-pool, event-loop, virtual-thread");
+            }
+            this.mode = dispatchMode;
+        }
+
+        public Integer getThreads() {
+            return threads;
+        }
+
+        public void setThreads(Integer threads) {
+            rangeIn(threads, 1, 10000);
+            this.threads = threads;
+        }
+
+        public Integer getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(Integer queueCapacity) {
+            rangeIn(queueCapacity, 1, Integer.MAX_VALUE);
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Map<String, Bulkhead> getBulkheads() {
+            return bulkheads;
+        }
+
+        public void setBulkheads(Map<String, Bulkhead> bulkheads) {
+            this.bulkheads = bulkheads;
+        }
+    }
+
+
+    public static final class Bulkhead {
+        // 线程数
+        private Integer threads;
+        // 等待队列长度
+        private Integer queueCapacity;
+
+        public Bulkhead() {
+            this.threads = 1;
+            this.queueCapacity = 64;
+        }
+
+        public Integer getThreads() {
+            return threads;
+        }
+
+        public void setThreads(Integer threads) {
+            rangeIn(threads, 1, 10000);
+            this.threads = threads;
+        }
+
+        public Integer getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(Integer queueCapacity) {
+            rangeIn(queueCapacity, 1, Integer.MAX_VALUE);
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+
+    public static final class Compression {
+        // 压缩阈值（单位byte），序列化后的响应体不小于该值时才压缩；只压缩被@Compress标记的服务接口或方法，
+        // 且只在请求体已压缩时使用请求的压缩类型（客户端一定支持），请求体未压缩时响应体也不压缩
+        private Integer threshold;
+
+        public Compression() {
+            this.threshold = Constants.DEFAULT_COMPRESSION_THRESHOLD;
+        }
+
+        public Integer getThreshold() {
+            return threshold;
+        }
+
+        public void setThreshold(Integer threshold) {
+            rangeIn(threshold, 0, Integer.MAX_VALUE);
+            this.threshold = threshold;
+        }
+    }
+
+
+    public static final class AccessLog {
+        // 是否记录访问日志
+        private Boolean enabled;
+        // 采样率：[0, 1]（未设置慢请求阈值时）
+        private Double sampleRate;
+        // 慢请求阈值（单位ms），大于0时只记录耗时不小于该值的请求；失败的请求总是记录
+        private Integer slowThreshold;
+        // 每秒最多记录的条数
+        private Integer maxPerSecond;
+        // 环形缓冲区大小（向上取2的幂），已满时丢弃
+        private Integer bufferSize;
+
+        public AccessLog() {
+            this.enabled = true;
+            this.sampleRate = Constants.DEFAULT_ACCESS_LOG_SAMPLE_RATE;
+            this.slowThreshold = 0;
+            this.maxPerSecond = Constants.DEFAULT_ACCESS_LOG_MAX_PER_SECOND;
+            this.bufferSize = Constants.DEFAULT_ACCESS_LOG_BUFFER_SIZE;
+        }
+
+        public Boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Double getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(Double sampleRate) {
+            if (Objects.isNull(sampleRate) || sampleRate < 0D || sampleRate > 1D) {
+                throw new IllegalArgumentException("Access log sample rate must be in [0, 1]");
+            }
+            this.sampleRate = sampleRate;
+        }
+
+        public Integer getSlowThreshold() {
+            return slowThreshold;
+        }
+
+        public void setSlowThreshold(Integer slowThreshold) {
+            rangeIn(slowThreshold, 0, Integer.MAX_VALUE);
+            this.slowThreshold = slowThreshold;
+        }
+
+        public Integer getMaxPerSecond() {
+            return maxPerSecond;
+        }
+
+        public void setMaxPerSecond(Integer maxPerSecond) {
+            rangeIn(maxPerSecond, 1, Integer.MAX_VALUE);
+            this.maxPerSecond = maxPerSecond;
+        }
+
+        public Integer getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(Integer bufferSize) {
+            rangeIn(bufferSize, 2, 1 << 20);
+            this.bufferSize = bufferSize;
+        }
+    }
+
+
     // validate range in: [min, max]
     private static void rangeIn(final int current, int min, int max) {
-        if (Math.max(0, current) != Math.min(current, max)) {
+        if (current < min || current > max) {
             throw new IllegalArgumentException(String.format("The given number %d can't be greater than %d or less than %d", current, max, min));
         }
     }
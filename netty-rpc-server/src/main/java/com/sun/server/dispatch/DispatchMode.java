@@ -0,0 +1,56 @@
+package com.sun.server.dispatch;
+
+import com.sun.common.enumerator.CodeKeyEnum;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * @description: 服务方法的执行方式（被@NonBlocking标记的方法总是在I/O线程中执行）
+ *               WORKER_POOL: 有界业务线程池
+ *               EVENT_LOOP: 所有方法都在I/O线程（event loop）中执行，适用于所有服务方法都不阻塞的场景
+ *               VIRTUAL_THREAD: 每个请求一个虚拟线程（JDK 21+，低于JDK 21时回退到WORKER_POOL），适用于大量阻塞I/O的服务方法
+ * @author: Sun Xiaodong
+ */
+public enum DispatchMode implements CodeKeyEnum<DispatchMode, Byte, String> {
+    WORKER_POOL((byte) 1, "worker-pool"),
+    EVENT_LOOP((byte) 2, "event-loop"),
+    VIRTUAL_THREAD((byte) 3, "virtual-thread");
+
+    private final Byte code;
+    private final String key;
+
+    private static final Map<Byte, DispatchMode> CODE_MAPPER;
+
+    static {
+        CODE_MAPPER = Arrays.stream(DispatchMode.values()).collect(Collectors.toMap(DispatchMode::code, Function.identity()));
+    }
+
+    private DispatchMode(Byte code, String key) {
+        this.code = code;
+        this.key = key;
+    }
+
+    @Override
+    public Byte code() {
+        return this.code;
+    }
+
+    @Override
+    public Optional<DispatchMode> codeOf(Byte c) {
+        return Optional.ofNullable(null == c ? null : CODE_MAPPER.get(c));
+    }
+
+    @Override
+    public String key() {
+        return this.key;
+    }
+
+    @Override
+    public Optional<DispatchMode> keyOf(String k) {
+        return CodeKeyEnum.keyOf(DispatchMode.class, k);
+    }
+}
@@ -0,0 +1,167 @@
+package com.sun.server.dispatch;
+
+import com.sun.common.annotation.RpcService;
+import com.sun.common.util.VirtualThreads;
+import com.sun.server.context.configure.RpcServerProperties;
+import com.sun.server.service.ServiceInvoker;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.AnnotationUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @description: 服务方法调度器，决定服务方法在哪个线程上执行（每个请求只切换一次线程，或不切换）
+ *               被@NonBlocking标记的方法在当前I/O线程中直接执行；
+ *               配置了隔离线程池（rpc.dispatcher.bulkheads 或 @RpcService(threads > 0)）的方法在各自的隔离线程池中执行，
+ *               一个服务变慢时只占满自己的线程池，不影响其它服务；
+ *               其余方法按DispatchMode执行：EVENT_LOOP模式下在当前I/O线程中执行，VIRTUAL_THREAD模式下每个请求一个虚拟线程，
+ *               否则提交到有界业务线程池；线程池（含隔离线程池）已满时抛出RejectedExecutionException，由调用者立即响应，
+ *               不在I/O线程中执行（否则会阻塞同一event loop上的所有连接）
+ * @author: Sun Xiaodong
+ */
+public final class Dispatcher {
+    private static final Logger log = LoggerFactory.getLogger(Dispatcher.class);
+    private static final String WORKER_POOL_NAME = "rpc_handler_worker";
+    private static final String VIRTUAL_THREAD_PREFIX = "rpc_handler_virtual-";
+    private static final String BULKHEAD_POOL_PREFIX = "rpc_bulkhead_";
+
+    private final DispatchMode mode;
+    // 共用的业务线程池（EVENT_LOOP模式下为null）
+    private final ExecutorService executor;
+    // 按方法ID索引的隔离线程池（未配置隔离线程池的方法为null）
+    private final ExecutorService[] bulkheads;
+    // 隔离线程池，k: 配置的服务接口全限定名 或 服务接口全限定名#方法名
+    private final Map<String, ExecutorService> bulkheadPools;
+
+    public Dispatcher(final RpcServerProperties.Dispatcher config, final ServiceInvoker[] invokers) {
+        DispatchMode effectiveMode = Objects.requireNonNull(config.getMode());
+        if (DispatchMode.VIRTUAL_THREAD == effectiveMode && !VirtualThreads.isSupported()) {
+            log.warn("Virtual threads require JDK 21+, fallback to {}", DispatchMode.WORKER_POOL.key());
+            effectiveMode = DispatchMode.WORKER_POOL;
+        }
+        this.mode = effectiveMode;
+        switch (effectiveMode) {
+            case EVENT_LOOP:
+                this.executor = null;
+                break;
+            case VIRTUAL_THREAD:
+                this.executor = VirtualThreads.newThreadPerTaskExecutor(VIRTUAL_THREAD_PREFIX);
+                break;
+            default:
+                this.executor = newPool(WORKER_POOL_NAME, config.getThreads(), config.getQueueCapacity());
+        }
+
+        // 在服务启动时为每个方法确定隔离线程池，请求处理时按方法ID直接取得
+        this.bulkheadPools = new LinkedHashMap<>();
+        this.bulkheads = new ExecutorService[invokers.length];
+        final Map<String, RpcServerProperties.Bulkhead> configured = config.getBulkheads();
+        for (ServiceInvoker invoker : invokers) {
+            final String methodKey = invoker.getInterfaceName() + "#" + invoker.getMethod().getName();
+            if (configured.containsKey(methodKey)) {
+                bulkheads[invoker.getId()] = bulkheadPool(methodKey, configured.get(methodKey));
+            } else if (configured.containsKey(invoker.getInterfaceName())) {
+                bulkheads[invoker.getId()] = bulkheadPool(invoker.getInterfaceName(), configured.get(invoker.getInterfaceName()));
+            } else {
+                final RpcService annotation = AnnotationUtils.findAnnotation(invoker.getServiceClass(), RpcService.class);
+                if (Objects.nonNull(annotation) && annotation.threads() > 0) {
+                    bulkheads[invoker.getId()] = bulkheadPool(invoker.getInterfaceName(), annotation);
+                }
+            }
+        }
+        log.info("Dispatch mode: {}, bulkheads: {}", effectiveMode.key(), bulkheadPools.keySet());
+    }
+
+
+    /**
+     * 执行服务方法调用任务
+     * @param invoker 服务方法调用器
+     * @param task 调用任务（调用服务方法，并完成响应）
+     * @throws RejectedExecutionException 业务线程池（或隔离线程池）已满
+     */
+    public void dispatch(final ServiceInvoker invoker, final Runnable task) {
+        if (invoker.isNonBlocking()) {
+            task.run();
+            return;
+        }
+        final int id = invoker.getId();
+        final ExecutorService bulkhead = id < bulkheads.length ? bulkheads[id] : null;
+        if (Objects.nonNull(bulkhead)) {
+            bulkhead.execute(task);
+        } else if (Objects.isNull(executor)) {
+            task.run();
+        } else {
+            executor.execute(task);
+        }
+    }
+
+
+    public DispatchMode mode() {
+        return mode;
+    }
+
+    // 业务线程池、隔离线程池中等待执行的任务数
+    public int queueDepth() {
+        int depth = queueDepth(executor);
+        for (ExecutorService pool : bulkheadPools.values()) {
+            depth += queueDepth(pool);
+        }
+        return depth;
+    }
+
+    private static int queueDepth(final ExecutorService pool) {
+        return pool instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) pool).getQueue().size() : 0;
+    }
+
+
+    public void close(final long timeoutMillis) {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        if (Objects.nonNull(executor)) {
+            executor.shutdown();
+        }
+        bulkheadPools.values().forEach(ExecutorService::shutdown);
+        if (Objects.nonNull(executor)) {
+            awaitTermination(executor, deadline);
+        }
+        bulkheadPools.values().forEach(pool -> awaitTermination(pool, deadline));
+        log.info("Dispatcher closed.");
+    }
+
+
+    private ExecutorService bulkheadPool(final String key, final RpcServerProperties.Bulkhead config) {
+        return bulkheadPools.computeIfAbsent(key, k ->
+                newPool(BULKHEAD_POOL_PREFIX + k, config.getThreads(), config.getQueueCapacity()));
+    }
+
+    private ExecutorService bulkheadPool(final String key, final RpcService annotation) {
+        return bulkheadPools.computeIfAbsent(key, k ->
+                newPool(BULKHEAD_POOL_PREFIX + k, annotation.threads(), Math.max(1, annotation.queueCapacity())));
+    }
+
+    // 有界线程池：固定线程数、有界队列，已满时抛出RejectedExecutionException
+    private static ExecutorService newPool(final String name, final int threads, final int queueCapacity) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                                      new ArrayBlockingQueue<>(queueCapacity),
+                                      new DefaultThreadFactory(name, false),
+                                      new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    private static void awaitTermination(final ExecutorService pool, final long deadlineNanos) {
+        try {
+            if (!pool.awaitTermination(Math.max(0L, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                pool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.sun.server.handler;
 
+import com.sun.common.context.RpcContext;
+import com.sun.common.enumerator.Compression;
 import com.sun.common.enumerator.Event;
 import com.sun.common.exchange.message.Request;
 import com.sun.common.exchange.message.RequestBody;
@@ -8,22 +10,29 @@ import com.sun.common.exchange.message.Response;
 import com.sun.common.exchange.message.ResponseBody;
 import com.sun.common.exchange.message.ResponseHeader;
 import com.sun.common.exchange.message.ResponseStatus;
+import com.sun.common.log.AccessLog;
+import com.sun.common.metrics.RpcMetrics;
+import com.sun.common.netty.DeadlineTimer;
 import com.sun.server.context.configure.RpcServerProperties;
+import com.sun.server.dispatch.Dispatcher;
 import com.sun.server.service.ServiceFactory;
+import com.sun.server.service.ServiceInvoker;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
-import io.netty.util.concurrent.EventExecutorGroup;
+import io.netty.handler.codec.EncoderException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cglib.reflect.FastClass;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 
 /**
  * @description: RPC业务服务端处理器
@@ -32,13 +41,25 @@ import java.util.concurrent.TimeoutException;
 
 public class RpcServerHandler extends SimpleChannelInboundHandler<Request> {
     private static final Logger log = LoggerFactory.getLogger(RpcServerHandler.class);
+    // 响应写出失败时记录日志（写出成功时不做任何日志工作，请求的访问日志见AccessLog）
+    private static final ChannelFutureListener LOG_FAILURE = future -> {
+        if (!future.isSuccess()) {
+            log.warn("Failed to send response", future.cause());
+        }
+    };
 
     private final RpcServerProperties properties;
-    // 业务线程池
-    private final EventExecutorGroup group;
+    // 服务方法调度器
+    private final Dispatcher dispatcher;
+    // 访问日志（采样、异步输出）
+    private final AccessLog accessLog;
+    // RPC指标
+    private final RpcMetrics metrics;
 
-    public RpcServerHandler(final EventExecutorGroup group, RpcServerProperties properties) {
-        this.group = group;
+    public RpcServerHandler(final Dispatcher dispatcher, final AccessLog accessLog, final RpcMetrics metrics, RpcServerProperties properties) {
+        this.dispatcher = dispatcher;
+        this.accessLog = accessLog;
+        this.metrics = metrics;
         this.properties = properties;
     }
 
@@ -56,63 +77,139 @@ public class RpcServerHandler extends SimpleChannelInboundHandler<Request> {
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, Request msg) {
         final RequestHeader requestHeader = msg.getHeader();
-        final String requestId = requestHeader.getId().toString();
-        log.info("Received {} {}",  (requestHeader.getEvent() == Event.HEARTBEAT) ? "heartbeat" : "request", requestId);
+        // 服务目录协商，直接返回服务目录
+        if (requestHeader.getEvent() == Event.CATALOG) {
+            final ResponseHeader responseHeader = (ResponseHeader) ResponseHeader.getDefault()
+                                                                                 .setId(requestHeader.getId())
+                                                                                 .setEvent(Event.CATALOG)
+                                                                                 .setSerialization(requestHeader.getSerialization());
+            responseHeader.setStatus(ResponseStatus.OK);
+            sendResponse(ctx.channel(), new Response(responseHeader, new ResponseBody(ServiceFactory.catalog())));
+            return;
+        }
         // 响应请求（异步执行 + 超时处理）
         if (requestHeader.getResponseRequired()) {
-            group.submit(() -> {
-                // 客户端超时时间
-                final long clientTimeout = requestHeader.getTimeoutMillis();
-                // 服务端超时时间
-                final long serverTimeout = properties.getTimeout();
-
-                // 0 表示没有超时限制，如果客户端没有超时限制，那么以服务端超时设置为准；
-                // 如果客户端有超时，服务端也有超时，那么以超时时间短的为准；
-                final long timeout = 0 == clientTimeout ? serverTimeout : Math.min(clientTimeout, serverTimeout);
-                final boolean isServerTimeout = (0 == clientTimeout) || (clientTimeout >= serverTimeout);
-
-                final ResponseHeader responseHeader = (ResponseHeader) ResponseHeader.getDefault()
-                                                                                     .setId(requestHeader.getId())
-                                                                                     .setEvent(requestHeader.getEvent())
-                                                                                     .setSerialization(requestHeader.getSerialization());
-                final Response response = new Response().setHeader(responseHeader);
-                CompletableFuture<Response> completableFuture = CompletableFuture.supplyAsync(() -> {
+            // 从解码时开始计时（请求在I/O线程中等待的时间也计入）；未经解码的请求从此处开始计时
+            final long startNanos = 0 == requestHeader.getArrivalNanos() ? System.nanoTime() : requestHeader.getArrivalNanos();
+            metrics.requestStarted();
+            // 客户端超时时间
+            final long clientTimeout = requestHeader.getTimeoutMillis();
+            // 服务端超时时间
+            final long serverTimeout = properties.getTimeout();
+
+            // 0 表示没有超时限制，如果客户端没有超时限制，那么以服务端超时设置为准；
+            // 如果客户端有超时，服务端也有超时，那么以超时时间短的为准；
+            final long timeout = 0 == clientTimeout ? serverTimeout : Math.min(clientTimeout, serverTimeout);
+            final boolean isServerTimeout = (0 == clientTimeout) || (clientTimeout >= serverTimeout);
+            // 截止时间：到达时间 + 超时时间
+            final long deadlineNanos = timeout > 0 ? startNanos + TimeUnit.MILLISECONDS.toNanos(timeout) : RpcContext.NO_DEADLINE;
+            final byte timeoutStatus = isServerTimeout ? ResponseStatus.SERVER_TIMEOUT : ResponseStatus.CLIENT_TIMEOUT;
+
+            // 查找服务方法调用器（在I/O线程中完成，找不到时直接响应）
+            final ServiceInvoker invoker;
+            try {
+                invoker = lookup(msg);
+            } catch (ClassNotFoundException e) {
+                sendResponse(ctx.channel(), newResponse(requestHeader, ResponseStatus.SERVICE_NOT_FOUND, new ResponseBody(null, e.getMessage())));
+                final long latencyNanos = System.nanoTime() - startNanos;
+                metrics.requestCompleted();
+                metrics.method(msg.getBody().getInterfaceName(), msg.getBody().getMethodName()).record(ResponseStatus.SERVICE_NOT_FOUND, latencyNanos);
+                accessLog.record(requestHeader.getId(), ctx.channel().remoteAddress(), msg.getBody().getInterfaceName(),
+                        msg.getBody().getMethodName(), requestHeader.getAttachment(RpcContext.TRACE_ID), ResponseStatus.SERVICE_NOT_FOUND, latencyNanos);
+                return;
+            }
+
+            // 服务方法调用完成或超时服务先完成（以先完成的为准），完成时在回调中发送响应；等待超时不占用线程
+            final CompletableFuture<Response> completableFuture = new CompletableFuture<>();
+            final RpcMetrics.MethodMetrics methodMetrics = metrics.method(invoker.getInterfaceName(), invoker.getMethod().getName());
+            // 响应的压缩类型：只使用请求体的压缩类型（客户端一定支持），请求体未压缩时响应体也不压缩
+            final Compression responseCompression = invoker.isCompress() ? requestHeader.getCompression() : null;
+            completableFuture.thenAccept(response -> {
+                // 客户端的超时时间已过（CLIENT_TIMEOUT）：客户端已以CLIENT_TIMEOUT完成请求，不再响应，只记录指标、访问日志
+                if (ResponseStatus.CLIENT_TIMEOUT != response.getHeader().getStatus()) {
+                    response.getHeader().setCompression(responseCompression);
+                    sendResponse(ctx.channel(), response);
+                }
+                final long latencyNanos = System.nanoTime() - startNanos;
+                metrics.requestCompleted();
+                methodMetrics.record(response.getHeader().getStatus(), latencyNanos);
+                accessLog.record(requestHeader.getId(), ctx.channel().remoteAddress(), invoker.getInterfaceName(),
+                        invoker.getMethod().getName(), requestHeader.getAttachment(RpcContext.TRACE_ID), response.getHeader().getStatus(), latencyNanos);
+            });
+            try {
+                // 服务方法只在调度器选择的线程上执行一次（I/O线程或业务线程）
+                dispatcher.dispatch(invoker, () -> {
+                    // 超时后不再执行（在I/O线程或业务线程池中排队期间已到截止时间，而超时服务尚未触发时，同样不再执行）
+                    if (completableFuture.isDone()) {
+                        return;
+                    }
+                    if (RpcContext.NO_DEADLINE != deadlineNanos && System.nanoTime() - deadlineNanos >= 0) {
+                        completableFuture.complete(newResponse(requestHeader, timeoutStatus, new ResponseBody(null, "request timeout after " + timeout + "ms")));
+                        return;
+                    }
+                    // 服务方法执行期间，当前线程的RPC上下文附件为请求携带的附件，截止时间为请求的截止时间（服务方法中发起的下游调用继续传递）
+                    final Map<String, String> previous = RpcContext.attach(requestHeader.getAttachments());
+                    final long previousDeadline = RpcContext.attachDeadline(deadlineNanos);
                     try {
-                        Object result = handle(msg);
-                        responseHeader.setStatus(ResponseStatus.OK);
-                        response.setBody(new ResponseBody(result));
-                    } catch (Exception e) {
-                        response.setBody(new ResponseBody(e.getCause(), e.getMessage()));
-                        if (e instanceof ClassNotFoundException) {
-                            responseHeader.setStatus(ResponseStatus.SERVICE_NOT_FOUND);
+                        Object result = invoker.invoke(msg.getBody().getParameters());
+                        if (invoker.isAsync() && result instanceof CompletionStage) {
+                            // 异步方法：返回的future完成时响应，等待期间不占用线程
+                            ((CompletionStage<?>) result).whenComplete((value, throwable) -> completableFuture.complete(Objects.isNull(throwable)
+                                    ? newResponse(requestHeader, ResponseStatus.OK, new ResponseBody(value))
+                                    : serviceError(requestHeader, throwable)));
                         } else {
-                            responseHeader.setStatus(ResponseStatus.SERVICE_ERROR);
+                            completableFuture.complete(newResponse(requestHeader, ResponseStatus.OK, new ResponseBody(result)));
                         }
-                        e.printStackTrace();
+                    } catch (Throwable t) {
+                        // 服务方法抛出的异常（包括Error）、参数不匹配等，都以SERVICE_ERROR响应，调用方不必等到超时
+                        log.warn("Failed to invoke {}", invoker.getSignature(), unwrap(t));
+                        completableFuture.complete(serviceError(requestHeader, t));
+                    } finally {
+                        RpcContext.restore(previous);
+                        RpcContext.restoreDeadline(previousDeadline);
                     }
-                    return response;
                 });
-
-                try {
-                    if (0 == timeout) {
-                        completableFuture.get();
-                    } else {
-                        completableFuture.get(timeout, TimeUnit.MILLISECONDS);
-                    }
-                } catch (Exception e) {
-                    response.setBody(new ResponseBody(e.getCause(), e.getMessage()));
-                    if (e instanceof TimeoutException) { // 超时
-                        responseHeader.setStatus(isServerTimeout ? ResponseStatus.SERVER_TIMEOUT : ResponseStatus.CLIENT_TIMEOUT);
-                    } else {
-                        responseHeader.setStatus(ResponseStatus.SERVER_ERROR);
-                    }
-                }
-                sendResponse(ctx.channel(), response);
-            });
+            } catch (RejectedExecutionException e) {
+                // 业务线程池已满，立即响应，不排队等待
+                completableFuture.complete(newResponse(requestHeader, ResponseStatus.SERVER_THREADPOOL_RESOURCE_EXHAUSTED_ERROR,
+                        new ResponseBody(null, "server thread pool is exhausted")));
+            }
+            // 调度后再设置超时（在I/O线程中直接执行完成的请求，无需设置），超时时间为截止时间的剩余时间
+            // 超时在连接的event loop中完成（响应写出、指标、访问日志在其中执行），不阻塞超时服务的时间轮线程
+            if (RpcContext.NO_DEADLINE != deadlineNanos && !completableFuture.isDone()) {
+                final long remainingMillis = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+                DeadlineTimer.expireAfter(completableFuture, remainingMillis, () ->
+                        newResponse(requestHeader, timeoutStatus, new ResponseBody(null, "request timeout after " + timeout + "ms")),
+                        ctx.channel().eventLoop());
+            }
         }
     }
 
 
+    // 服务方法抛出异常、异步方法以异常完成时的响应
+    private static Response serviceError(final RequestHeader requestHeader, final Throwable throwable) {
+        final Throwable cause = unwrap(throwable);
+        return newResponse(requestHeader, ResponseStatus.SERVICE_ERROR, new ResponseBody(cause, cause.getMessage()));
+    }
+
+
+    // InvocationTargetException（同步方法）、CompletionException（异步方法）包装的原始异常
+    private static Throwable unwrap(final Throwable throwable) {
+        return ((throwable instanceof InvocationTargetException || throwable instanceof CompletionException)
+                && Objects.nonNull(throwable.getCause())) ? throwable.getCause() : throwable;
+    }
+
+
+    private static Response newResponse(final RequestHeader requestHeader, final byte status, final ResponseBody body) {
+        final ResponseHeader responseHeader = (ResponseHeader) ResponseHeader.getDefault()
+                                                                             .setId(requestHeader.getId())
+                                                                             .setEvent(requestHeader.getEvent())
+                                                                             .setSerialization(requestHeader.getSerialization());
+        responseHeader.setStatus(status);
+        return new Response(responseHeader, body);
+    }
+
+
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
         // 当Channel已经断开的情况下, 仍然发送数据, 会抛异常, 该方法会被调用.
@@ -122,37 +219,51 @@ public class RpcServerHandler extends SimpleChannelInboundHandler<Request> {
     }
 
 
+    // 在I/O线程中调用时直接写出，否则由Netty提交到连接的event loop中写出
+    // 响应体编码失败（如：返回值的类型不被请求的序列化方式支持）时，改为发送只携带错误信息的SERVICE_ERROR响应，调用方不必等到超时
     private void sendResponse(final Channel channel, final Response response) {
-        channel.eventLoop().submit(() -> channel.writeAndFlush(response).addListener((ChannelFutureListener) future -> {
+        final ResponseBody body = response.getBody();
+        if (Objects.isNull(body) || Objects.isNull(body.getResult())) {
+            // 没有结果的响应（错误信息为String），编码不会因结果的类型失败
+            channel.writeAndFlush(response).addListener(LOG_FAILURE);
+            return;
+        }
+        channel.writeAndFlush(response).addListener(future -> {
             if (future.isSuccess()) {
-                log.info("Send response for request {}", response.getHeader().getId().toString());
+                return;
+            }
+            if (future.cause() instanceof EncoderException && channel.isActive()) {
+                final ResponseHeader header = response.getHeader();
+                log.warn("Failed to encode response {}, sending SERVICE_ERROR instead", header.getId(), future.cause());
+                final ResponseHeader errorHeader = (ResponseHeader) ResponseHeader.getDefault()
+                                                                                  .setId(header.getId())
+                                                                                  .setEvent(header.getEvent())
+                                                                                  .setSerialization(header.getSerialization());
+                errorHeader.setStatus(ResponseStatus.SERVICE_ERROR);
+                final Throwable cause = Objects.nonNull(future.cause().getCause()) ? future.cause().getCause() : future.cause();
+                sendResponse(channel, new Response(errorHeader, new ResponseBody(null, "failed to encode response: " + cause)));
             } else {
-                Throwable cause = future.cause();
-                if (Objects.nonNull(cause)) {
-                    cause.printStackTrace();
-                }
-            }})
-        );
+                log.warn("Failed to send response", future.cause());
+            }
+        });
     }
 
 
-    private Object handle(Request request) throws ClassNotFoundException, InvocationTargetException {
+    private ServiceInvoker lookup(Request request) throws ClassNotFoundException {
         final RequestBody body = request.getBody();
-        final String interfaceName = body.getInterfaceName();
-        Object serviceBean = ServiceFactory.getService(interfaceName);
-        if (Objects.isNull(serviceBean)) {
-            log.error("Can not find service implement with interface: {}", interfaceName);
-            throw new ClassNotFoundException("Can not find service implement with interface: " + interfaceName);
+        final Integer methodId = body.getMethodId();
+        // 服务注册时预先生成的调用器，无需反射查找方法
+        // 请求体携带方法ID时按方法ID查找，否则按接口名、方法名、参数类型查找
+        final ServiceInvoker invoker = Objects.nonNull(methodId)
+                ? ServiceFactory.getInvoker(methodId)
+                : ServiceFactory.getInvoker(body.getInterfaceName(), body.getMethodName(), body.getParameterTypes());
+        if (Objects.isNull(invoker)) {
+            final String target = Objects.nonNull(methodId)
+                    ? "method id: " + methodId
+                    : "interface: " + body.getInterfaceName() + ", method: " + body.getMethodName();
+            log.error("Can not find service implement with {}", target);
+            throw new ClassNotFoundException("Can not find service implement with " + target);
         }
-        final Class<?> serviceBeanClass = serviceBean.getClass();
-        // JDK reflect
-        //Method method = serviceBeanClass.getMethod(body.getMethodName(), body.getParameterTypes());
-        //method.setAccessible(true);
-        //return method.invoke(serviceBean, body.getParameters());
-
-        // Cglib reflect
-        final FastClass serviceFastClass = FastClass.create(serviceBeanClass);
-        final int methodIndex = serviceFastClass.getIndex(body.getMethodName(), body.getParameterTypes());
-        return serviceFastClass.invoke(methodIndex, serviceBean, body.getParameters());
+        return invoker;
     }
 }
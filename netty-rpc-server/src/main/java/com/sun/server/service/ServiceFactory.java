@@ -1,23 +1,38 @@
 package com.sun.server.service;
 
+import org.springframework.cglib.reflect.FastClass;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @description: RPC服务工厂类
+ *               服务注册时，为服务接口的每个方法预先生成调用器（ServiceInvoker），并分配方法ID；
+ *               请求处理时，按方法ID（数组下标）或 接口名 + 方法名 + 参数类型（哈希表）查找调用器
  * @author: Sun Xiaodong
  */
 public final class ServiceFactory {
+    private static final ServiceInvoker[] EMPTY_INVOKERS = new ServiceInvoker[0];
 
     private final static Map<Class<?>, Object> SERVICES = new ConcurrentHashMap<>();
+    // k: 服务接口全限定名; v: (k: 方法名; v: 同名的重载方法调用器)
+    private final static Map<String, Map<String, ServiceInvoker[]>> METHODS = new ConcurrentHashMap<>();
+    // 下标即为方法ID（服务注册时写入，写时复制）
+    private static volatile ServiceInvoker[] invokers = EMPTY_INVOKERS;
 
 
     // 通过RpcServer::InitRpcServiceFactory方法，利用反射机制添加服务
     @SuppressWarnings("unused")
-    private static <T> void addService(Class<?> interfaceClass, T instance) {
+    private static synchronized <T> void addService(Class<?> interfaceClass, T instance) {
         // 保证 instance实例类 是 interfaceClazz接口类的实现类（子类）
         if (interfaceClass.isInstance(instance)) {
             SERVICES.put(interfaceClass, instance);
+            addInvokers(interfaceClass, instance);
         } else {
             throw new IllegalArgumentException("The instance class must be the implementation class of interfaceClass");
         }
@@ -33,6 +48,90 @@ public final class ServiceFactory {
     }
 
 
+    // 已注册的服务接口全限定名
+    public static Set<String> interfaceNames() {
+        return Collections.unmodifiableSet(METHODS.keySet());
+    }
+
+
+    // 已注册的全部调用器（下标即为方法ID）
+    public static ServiceInvoker[] getInvokers() {
+        return invokers.clone();
+    }
+
+
+    /**
+     * 按方法ID获取调用器
+     * @param methodId  方法ID
+     * @return  返回调用器，不存在则返回null
+     */
+    public static ServiceInvoker getInvoker(final int methodId) {
+        final ServiceInvoker[] invokers = ServiceFactory.invokers;
+        return (methodId >= 0 && methodId < invokers.length) ? invokers[methodId] : null;
+    }
+
+
+    /**
+     * 按接口名、方法名、参数类型获取调用器
+     * @param interfaceName  服务接口全限定名
+     * @param methodName  方法名
+     * @param parameterTypes  参数类型列表
+     * @return  返回调用器，不存在则返回null
+     */
+    public static ServiceInvoker getInvoker(final String interfaceName, final String methodName, final Class<?>[] parameterTypes) {
+        final Map<String, ServiceInvoker[]> methods = METHODS.get(interfaceName);
+        if (null == methods) {
+            return null;
+        }
+        final ServiceInvoker[] overloads = methods.get(methodName);
+        if (null != overloads) {
+            for (ServiceInvoker invoker : overloads) {
+                if (invoker.matches(parameterTypes)) {
+                    return invoker;
+                }
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * 服务目录：下标为方法ID，值为方法签名（见ServiceCatalog）
+     * @return  返回方法签名数组
+     */
+    public static String[] catalog() {
+        final ServiceInvoker[] invokers = ServiceFactory.invokers;
+        final String[] signatures = new String[invokers.length];
+        for (int i = 0; i < invokers.length; i++) {
+            signatures[i] = invokers[i].getSignature();
+        }
+        return signatures;
+    }
+
+
+    private static void addInvokers(final Class<?> interfaceClass, final Object instance) {
+        final FastClass fastClass = FastClass.create(instance.getClass());
+        final Method[] interfaceMethods = interfaceClass.getMethods();
+        // 按方法签名排序，保证方法ID分配顺序稳定
+        Arrays.sort(interfaceMethods, (m1, m2) -> m1.toString().compareTo(m2.toString()));
+
+        ServiceInvoker[] newInvokers = Arrays.copyOf(invokers, invokers.length + interfaceMethods.length);
+        final Map<String, ServiceInvoker[]> methods = new HashMap<>();
+        int id = invokers.length;
+        for (Method method : interfaceMethods) {
+            final ServiceInvoker invoker = new ServiceInvoker(id, interfaceClass.getName(), method, instance, fastClass);
+            newInvokers[id++] = invoker;
+            methods.merge(method.getName(), new ServiceInvoker[]{invoker}, (o, n) -> {
+                ServiceInvoker[] merged = Arrays.copyOf(o, o.length + 1);
+                merged[o.length] = n[0];
+                return merged;
+            });
+        }
+        METHODS.put(interfaceClass.getName(), methods);
+        invokers = newInvokers;
+    }
+
+
     private ServiceFactory() {
         throw new IllegalStateException("Instantiation not allowed");
     }
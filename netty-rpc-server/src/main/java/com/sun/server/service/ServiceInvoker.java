@@ -0,0 +1,113 @@
+package com.sun.server.service;
+
+import com.sun.common.annotation.Compress;
+import com.sun.common.annotation.NonBlocking;
+import com.sun.common.exchange.message.ServiceCatalog;
+import org.springframework.cglib.reflect.FastClass;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * @description: RPC服务方法调用器
+ *               服务注册时预先计算好FastClass及方法索引，请求处理时直接按索引调用，无需反射查找方法
+ * @author: Sun Xiaodong
+ */
+public final class ServiceInvoker {
+    // 方法ID（服务注册时分配，服务端内唯一）
+    private final int id;
+    // 服务接口全限定名
+    private final String interfaceName;
+    // 服务接口方法
+    private final Method method;
+    // 方法签名（见ServiceCatalog）
+    private final String signature;
+    // 服务接口实现类bean对象
+    private final Object serviceBean;
+    private final FastClass fastClass;
+    // 方法在FastClass中的索引
+    private final int index;
+    // 服务接口方法或实现类方法被@NonBlocking标记时，在I/O线程中直接执行
+    private final boolean nonBlocking;
+    // 异步方法（返回CompletionStage，如CompletableFuture），在返回的future完成时响应
+    private final boolean async;
+    // 服务接口、服务接口方法或实现类方法被@Compress标记时，压缩响应体
+    private final boolean compress;
+
+    ServiceInvoker(final int id, final String interfaceName, final Method method, final Object serviceBean, final FastClass fastClass) {
+        this.id = id;
+        this.interfaceName = interfaceName;
+        this.method = method;
+        this.signature = ServiceCatalog.signature(method);
+        this.serviceBean = serviceBean;
+        this.fastClass = fastClass;
+        this.index = fastClass.getIndex(method.getName(), method.getParameterTypes());
+        if (this.index < 0) {
+            throw new IllegalArgumentException("Can not find method " + method + " in class " + fastClass.getJavaClass().getName());
+        }
+        this.nonBlocking = method.isAnnotationPresent(NonBlocking.class) || isAnnotationPresent(serviceBean.getClass(), method, NonBlocking.class);
+        this.async = CompletionStage.class.isAssignableFrom(method.getReturnType());
+        this.compress = method.isAnnotationPresent(Compress.class) || method.getDeclaringClass().isAnnotationPresent(Compress.class)
+                || isAnnotationPresent(serviceBean.getClass(), method, Compress.class);
+    }
+
+
+    public Object invoke(final Object[] parameters) throws InvocationTargetException {
+        return fastClass.invoke(index, serviceBean, parameters);
+    }
+
+
+    public int getId() {
+        return id;
+    }
+
+    public String getInterfaceName() {
+        return interfaceName;
+    }
+
+    // 服务接口实现类
+    public Class<?> getServiceClass() {
+        return serviceBean.getClass();
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    public boolean isNonBlocking() {
+        return nonBlocking;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public boolean isCompress() {
+        return compress;
+    }
+
+    // 实现类方法是否被指定注解（@NonBlocking、@Compress）标记
+    private static boolean isAnnotationPresent(final Class<?> implementationClass, final Method method, final Class<? extends Annotation> annotation) {
+        try {
+            return implementationClass.getMethod(method.getName(), method.getParameterTypes()).isAnnotationPresent(annotation);
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    // 参数类型是否完全一致
+    boolean matches(final Class<?>[] parameterTypes) {
+        final Class<?>[] types = method.getParameterTypes();
+        if (null == parameterTypes) {
+            return 0 == types.length;
+        }
+        return Arrays.equals(types, parameterTypes);
+    }
+}
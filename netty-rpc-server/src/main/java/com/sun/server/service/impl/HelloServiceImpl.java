@@ -5,6 +5,7 @@ import com.sun.common.annotation.RpcService;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
@@ -29,4 +30,10 @@ public class HelloServiceImpl implements HelloService {
         }
         return list;
     }
+
+
+    @Override
+    public CompletableFuture<String> sayHelloAsync(String name) {
+        return CompletableFuture.completedFuture("Hello, ".concat(name));
+    }
 }
@@ -0,0 +1,160 @@
+package com.sun.server.service;
+
+import com.sun.common.exchange.message.ServiceCatalog;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @description: ServiceFactory的方法ID分配：同一服务接口内按方法（Method::toString）排序、连续分配，后注册的服务接口追加在之后，
+ *               已分配的方法ID不因后续注册改变；服务目录（catalog）与ServiceCatalog的查找结果一致
+ *               ServiceFactory是全局的，测试只检查本测试注册的服务接口（方法ID从注册前的调用器数量开始）
+ * @author: Sun Xiaodong
+ */
+class ServiceFactoryTest {
+    private static int firstId;
+    private static ServiceInvoker[] registered;
+
+    public interface Greeter {
+        String greet(String name);
+        String greet(String name, int times);
+        String bye(String name);
+    }
+
+    public interface Counter {
+        int count();
+        int add(int delta);
+    }
+
+    public static class GreeterImpl implements Greeter {
+        @Override
+        public String greet(String name) {
+            return "Hello, " + name;
+        }
+
+        @Override
+        public String greet(String name, int times) {
+            return String.join(" ", Collections.nCopies(times, greet(name)));
+        }
+
+        @Override
+        public String bye(String name) {
+            return "Bye, " + name;
+        }
+    }
+
+    public static class CounterImpl implements Counter {
+        private int count;
+
+        @Override
+        public int count() {
+            return count;
+        }
+
+        @Override
+        public int add(int delta) {
+            return count += delta;
+        }
+    }
+
+
+    @BeforeAll
+    static void register() throws Exception {
+        firstId = ServiceFactory.getInvokers().length;
+        addService(Greeter.class, new GreeterImpl());
+        registered = ServiceFactory.getInvokers();
+    }
+
+
+    @Test
+    void idsAreContiguousAndSortedByMethod() {
+        final Method[] methods = sortedMethods(Greeter.class);
+        assertEquals(firstId + methods.length, registered.length);
+        for (int i = 0; i < methods.length; i++) {
+            final ServiceInvoker invoker = registered[firstId + i];
+            assertEquals(firstId + i, invoker.getId());
+            assertEquals(methods[i], invoker.getMethod());
+            assertEquals(ServiceCatalog.signature(methods[i]), invoker.getSignature());
+            assertSame(invoker, ServiceFactory.getInvoker(firstId + i));
+        }
+    }
+
+    @Test
+    void lookupByIdAndByName() throws Exception {
+        final ServiceInvoker byName = ServiceFactory.getInvoker(Greeter.class.getName(), "greet", new Class<?>[]{String.class, int.class});
+        assertSame(byName, ServiceFactory.getInvoker(byName.getId()));
+        assertEquals("Hello, rpc Hello, rpc", byName.invoke(new Object[]{"rpc", 2}));
+        assertNull(ServiceFactory.getInvoker(Greeter.class.getName(), "greet", new Class<?>[]{Object.class}));
+        assertNull(ServiceFactory.getInvoker("com.example.Unknown", "greet", new Class<?>[]{String.class}));
+        assertNull(ServiceFactory.getInvoker(-1));
+        assertNull(ServiceFactory.getInvoker(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void idsAreStableAcrossRegistrations() throws Exception {
+        final String[] before = ServiceFactory.catalog();
+        addService(Counter.class, new CounterImpl());
+        final String[] after = ServiceFactory.catalog();
+
+        // 已分配的方法ID不变，新的服务接口追加在之后
+        assertArrayEquals(before, Arrays.copyOf(after, before.length));
+        assertEquals(before.length + Counter.class.getMethods().length, after.length);
+        assertEquals(signatures(Counter.class), Arrays.asList(after).subList(before.length, after.length));
+        for (ServiceInvoker invoker : registered) {
+            assertSame(invoker, ServiceFactory.getInvoker(invoker.getId()));
+        }
+    }
+
+    @Test
+    void catalogMatchesInvokers() {
+        final ServiceCatalog catalog = ServiceCatalog.of(ServiceFactory.catalog());
+        for (ServiceInvoker invoker : ServiceFactory.getInvokers()) {
+            assertEquals(invoker.getId(), catalog.idOf(invoker.getInterfaceName(), invoker.getMethod().getName(),
+                    invoker.getMethod().getParameterTypes()));
+        }
+    }
+
+    @Test
+    void rejectsInstanceOfOtherInterface() {
+        assertThrows(IllegalArgumentException.class, () -> addService(Counter.class, new GreeterImpl()));
+    }
+
+
+    // 与ServiceFactory分配方法ID的顺序相同：按Method::toString排序
+    private static Method[] sortedMethods(final Class<?> interfaceClass) {
+        final Method[] methods = interfaceClass.getMethods();
+        Arrays.sort(methods, (m1, m2) -> m1.toString().compareTo(m2.toString()));
+        return methods;
+    }
+
+    private static List<String> signatures(final Class<?> interfaceClass) {
+        final List<String> signatures = new ArrayList<>();
+        for (Method method : sortedMethods(interfaceClass)) {
+            signatures.add(ServiceCatalog.signature(method));
+        }
+        return signatures;
+    }
+
+    // 与RpcServer相同，通过反射调用ServiceFactory.addService
+    private static void addService(final Class<?> interfaceClass, final Object instance) throws Exception {
+        final Method addService = ServiceFactory.class.getDeclaredMethod("addService", Class.class, Object.class);
+        addService.setAccessible(true);
+        try {
+            addService.invoke(null, interfaceClass, instance);
+        } catch (InvocationTargetException e) {
+            throw (Exception) e.getCause();
+        }
+    }
+}